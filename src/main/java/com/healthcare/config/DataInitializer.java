@@ -3,6 +3,8 @@ package com.healthcare.config;
 import com.healthcare.entity.Doctor;
 import com.healthcare.entity.Patient;
 import com.healthcare.entity.Visit;
+import com.healthcare.job.DoctorPatientStatsReconciliationJob;
+import com.healthcare.job.LastVisitRebuildJob;
 import com.healthcare.repository.DoctorRepository;
 import com.healthcare.repository.PatientRepository;
 import com.healthcare.repository.VisitRepository;
@@ -30,6 +32,12 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private VisitRepository visitRepository;
 
+    @Autowired
+    private LastVisitRebuildJob lastVisitRebuildJob;
+
+    @Autowired
+    private DoctorPatientStatsReconciliationJob statsReconciliationJob;
+
     private final Random random = new Random();
 
     @Override
@@ -49,6 +57,10 @@ public class DataInitializer implements CommandLineRunner {
 
         // Create visits
         createVisits(doctors, patients);
+
+        // Seeded visits bypass VisitService, so backfill the projections
+        lastVisitRebuildJob.rebuild();
+        statsReconciliationJob.reconcile();
     }
 
     private List<Doctor> createDoctors() {
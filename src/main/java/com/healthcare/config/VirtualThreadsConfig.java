@@ -0,0 +1,41 @@
+package com.healthcare.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Reports on startup whether the {@code virtual-threads} profile is actually in
+ * effect, as Spring Boot silently keeps platform threads below Java 21.
+ */
+@Configuration
+@Profile("virtual-threads")
+public class VirtualThreadsConfig implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadsConfig.class);
+
+    private final int maximumPoolSize;
+
+    public VirtualThreadsConfig(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize) {
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int javaVersion = Runtime.version().feature();
+        if (javaVersion < 21) {
+            log.warn("virtual-threads profile is active but Java {} has no virtual threads, " +
+                    "requests run on the platform thread pool", javaVersion);
+            return;
+        }
+        log.info("Requests run on virtual threads, concurrent database work is bounded by {} pooled connections",
+                maximumPoolSize);
+        if (System.getProperty("jdk.tracePinnedThreads") == null) {
+            log.info("Start with -Djdk.tracePinnedThreads=short to log carrier threads pinned by the JDBC driver");
+        }
+    }
+}
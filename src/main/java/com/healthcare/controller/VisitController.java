@@ -1,15 +1,27 @@
 package com.healthcare.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.healthcare.dto.*;
-import com.healthcare.entity.Visit;
+import com.healthcare.service.DataVersionService;
+import com.healthcare.service.PatientExportService;
 import com.healthcare.service.PatientService;
+import com.healthcare.service.VisitBatchService;
 import com.healthcare.service.VisitService;
+import com.healthcare.service.VisitWritePipeline;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -21,27 +33,137 @@ import java.util.stream.Collectors;
 public class VisitController {
 
     private final VisitService visitService;
+    private final VisitBatchService visitBatchService;
+    private final VisitWritePipeline visitWritePipeline;
     private final PatientService patientService;
+    private final PatientExportService patientExportService;
+    private final DataVersionService dataVersionService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public VisitController(VisitService visitService, PatientService patientService) {
+    public VisitController(VisitService visitService,
+                           VisitBatchService visitBatchService,
+                           VisitWritePipeline visitWritePipeline,
+                           PatientService patientService,
+                           PatientExportService patientExportService,
+                           DataVersionService dataVersionService,
+                           ObjectMapper objectMapper) {
         this.visitService = visitService;
+        this.visitBatchService = visitBatchService;
+        this.visitWritePipeline = visitWritePipeline;
         this.patientService = patientService;
+        this.patientExportService = patientExportService;
+        this.dataVersionService = dataVersionService;
+        this.objectMapper = objectMapper;
     }
 
+    /**
+     * With {@code app.visit-pipeline.enabled} the visit is committed together with
+     * other concurrently created ones; the request thread holds no connection meanwhile.
+     */
     @PostMapping
-    public ResponseEntity<Visit> createVisit(@Valid @RequestBody CreateVisitRequest request) {
-        Visit visit = visitService.createVisit(request);
+    public ResponseEntity<VisitCreatedResponse> createVisit(@Valid @RequestBody CreateVisitRequest request) {
+        VisitCreatedResponse visit = visitWritePipeline.isEnabled()
+                ? visitWritePipeline.createVisit(request)
+                : visitService.createVisit(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(visit);
     }
 
+    /**
+     * Creates up to {@link CreateVisitBatchRequest#MAX_VISITS} visits in one transaction.
+     * Malformed items fail the whole request; items that reference unknown patients or
+     * doctors or conflict with other visits are reported as rejected and skipped.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<VisitBatchResponse> createVisits(@Valid @RequestBody CreateVisitBatchRequest request) {
+        List<VisitBatchItemResult> results = visitBatchService.createVisits(request.getVisits());
+        return ResponseEntity.ok(new VisitBatchResponse(results));
+    }
+
+    /**
+     * The ETag is the data version read before any query runs, so a write that commits
+     * while the page is being built yields a stale tag and the next request refetches.
+     * A matching {@code If-None-Match} is answered with 304 after reading only the
+     * version row, without running the list queries.
+     */
     @GetMapping("/patients")
     public ResponseEntity<PatientsListResponse> getPatientsList(
             @RequestParam(required = false) Integer page,
             @RequestParam(required = false) Integer size,
             @RequestParam(required = false) String search,
-            @RequestParam(required = false) String doctorIds) {
+            @RequestParam(required = false) String doctorIds,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String count,
+            @RequestParam(required = false) String searchMode,
+            WebRequest webRequest) {
+
+        PatientsListRequest listRequest = toListRequest(page, size, search, doctorIds, cursor, count, searchMode);
+        String etag = patientsListEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        PatientsListResponse response = patientService.getPatientsList(listRequest);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(response);
+    }
+
+    /**
+     * Same document as {@link #getPatientsList}, written patient by patient instead of
+     * being built in memory first. Meant for large pages.
+     */
+    @GetMapping(value = "/patients", params = "stream=true")
+    public void streamPatientsList(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String doctorIds,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String count,
+            @RequestParam(required = false) String searchMode,
+            WebRequest webRequest,
+            HttpServletResponse response) throws IOException {
+
+        PatientsListRequest listRequest = toListRequest(page, size, search, doctorIds, cursor, count, searchMode);
+        if (webRequest.checkNotModified(patientsListEtag())) {
+            return;
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream());
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Not closed on failure: closing would flush and commit the response before the
+        // exception handler runs, and would complete a truncated document
+        patientService.writePatientsList(listRequest, generator);
+        generator.close();
+    }
+
+    /**
+     * Every patient with their last visits, as NDJSON (default) or CSV, in one response.
+     */
+    @GetMapping("/patients/export")
+    public void exportPatients(@RequestParam(required = false) String format,
+                               HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"patients." + exportFormat.getFileExtension() + "\"");
+
+        patientExportService.export(exportFormat, response.getOutputStream());
+    }
+
+    private String patientsListEtag() {
+        return "\"" + dataVersionService.currentVersion() + "\"";
+    }
 
+    private PatientsListRequest toListRequest(Integer page, Integer size, String search, String doctorIds,
+                                              String cursor, String count, String searchMode) {
         List<Long> doctorIdList = null;
         if (doctorIds != null && !doctorIds.trim().isEmpty()) {
             doctorIdList = Arrays.stream(doctorIds.split(","))
@@ -50,7 +172,10 @@ public class VisitController {
                     .collect(Collectors.toList());
         }
 
-        PatientsListResponse response = patientService.getPatientsList(page, size, search, doctorIdList);
-        return ResponseEntity.ok(response);
+        PatientsListRequest listRequest = new PatientsListRequest(page, size, search, doctorIdList);
+        listRequest.setCursor(cursor);
+        listRequest.setCountMode(CountMode.fromParameter(count));
+        listRequest.setSearchMode(SearchMode.fromParameter(searchMode));
+        return listRequest;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,13 @@
+package com.healthcare.dto;
+
+/**
+ * Outcome of one visit of a batch.
+ */
+public enum BatchItemStatus {
+
+    /** The visit was inserted. */
+    CREATED,
+
+    /** The visit was not inserted; the item's error tells why. */
+    REJECTED
+}
@@ -0,0 +1,29 @@
+package com.healthcare.dto;
+
+import java.util.Locale;
+
+/**
+ * How the total number of matching patients is computed for the patients list.
+ */
+public enum CountMode {
+
+    /** Run a count query for every request. */
+    EXACT,
+
+    /** Reuse a recently computed count, recomputing it only when it has expired. */
+    ESTIMATED,
+
+    /** Skip the count entirely. */
+    NONE;
+
+    public static CountMode fromParameter(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return CountMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid count mode: " + value);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.healthcare.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class CreateVisitBatchRequest {
+
+    public static final int MAX_VISITS = 1000;
+
+    @NotEmpty(message = "At least one visit is required")
+    @Size(max = MAX_VISITS, message = "At most " + MAX_VISITS + " visits per batch")
+    private List<@NotNull @Valid CreateVisitRequest> visits;
+
+    public CreateVisitBatchRequest() {}
+
+    public CreateVisitBatchRequest(List<CreateVisitRequest> visits) {
+        this.visits = visits;
+    }
+
+    // Getters and Setters
+    public List<CreateVisitRequest> getVisits() {
+        return visits;
+    }
+
+    public void setVisits(List<CreateVisitRequest> visits) {
+        this.visits = visits;
+    }
+}
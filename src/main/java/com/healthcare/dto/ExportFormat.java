@@ -0,0 +1,42 @@
+package com.healthcare.dto;
+
+import java.util.Locale;
+
+/**
+ * Output format of the patients export.
+ */
+public enum ExportFormat {
+
+    /** One {@link PatientVisitResponse} JSON object per line. */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /** One row per patient and doctor last visit, patients without visits get a single row. */
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    ExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    public static ExportFormat fromParameter(String value) {
+        if (value == null || value.isBlank()) {
+            return NDJSON;
+        }
+        try {
+            return ExportFormat.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid export format: " + value);
+        }
+    }
+}
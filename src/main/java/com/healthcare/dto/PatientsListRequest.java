@@ -0,0 +1,110 @@
+package com.healthcare.dto;
+
+import java.util.List;
+
+public class PatientsListRequest {
+
+    private Integer page;
+    private Integer size;
+    private String search;
+    private List<Long> doctorIds;
+    private String cursor;
+    private CountMode countMode;
+    private SearchMode searchMode;
+
+    public PatientsListRequest() {}
+
+    public PatientsListRequest(Integer page, Integer size, String search, List<Long> doctorIds) {
+        this.page = page;
+        this.size = size;
+        this.search = search;
+        this.doctorIds = doctorIds;
+    }
+
+    /**
+     * Keyset pagination is used whenever a cursor is present, an empty cursor
+     * requests the first page.
+     */
+    public boolean isCursorMode() {
+        return cursor != null;
+    }
+
+    /**
+     * Offset pages count exactly by default, cursor pages skip the count.
+     */
+    public CountMode getEffectiveCountMode() {
+        if (countMode != null) {
+            return countMode;
+        }
+        return isCursorMode() ? CountMode.NONE : CountMode.EXACT;
+    }
+
+    public SearchMode getEffectiveSearchMode() {
+        return searchMode != null ? searchMode : SearchMode.CONTAINS;
+    }
+
+    public boolean isPrefixSearch() {
+        return search != null && getEffectiveSearchMode() == SearchMode.PREFIX;
+    }
+
+    public boolean hasDoctorFilter() {
+        return doctorIds != null && !doctorIds.isEmpty();
+    }
+
+    // Getters and Setters
+    public Integer getPage() {
+        return page;
+    }
+
+    public void setPage(Integer page) {
+        this.page = page;
+    }
+
+    public Integer getSize() {
+        return size;
+    }
+
+    public void setSize(Integer size) {
+        this.size = size;
+    }
+
+    public String getSearch() {
+        return search;
+    }
+
+    public void setSearch(String search) {
+        this.search = search;
+    }
+
+    public List<Long> getDoctorIds() {
+        return doctorIds;
+    }
+
+    public void setDoctorIds(List<Long> doctorIds) {
+        this.doctorIds = doctorIds;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public CountMode getCountMode() {
+        return countMode;
+    }
+
+    public void setCountMode(CountMode countMode) {
+        this.countMode = countMode;
+    }
+
+    public SearchMode getSearchMode() {
+        return searchMode;
+    }
+
+    public void setSearchMode(SearchMode searchMode) {
+        this.searchMode = searchMode;
+    }
+}
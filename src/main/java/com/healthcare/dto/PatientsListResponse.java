@@ -1,12 +1,22 @@
 package com.healthcare.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 public class PatientsListResponse {
 
     private List<PatientVisitResponse> data;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private Long count;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean countExact;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
     public PatientsListResponse() {}
 
     public PatientsListResponse(List<PatientVisitResponse> data, Long count) {
@@ -14,6 +24,12 @@ public class PatientsListResponse {
         this.count = count;
     }
 
+    public PatientsListResponse(List<PatientVisitResponse> data, Long count, String nextCursor) {
+        this.data = data;
+        this.count = count;
+        this.nextCursor = nextCursor;
+    }
+
     // Getters and Setters
     public List<PatientVisitResponse> getData() {
         return data;
@@ -30,4 +46,20 @@ public class PatientsListResponse {
     public void setCount(Long count) {
         this.count = count;
     }
-}
\ No newline at end of file
+
+    public Boolean getCountExact() {
+        return countExact;
+    }
+
+    public void setCountExact(Boolean countExact) {
+        this.countExact = countExact;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,26 @@
+package com.healthcare.dto;
+
+import java.util.Locale;
+
+/**
+ * How the {@code search} term of the patients list is matched against patient names.
+ */
+public enum SearchMode {
+
+    /** Term appears anywhere in "firstName lastName". */
+    CONTAINS,
+
+    /** First name or last name starts with the term, served by the name key indexes. */
+    PREFIX;
+
+    public static SearchMode fromParameter(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return SearchMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid search mode: " + value);
+        }
+    }
+}
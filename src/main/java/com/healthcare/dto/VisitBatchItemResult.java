@@ -0,0 +1,93 @@
+package com.healthcare.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class VisitBatchItemResult {
+
+    private int index;
+    private BatchItemStatus status;
+    private Long visitId;
+    private String start;
+    private String end;
+    private String timezone;
+    private String error;
+
+    public VisitBatchItemResult() {}
+
+    public static VisitBatchItemResult created(int index, Long visitId, String start, String end, String timezone) {
+        VisitBatchItemResult result = new VisitBatchItemResult();
+        result.index = index;
+        result.status = BatchItemStatus.CREATED;
+        result.visitId = visitId;
+        result.start = start;
+        result.end = end;
+        result.timezone = timezone;
+        return result;
+    }
+
+    public static VisitBatchItemResult rejected(int index, String error) {
+        VisitBatchItemResult result = new VisitBatchItemResult();
+        result.index = index;
+        result.status = BatchItemStatus.REJECTED;
+        result.error = error;
+        return result;
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public BatchItemStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(BatchItemStatus status) {
+        this.status = status;
+    }
+
+    public Long getVisitId() {
+        return visitId;
+    }
+
+    public void setVisitId(Long visitId) {
+        this.visitId = visitId;
+    }
+
+    public String getStart() {
+        return start;
+    }
+
+    public void setStart(String start) {
+        this.start = start;
+    }
+
+    public String getEnd() {
+        return end;
+    }
+
+    public void setEnd(String end) {
+        this.end = end;
+    }
+
+    public String getTimezone() {
+        return timezone;
+    }
+
+    public void setTimezone(String timezone) {
+        this.timezone = timezone;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,48 @@
+package com.healthcare.dto;
+
+import java.util.List;
+
+public class VisitBatchResponse {
+
+    private int created;
+    private int rejected;
+    private List<VisitBatchItemResult> results;
+
+    public VisitBatchResponse() {}
+
+    public VisitBatchResponse(List<VisitBatchItemResult> results) {
+        this.results = results;
+        for (VisitBatchItemResult result : results) {
+            if (result.getStatus() == BatchItemStatus.CREATED) {
+                created++;
+            } else {
+                rejected++;
+            }
+        }
+    }
+
+    // Getters and Setters
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<VisitBatchItemResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<VisitBatchItemResult> results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,75 @@
+package com.healthcare.dto;
+
+/**
+ * Response of POST /api/visits. Only ids and the times in the doctor's time zone, in
+ * the format of the request, so building it never loads the patient or the doctor.
+ */
+public class VisitCreatedResponse {
+
+    private Long id;
+    private Long patientId;
+    private Long doctorId;
+    private String start;
+    private String end;
+    private String timezone;
+
+    public VisitCreatedResponse() {}
+
+    public VisitCreatedResponse(Long id, Long patientId, Long doctorId, String start, String end, String timezone) {
+        this.id = id;
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+        this.start = start;
+        this.end = end;
+        this.timezone = timezone;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(Long patientId) {
+        this.patientId = patientId;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public String getStart() {
+        return start;
+    }
+
+    public void setStart(String start) {
+        this.start = start;
+    }
+
+    public String getEnd() {
+        return end;
+    }
+
+    public void setEnd(String end) {
+        this.end = end;
+    }
+
+    public String getTimezone() {
+        return timezone;
+    }
+
+    public void setTimezone(String timezone) {
+        this.timezone = timezone;
+    }
+}
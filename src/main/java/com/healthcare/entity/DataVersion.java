@@ -0,0 +1,51 @@
+package com.healthcare.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Monotonically increasing version of a named data set, bumped by every committed
+ * write that can change it. Used to derive ETags shared by all application instances.
+ */
+@Entity
+@Table(name = "data_versions")
+public class DataVersion {
+
+    @Id
+    @Column(name = "name", length = 50)
+    private String name;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    public DataVersion() {}
+
+    public DataVersion(String name, Long version) {
+        this.name = name;
+        this.version = version;
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @Override
+    public String toString() {
+        return "DataVersion{" +
+                "name='" + name + '\'' +
+                ", version=" + version +
+                '}';
+    }
+}
@@ -1,15 +1,22 @@
 package com.healthcare.entity;
 
+import com.healthcare.event.EntityChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.TableGenerator;
 
 @Entity
+@EntityListeners(EntityChangeListener.class)
 @Table(name = "doctors")
 public class Doctor {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "doctors_id")
+    @GenericGenerator(name = "doctors_id", type = PooledIdGenerator.class,
+            parameters = @Parameter(name = TableGenerator.SEGMENT_VALUE_PARAM, value = "doctors"))
     private Long id;
 
     @NotBlank(message = "First name is required")
@@ -0,0 +1,68 @@
+package com.healthcare.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Number of distinct patients that have visited a doctor. Incremented when a
+ * (patient, doctor) pair is seen for the first time and repaired periodically by
+ * {@link com.healthcare.job.DoctorPatientStatsReconciliationJob}.
+ */
+@Entity
+@Table(name = "doctor_patient_stats")
+public class DoctorPatientStats implements Persistable<Long> {
+
+    @Id
+    @Column(name = "doctor_id")
+    private Long doctorId;
+
+    @Column(name = "total_patients", nullable = false)
+    private Long totalPatients;
+
+    @Transient
+    private boolean newEntity = true;
+
+    public DoctorPatientStats() {}
+
+    public DoctorPatientStats(Long doctorId, Long totalPatients) {
+        this.doctorId = doctorId;
+        this.totalPatients = totalPatients;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    // Getters and Setters
+    @Override
+    public Long getId() {
+        return doctorId;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public Long getTotalPatients() {
+        return totalPatients;
+    }
+
+    public void setTotalPatients(Long totalPatients) {
+        this.totalPatients = totalPatients;
+    }
+
+    @Override
+    public String toString() {
+        return "DoctorPatientStats{" +
+                "doctorId=" + doctorId +
+                ", totalPatients=" + totalPatients +
+                '}';
+    }
+}
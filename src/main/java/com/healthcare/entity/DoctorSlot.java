@@ -0,0 +1,48 @@
+package com.healthcare.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * One {@link com.healthcare.service.DoctorSlotService#SLOT_MINUTES}-minute slot of a
+ * doctor's calendar claimed by a visit. The primary key makes a second claim of the
+ * same slot fail, which is how the {@code slots} conflict engine detects overlaps.
+ * Written with plain JDBC by {@link com.healthcare.service.DoctorSlotService} and
+ * filled from {@code visits} by {@link com.healthcare.job.DoctorSlotBackfillJob}.
+ */
+@Entity
+@Table(name = "doctor_slots", indexes = {
+        @Index(name = "idx_doctor_slots_visit", columnList = "visit_id")
+})
+public class DoctorSlot {
+
+    @EmbeddedId
+    private DoctorSlotKey id;
+
+    // No foreign key: slots are inserted before the visit row is flushed
+    @Column(name = "visit_id", nullable = false)
+    private Long visitId;
+
+    public DoctorSlot() {}
+
+    public DoctorSlot(DoctorSlotKey id, Long visitId) {
+        this.id = id;
+        this.visitId = visitId;
+    }
+
+    // Getters
+    public DoctorSlotKey getId() {
+        return id;
+    }
+
+    public Long getVisitId() {
+        return visitId;
+    }
+
+    @Override
+    public String toString() {
+        return "DoctorSlot{" +
+                "id=" + id +
+                ", visitId=" + visitId +
+                '}';
+    }
+}
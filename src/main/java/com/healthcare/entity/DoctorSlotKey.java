@@ -0,0 +1,55 @@
+package com.healthcare.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Embeddable
+public class DoctorSlotKey implements Serializable {
+
+    @Column(name = "doctor_id", nullable = false)
+    private Long doctorId;
+
+    @Column(name = "slot_start", nullable = false)
+    private LocalDateTime slotStart;
+
+    public DoctorSlotKey() {}
+
+    public DoctorSlotKey(Long doctorId, LocalDateTime slotStart) {
+        this.doctorId = doctorId;
+        this.slotStart = slotStart;
+    }
+
+    // Getters
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public LocalDateTime getSlotStart() {
+        return slotStart;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DoctorSlotKey)) return false;
+        DoctorSlotKey that = (DoctorSlotKey) o;
+        return Objects.equals(doctorId, that.doctorId) && Objects.equals(slotStart, that.slotStart);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(doctorId, slotStart);
+    }
+
+    @Override
+    public String toString() {
+        return "DoctorSlotKey{" +
+                "doctorId=" + doctorId +
+                ", slotStart=" + slotStart +
+                '}';
+    }
+}
@@ -1,17 +1,28 @@
 package com.healthcare.entity;
 
+import com.healthcare.event.EntityChangeListener;
+import com.healthcare.search.NameNormalizer;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.TableGenerator;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "patients")
+@Table(name = "patients", indexes = {
+        @Index(name = "idx_patients_first_name_key", columnList = "first_name_key"),
+        @Index(name = "idx_patients_last_name_key", columnList = "last_name_key")
+})
+@EntityListeners(EntityChangeListener.class)
 public class Patient {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "patients_id")
+    @GenericGenerator(name = "patients_id", type = PooledIdGenerator.class,
+            parameters = @Parameter(name = TableGenerator.SEGMENT_VALUE_PARAM, value = "patients"))
     private Long id;
 
     @NotBlank(message = "First name is required")
@@ -24,6 +35,13 @@ public class Patient {
     @Column(name = "last_name", nullable = false, length = 100)
     private String lastName;
 
+    // Lowercased, accent-folded copies of the names for indexed prefix search
+    @Column(name = "first_name_key", length = 100)
+    private String firstNameKey;
+
+    @Column(name = "last_name_key", length = 100)
+    private String lastNameKey;
+
     @OneToMany(mappedBy = "patient", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Visit> visits = new ArrayList<>();
 
@@ -34,6 +52,13 @@ public class Patient {
         this.lastName = lastName;
     }
 
+    @PrePersist
+    @PreUpdate
+    public void updateSearchKeys() {
+        this.firstNameKey = NameNormalizer.fold(firstName);
+        this.lastNameKey = NameNormalizer.fold(lastName);
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -59,6 +84,14 @@ public class Patient {
         this.lastName = lastName;
     }
 
+    public String getFirstNameKey() {
+        return firstNameKey;
+    }
+
+    public String getLastNameKey() {
+        return lastNameKey;
+    }
+
     public List<Visit> getVisits() {
         return visits;
     }
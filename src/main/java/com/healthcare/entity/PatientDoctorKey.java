@@ -0,0 +1,54 @@
+package com.healthcare.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class PatientDoctorKey implements Serializable {
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Column(name = "doctor_id", nullable = false)
+    private Long doctorId;
+
+    public PatientDoctorKey() {}
+
+    public PatientDoctorKey(Long patientId, Long doctorId) {
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+    }
+
+    // Getters
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PatientDoctorKey)) return false;
+        PatientDoctorKey that = (PatientDoctorKey) o;
+        return Objects.equals(patientId, that.patientId) && Objects.equals(doctorId, that.doctorId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(patientId, doctorId);
+    }
+
+    @Override
+    public String toString() {
+        return "PatientDoctorKey{" +
+                "patientId=" + patientId +
+                ", doctorId=" + doctorId +
+                '}';
+    }
+}
@@ -0,0 +1,92 @@
+package com.healthcare.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized copy of the newest visit for every (patient, doctor) pair.
+ * Maintained by {@link com.healthcare.service.VisitProjectionService} on every visit
+ * creation and rebuilt from {@code visits} by {@link com.healthcare.job.LastVisitRebuildJob}.
+ */
+@Entity
+@Table(name = "patient_doctor_last_visit")
+public class PatientDoctorLastVisit implements Persistable<PatientDoctorKey> {
+
+    @EmbeddedId
+    private PatientDoctorKey id;
+
+    @Column(name = "visit_id", nullable = false)
+    private Long visitId;
+
+    @Column(name = "start_date_time", nullable = false)
+    private LocalDateTime startDateTime;
+
+    @Column(name = "end_date_time", nullable = false)
+    private LocalDateTime endDateTime;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "doctor_id", insertable = false, updatable = false)
+    private Doctor doctor;
+
+    @Transient
+    private boolean newEntity = true;
+
+    public PatientDoctorLastVisit() {}
+
+    public PatientDoctorLastVisit(Visit visit) {
+        this.id = new PatientDoctorKey(visit.getPatient().getId(), visit.getDoctor().getId());
+        this.doctor = visit.getDoctor();
+        apply(visit);
+    }
+
+    private void apply(Visit visit) {
+        this.visitId = visit.getId();
+        this.startDateTime = visit.getStartDateTime();
+        this.endDateTime = visit.getEndDateTime();
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    // Getters
+    @Override
+    public PatientDoctorKey getId() {
+        return id;
+    }
+
+    public Long getVisitId() {
+        return visitId;
+    }
+
+    public LocalDateTime getStartDateTime() {
+        return startDateTime;
+    }
+
+    public LocalDateTime getEndDateTime() {
+        return endDateTime;
+    }
+
+    public Doctor getDoctor() {
+        return doctor;
+    }
+
+    @Override
+    public String toString() {
+        return "PatientDoctorLastVisit{" +
+                "id=" + id +
+                ", visitId=" + visitId +
+                ", startDateTime=" + startDateTime +
+                ", endDateTime=" + endDateTime +
+                '}';
+    }
+}
@@ -0,0 +1,43 @@
+package com.healthcare.entity;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Table-backed identifier generator shared by the entities, one row per entity in
+ * {@code id_generators}. Works the same on MySQL, which has no sequences, and H2.
+ *
+ * <p>Ids are reserved in blocks of {@link #ALLOCATION_SIZE_SETTING} (a Hibernate
+ * setting, default {@value #DEFAULT_ALLOCATION_SIZE}) with the pooled-lo optimizer:
+ * the stored value is the first id of the next block, so the block size can be
+ * changed between deployments without handing out an id twice. Unlike IDENTITY the
+ * id is known before the INSERT, which lets Hibernate batch inserts.
+ */
+public class PooledIdGenerator extends TableGenerator {
+
+    public static final String TABLE = "id_generators";
+    public static final String SEGMENT_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final String ALLOCATION_SIZE_SETTING = "app.id.allocation-size";
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        int allocationSize = serviceRegistry.getService(ConfigurationService.class)
+                .getSetting(ALLOCATION_SIZE_SETTING, StandardConverters.INTEGER, DEFAULT_ALLOCATION_SIZE);
+
+        parameters.setProperty(TABLE_PARAM, TABLE);
+        parameters.setProperty(SEGMENT_COLUMN_PARAM, SEGMENT_COLUMN);
+        parameters.setProperty(VALUE_COLUMN_PARAM, VALUE_COLUMN);
+        parameters.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize));
+        parameters.setProperty(INITIAL_PARAM, "1");
+        parameters.setProperty(OPT_PARAM, "pooled-lo");
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
@@ -1,16 +1,30 @@
 package com.healthcare.entity;
 
+import com.healthcare.event.EntityChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.TableGenerator;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "visits")
+@EntityListeners(EntityChangeListener.class)
+@Table(name = "visits", indexes = {
+        @Index(name = "idx_visits_patient_doctor_start", columnList = "patient_id, doctor_id, start_date_time"),
+        @Index(name = "idx_visits_doctor_patient", columnList = "doctor_id, patient_id")
+})
 public class Visit {
 
+    // Named so that a violation can be told apart by constraint name
+    public static final String PATIENT_FOREIGN_KEY = "fk_visits_patient";
+    public static final String DOCTOR_FOREIGN_KEY = "fk_visits_doctor";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "visits_id")
+    @GenericGenerator(name = "visits_id", type = PooledIdGenerator.class,
+            parameters = @Parameter(name = TableGenerator.SEGMENT_VALUE_PARAM, value = "visits"))
     private Long id;
 
     @NotNull(message = "Start date time is required")
@@ -22,11 +36,11 @@ public class Visit {
     private LocalDateTime endDateTime;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "patient_id", nullable = false)
+    @JoinColumn(name = "patient_id", nullable = false, foreignKey = @ForeignKey(name = PATIENT_FOREIGN_KEY))
     private Patient patient;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "doctor_id", nullable = false)
+    @JoinColumn(name = "doctor_id", nullable = false, foreignKey = @ForeignKey(name = DOCTOR_FOREIGN_KEY))
     private Doctor doctor;
 
     public Visit() {}
@@ -0,0 +1,39 @@
+package com.healthcare.event;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener that republishes entity lifecycle callbacks as
+ * {@link EntityChangedEvent}s. Instantiated by Hibernate through Spring's bean
+ * container, hence the field injection.
+ */
+public class EntityChangeListener {
+
+    @Autowired(required = false)
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    void onPersist(Object entity) {
+        publish(entity, EntityChangeType.CREATED);
+    }
+
+    @PostUpdate
+    void onUpdate(Object entity) {
+        publish(entity, EntityChangeType.UPDATED);
+    }
+
+    @PostRemove
+    void onRemove(Object entity) {
+        publish(entity, EntityChangeType.DELETED);
+    }
+
+    private void publish(Object entity, EntityChangeType type) {
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(new EntityChangedEvent(entity, type));
+        }
+    }
+}
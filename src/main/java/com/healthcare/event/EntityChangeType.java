@@ -0,0 +1,7 @@
+package com.healthcare.event;
+
+public enum EntityChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
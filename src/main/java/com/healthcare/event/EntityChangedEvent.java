@@ -0,0 +1,34 @@
+package com.healthcare.event;
+
+/**
+ * Published synchronously while Hibernate flushes a change to an entity annotated
+ * with {@code @EntityListeners(EntityChangeListener.class)}. The surrounding
+ * transaction is still open: listeners must not use the persistence context and
+ * should defer work that depends on the outcome to a transaction synchronization.
+ */
+public class EntityChangedEvent {
+
+    private final Object entity;
+    private final EntityChangeType type;
+
+    public EntityChangedEvent(Object entity, EntityChangeType type) {
+        this.entity = entity;
+        this.type = type;
+    }
+
+    public Object getEntity() {
+        return entity;
+    }
+
+    public EntityChangeType getType() {
+        return type;
+    }
+
+    @Override
+    public String toString() {
+        return "EntityChangedEvent{" +
+                "entity=" + entity +
+                ", type=" + type +
+                '}';
+    }
+}
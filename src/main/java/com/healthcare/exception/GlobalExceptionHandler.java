@@ -1,5 +1,10 @@
 package com.healthcare.exception;
 
+import com.healthcare.entity.Visit;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -11,6 +16,7 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -41,6 +47,66 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(response);
     }
 
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ResponseEntity<Map<String, Object>> handleQueryTimeoutException(QueryTimeoutException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", "Query timed out, please retry");
+        response.put("timestamp", ZonedDateTime.now(ZoneId.of("UTC")));
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
+
+    @ExceptionHandler(CannotAcquireLockException.class)
+    public ResponseEntity<Map<String, Object>> handleCannotAcquireLockException(CannotAcquireLockException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", "Doctor's schedule is busy, please retry");
+        response.put("timestamp", ZonedDateTime.now(ZoneId.of("UTC")));
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Map<String, Object>> handleRejectedExecutionException(RejectedExecutionException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", "Too many visits being created, please retry");
+        response.put("timestamp", ZonedDateTime.now(ZoneId.of("UTC")));
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
+
+    /**
+     * A visit referring to a missing patient or doctor fails its foreign key; told apart
+     * by the constraint name, any other violation is answered like a concurrent update.
+     */
+    @ExceptionHandler(VisitIntegrityViolationException.class)
+    public ResponseEntity<Map<String, Object>> handleVisitIntegrityViolationException(VisitIntegrityViolationException ex) {
+        String constraintName = constraintName(ex);
+        String error;
+        if (Visit.PATIENT_FOREIGN_KEY.equalsIgnoreCase(constraintName)) {
+            error = "Patient not found with ID: " + ex.getPatientId();
+        } else if (Visit.DOCTOR_FOREIGN_KEY.equalsIgnoreCase(constraintName)) {
+            // Deleted since its time zone was cached
+            error = "Doctor not found with ID: " + ex.getDoctorId();
+        } else {
+            return handleDataIntegrityViolationException(ex);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", error);
+        response.put("timestamp", ZonedDateTime.now(ZoneId.of("UTC")));
+
+        return ResponseEntity.badRequest().body(response);
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Map<String, Object>> handleDataIntegrityViolationException(DataIntegrityViolationException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", "Conflicting concurrent update, please retry");
+        response.put("timestamp", ZonedDateTime.now(ZoneId.of("UTC")));
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleGenericException(Exception ex) {
         Map<String, Object> response = new HashMap<>();
@@ -49,4 +115,13 @@ public class GlobalExceptionHandler {
         
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
     }
+
+    private static String constraintName(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return violation.getConstraintName();
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,28 @@
+package com.healthcare.exception;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * A constraint violated by inserting a visit, together with the patient and doctor
+ * ids the visit referred to, so that a violated foreign key can be reported with the
+ * id that was not found.
+ */
+public class VisitIntegrityViolationException extends DataIntegrityViolationException {
+
+    private final Long patientId;
+    private final Long doctorId;
+
+    public VisitIntegrityViolationException(Long patientId, Long doctorId, DataIntegrityViolationException cause) {
+        super(cause.getMessage(), cause);
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+    }
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+}
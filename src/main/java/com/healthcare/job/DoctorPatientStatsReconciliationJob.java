@@ -0,0 +1,82 @@
+package com.healthcare.job;
+
+import com.healthcare.repository.DoctorPatientStatsRepository;
+import com.healthcare.repository.DoctorRepository;
+import com.healthcare.service.DataVersionService;
+import com.healthcare.service.PatientsListCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Recomputes the distinct patient count of every doctor from {@code visits} and
+ * repairs rows of {@code doctor_patient_stats} that drifted, e.g. after data loaded
+ * outside the application.
+ *
+ * <p>Each doctor is repaired by one statement that counts and writes in one go, in
+ * its own short transaction. The statement locks the counter row, so a concurrent
+ * booking's increment is either counted by it or applied on top of its result; no
+ * increment is overwritten by a count taken earlier.
+ */
+@Component
+public class DoctorPatientStatsReconciliationJob implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(DoctorPatientStatsReconciliationJob.class);
+
+    private final DoctorPatientStatsRepository statsRepository;
+    private final DoctorRepository doctorRepository;
+    private final DataVersionService dataVersionService;
+    private final PatientsListCache resultCache;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public DoctorPatientStatsReconciliationJob(DoctorPatientStatsRepository statsRepository,
+                                               DoctorRepository doctorRepository,
+                                               DataVersionService dataVersionService,
+                                               PatientsListCache resultCache,
+                                               PlatformTransactionManager transactionManager) {
+        this.statsRepository = statsRepository;
+        this.doctorRepository = doctorRepository;
+        this.dataVersionService = dataVersionService;
+        this.resultCache = resultCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (statsRepository.count() == 0) {
+            reconcile();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.doctor-stats.reconcile-interval:PT1H}",
+               initialDelayString = "${app.doctor-stats.reconcile-interval:PT1H}")
+    public int reconcile() {
+        int repaired = 0;
+        for (Long doctorId : doctorRepository.findAllIds()) {
+            try {
+                repaired += transactionTemplate.execute(status -> statsRepository.insertTotalPatientsIfMissing(doctorId)
+                        + statsRepository.reconcileTotalPatients(doctorId));
+            } catch (DataIntegrityViolationException e) {
+                // Row created by a concurrent first booking; checked again by the next run
+                log.debug("Counter of doctor {} created concurrently", doctorId);
+            }
+        }
+
+        if (repaired > 0) {
+            log.info("Repaired {} doctor_patient_stats rows", repaired);
+            transactionTemplate.executeWithoutResult(status -> {
+                dataVersionService.markChanged();
+                resultCache.invalidateAllAfterCommit();
+            });
+        }
+        return repaired;
+    }
+}
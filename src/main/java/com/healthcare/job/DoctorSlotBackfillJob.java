@@ -0,0 +1,141 @@
+package com.healthcare.job;
+
+import com.healthcare.service.DoctorSlotService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Claims {@code doctor_slots} for visits that have none: visits written while the
+ * {@code query} engine was active and the SQL dump. Runs on startup when the
+ * {@code slots} engine is configured, one batch of visits per transaction.
+ *
+ * <p>Visits off the grid claim every slot they touch. Slots already held by another
+ * visit are skipped, so existing overlaps are kept rather than failing the job, and
+ * the job can be run again at any time.
+ */
+@Component
+public class DoctorSlotBackfillJob implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(DoctorSlotBackfillJob.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String SELECT_UNCLAIMED_SQL =
+            "SELECT v.id, v.doctor_id, v.start_date_time, v.end_date_time FROM visits v " +
+            "WHERE v.id > ? AND NOT EXISTS (SELECT 1 FROM doctor_slots s WHERE s.visit_id = v.id) " +
+            "ORDER BY v.id LIMIT " + BATCH_SIZE;
+
+    private static final String INSERT_IF_FREE_SQL =
+            "INSERT INTO doctor_slots (doctor_id, slot_start, visit_id) " +
+            "SELECT ?, ?, ? FROM DUAL " +
+            "WHERE NOT EXISTS (SELECT 1 FROM doctor_slots s WHERE s.doctor_id = ? AND s.slot_start = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DoctorSlotService doctorSlotService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public DoctorSlotBackfillJob(JdbcTemplate jdbcTemplate,
+                                 DoctorSlotService doctorSlotService,
+                                 PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.doctorSlotService = doctorSlotService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (doctorSlotService.isEnabled()) {
+            backfill();
+        }
+    }
+
+    /**
+     * @return the number of slots claimed
+     */
+    public int backfill() {
+        int visits = 0;
+        int claimed = 0;
+        long lastId = 0;
+        List<UnclaimedVisit> batch;
+        do {
+            // Keyset over ids, so visits whose slots are all taken are not read again
+            batch = jdbcTemplate.query(SELECT_UNCLAIMED_SQL, (rs, rowNum) -> new UnclaimedVisit(
+                    rs.getLong(1), rs.getLong(2),
+                    rs.getTimestamp(3).toLocalDateTime(), rs.getTimestamp(4).toLocalDateTime()), lastId);
+            if (batch.isEmpty()) {
+                break;
+            }
+            List<UnclaimedVisit> current = batch;
+            claimed += transactionTemplate.execute(status -> claim(current));
+            visits += batch.size();
+            lastId = batch.get(batch.size() - 1).id;
+        } while (batch.size() == BATCH_SIZE);
+
+        if (visits > 0) {
+            log.info("Backfilled {} doctor slots for {} visits", claimed, visits);
+        }
+        return claimed;
+    }
+
+    private int claim(List<UnclaimedVisit> visits) {
+        List<Object[]> rows = new ArrayList<>();
+        for (UnclaimedVisit visit : visits) {
+            for (LocalDateTime slot : DoctorSlotService.slotsCovering(visit.start, visit.end)) {
+                Timestamp slotStart = Timestamp.valueOf(slot);
+                rows.add(new Object[]{visit.doctorId, slotStart, visit.id, visit.doctorId, slotStart});
+            }
+        }
+
+        try {
+            return sum(jdbcTemplate.batchUpdate(INSERT_IF_FREE_SQL, rows));
+        } catch (DuplicateKeyException e) {
+            // A slot was claimed in the meantime, or twice within the batch; go row by row
+            int claimed = 0;
+            for (Object[] row : rows) {
+                try {
+                    claimed += jdbcTemplate.update(INSERT_IF_FREE_SQL, row);
+                } catch (DuplicateKeyException ignored) {
+                    // Held by a concurrent booking
+                }
+            }
+            return claimed;
+        }
+    }
+
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            // Batched statements may only report success without a row count
+            total += Math.max(count, 0);
+        }
+        return total;
+    }
+
+    private static final class UnclaimedVisit {
+        private final long id;
+        private final long doctorId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        private UnclaimedVisit(long id, long doctorId, LocalDateTime start, LocalDateTime end) {
+            this.id = id;
+            this.doctorId = doctorId;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
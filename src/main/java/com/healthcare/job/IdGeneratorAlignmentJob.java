@@ -0,0 +1,67 @@
+package com.healthcare.job;
+
+import com.healthcare.entity.PooledIdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Moves the {@code id_generators} rows past the largest id in their table, so that
+ * rows written before the switch from IDENTITY or loaded outside the application
+ * (the SQL dump) cannot collide with generated ids. Runs before any other startup
+ * task and never moves a row backwards.
+ *
+ * <p>Meant for restoring a single node: the largest id is read before the row is
+ * moved, so ids written by another running instance in between are not covered.
+ * Start the first instance alone after loading a dump.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Transactional
+public class IdGeneratorAlignmentJob implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(IdGeneratorAlignmentJob.class);
+
+    // Segment values of the entities, equal to their table names
+    private static final List<String> TABLES = List.of("doctors", "patients", "visits");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public IdGeneratorAlignmentJob(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        align();
+    }
+
+    public void align() {
+        for (String table : TABLES) {
+            Long nextId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table, Long.class);
+            // GREATEST keeps blocks reserved by another instance meanwhile
+            int updated = jdbcTemplate.update("UPDATE " + PooledIdGenerator.TABLE +
+                            " SET " + PooledIdGenerator.VALUE_COLUMN + " = GREATEST(" + PooledIdGenerator.VALUE_COLUMN + ", ?)" +
+                            " WHERE " + PooledIdGenerator.SEGMENT_COLUMN + " = ?",
+                    nextId, table);
+            if (updated > 0) {
+                log.info("Aligned id generator of {} to at least {}", table, nextId);
+            } else if (nextId != null && nextId > 1) {
+                jdbcTemplate.update("INSERT INTO " + PooledIdGenerator.TABLE +
+                                " (" + PooledIdGenerator.SEGMENT_COLUMN + ", " + PooledIdGenerator.VALUE_COLUMN + ") VALUES (?, ?)",
+                        table, nextId);
+                log.info("Started id generator of {} at {}", table, nextId);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.healthcare.job;
+
+import com.healthcare.repository.PatientDoctorLastVisitRepository;
+import com.healthcare.repository.VisitRepository;
+import com.healthcare.service.DataVersionService;
+import com.healthcare.service.PatientsListCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Rebuilds {@code patient_doctor_last_visit} from the full {@code visits} table.
+ * Runs once on startup when the projection is empty but visits exist (first deploy
+ * or data loaded outside the application), and can be invoked for a full backfill.
+ */
+@Component
+@Transactional
+public class LastVisitRebuildJob implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LastVisitRebuildJob.class);
+
+    private final PatientDoctorLastVisitRepository lastVisitRepository;
+    private final VisitRepository visitRepository;
+    private final DataVersionService dataVersionService;
+    private final PatientsListCache resultCache;
+    private final boolean rebuildOnStartup;
+
+    @Autowired
+    public LastVisitRebuildJob(PatientDoctorLastVisitRepository lastVisitRepository,
+                               VisitRepository visitRepository,
+                               DataVersionService dataVersionService,
+                               PatientsListCache resultCache,
+                               @Value("${app.last-visits.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+        this.lastVisitRepository = lastVisitRepository;
+        this.visitRepository = visitRepository;
+        this.dataVersionService = dataVersionService;
+        this.resultCache = resultCache;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (rebuildOnStartup && lastVisitRepository.count() == 0 && visitRepository.count() > 0) {
+            rebuild();
+        }
+    }
+
+    public int rebuild() {
+        lastVisitRepository.deleteAllRows();
+        int rows = lastVisitRepository.insertFromVisits();
+        dataVersionService.markChanged();
+        resultCache.invalidateAllAfterCommit();
+        log.info("Rebuilt patient_doctor_last_visit with {} rows", rows);
+        return rows;
+    }
+}
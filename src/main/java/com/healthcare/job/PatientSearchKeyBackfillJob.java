@@ -0,0 +1,61 @@
+package com.healthcare.job;
+
+import com.healthcare.entity.Patient;
+import com.healthcare.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Fills {@code first_name_key}/{@code last_name_key} for patients written before the
+ * columns existed or loaded outside the application. Each batch commits on its own
+ * so the persistence context stays small on large tables.
+ */
+@Component
+public class PatientSearchKeyBackfillJob implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientSearchKeyBackfillJob.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    private final PatientRepository patientRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public PatientSearchKeyBackfillJob(PatientRepository patientRepository,
+                                       PlatformTransactionManager transactionManager) {
+        this.patientRepository = patientRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        backfill();
+    }
+
+    public int backfill() {
+        int total = 0;
+        int updated;
+        do {
+            updated = transactionTemplate.execute(status -> {
+                List<Patient> batch = patientRepository.findWithoutSearchKeys(PageRequest.of(0, BATCH_SIZE));
+                batch.forEach(Patient::updateSearchKeys);
+                return batch.size();
+            });
+            total += updated;
+        } while (updated == BATCH_SIZE);
+
+        if (total > 0) {
+            log.info("Backfilled search keys for {} patients", total);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,49 @@
+package com.healthcare.lock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Cluster-wide booking locks using MySQL named locks ({@code GET_LOCK}) on the
+ * transaction's own connection, so every application instance sharing the database
+ * is serialized per doctor. Named locks belong to the session rather than to the
+ * transaction and are released explicitly once it completes; a connection that dies
+ * meanwhile releases them on the server.
+ */
+@Component
+@ConditionalOnProperty(name = "app.booking.lock.type", havingValue = "database")
+public class AdvisoryDoctorLockManager extends TransactionScopedDoctorLockManager {
+
+    // MySQL limits lock names to 64 characters
+    static final String LOCK_NAME_PREFIX = "visit-booking:doctor:";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long timeoutSeconds;
+
+    @Autowired
+    public AdvisoryDoctorLockManager(JdbcTemplate jdbcTemplate,
+                                     @Value("${app.booking.lock.timeout:PT5S}") Duration timeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.timeoutSeconds = Math.max(0, timeout.toSeconds());
+    }
+
+    @Override
+    protected void acquire(Long doctorId) {
+        Integer result = jdbcTemplate.queryForObject("SELECT GET_LOCK(?, ?)", Integer.class,
+                LOCK_NAME_PREFIX + doctorId, timeoutSeconds);
+        if (result == null || result != 1) {
+            throw new CannotAcquireLockException("Timed out waiting for the booking lock of doctor " + doctorId);
+        }
+    }
+
+    @Override
+    protected void release(Long doctorId) {
+        jdbcTemplate.queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, LOCK_NAME_PREFIX + doctorId);
+    }
+}
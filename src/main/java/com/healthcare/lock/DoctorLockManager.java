@@ -0,0 +1,31 @@
+package com.healthcare.lock;
+
+import java.util.Collection;
+
+/**
+ * Serializes visit bookings per doctor, so that the conflict check and the insert of
+ * one booking cannot interleave with another booking for the same doctor.
+ *
+ * <p>Locks are taken inside a transaction and held until it completes; taking a lock
+ * the transaction already holds is a no-op. Callers must lock before the first read
+ * of the transaction, because under MySQL's REPEATABLE READ that read fixes the
+ * snapshot the conflict check sees.
+ *
+ * <p>A waiting transaction keeps its pooled connection, as it would waiting for a row
+ * lock, while the holder may need a second one to allocate an id block. The pool
+ * must therefore be larger than the number of bookings expected to wait at once;
+ * otherwise the timeout turns the wait into an error instead of a deadlock.
+ */
+public interface DoctorLockManager {
+
+    /**
+     * Blocks until the current transaction holds the locks of all the given doctors.
+     * They are acquired in a fixed order, so transactions locking several doctors
+     * cannot deadlock each other.
+     *
+     * @throws org.springframework.dao.CannotAcquireLockException if a lock is not
+     *         obtained within the configured timeout
+     * @throws IllegalStateException if no transaction is active
+     */
+    void lockForTransaction(Collection<Long> doctorIds);
+}
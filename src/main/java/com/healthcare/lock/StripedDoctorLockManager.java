@@ -0,0 +1,68 @@
+package com.healthcare.lock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-JVM booking locks: a fixed array of fair {@link ReentrantLock}s indexed by
+ * doctor id modulo the stripe count. Doctor ids below the stripe count never share a
+ * stripe, so with sequential ids bookings for different doctors do not contend until
+ * there are more doctors than stripes. Only correct while a single application
+ * instance books visits.
+ */
+@Component
+@ConditionalOnProperty(name = "app.booking.lock.type", havingValue = "striped", matchIfMissing = true)
+public class StripedDoctorLockManager extends TransactionScopedDoctorLockManager {
+
+    private final ReentrantLock[] stripes;
+    private final Duration timeout;
+
+    @Autowired
+    public StripedDoctorLockManager(@Value("${app.booking.lock.stripes:1024}") int stripes,
+                                    @Value("${app.booking.lock.timeout:PT5S}") Duration timeout) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("app.booking.lock.stripes must be positive");
+        }
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock(true);
+        }
+        this.timeout = timeout;
+    }
+
+    @Override
+    protected Comparator<Long> lockOrder() {
+        // By stripe, so two transactions never wait for each other's stripes in opposite order
+        return Comparator.comparingInt(this::stripe).thenComparing(Comparator.naturalOrder());
+    }
+
+    @Override
+    protected void acquire(Long doctorId) {
+        try {
+            if (!stripes[stripe(doctorId)].tryLock(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new CannotAcquireLockException("Timed out waiting for the booking lock of doctor " + doctorId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CannotAcquireLockException("Interrupted while waiting for the booking lock of doctor " + doctorId, e);
+        }
+    }
+
+    @Override
+    protected void release(Long doctorId) {
+        // Doctors sharing a stripe locked it once each; the lock is reentrant
+        stripes[stripe(doctorId)].unlock();
+    }
+
+    int stripe(Long doctorId) {
+        return (int) Math.floorMod(doctorId, (long) stripes.length);
+    }
+}
@@ -0,0 +1,89 @@
+package com.healthcare.lock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Binds the locks taken by a transaction to it and releases them, in reverse order,
+ * once it completes. Subclasses only acquire and release a single doctor's lock.
+ */
+abstract class TransactionScopedDoctorLockManager implements DoctorLockManager {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionScopedDoctorLockManager.class);
+
+    @Override
+    public void lockForTransaction(Collection<Long> doctorIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Doctor locks are held until the transaction completes and require one");
+        }
+
+        Set<Long> held = heldLocks();
+        Set<Long> missing = new TreeSet<>(lockOrder());
+        for (Long doctorId : doctorIds) {
+            if (!held.contains(doctorId)) {
+                missing.add(doctorId);
+            }
+        }
+        for (Long doctorId : missing) {
+            acquire(doctorId);
+            held.add(doctorId);
+        }
+    }
+
+    /**
+     * Order in which a transaction acquires several locks.
+     */
+    protected Comparator<Long> lockOrder() {
+        return Comparator.naturalOrder();
+    }
+
+    /**
+     * Blocks until the doctor's lock is held by the calling transaction.
+     */
+    protected abstract void acquire(Long doctorId);
+
+    /**
+     * Called on the thread that acquired the lock, while the transaction's
+     * connection is still bound.
+     */
+    protected abstract void release(Long doctorId);
+
+    /**
+     * Doctors locked by the current transaction, in acquisition order.
+     */
+    private Set<Long> heldLocks() {
+        @SuppressWarnings("unchecked")
+        Set<Long> held = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (held != null) {
+            return held;
+        }
+
+        Set<Long> created = new LinkedHashSet<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TransactionScopedDoctorLockManager.this);
+                List<Long> acquired = new ArrayList<>(created);
+                for (int i = acquired.size() - 1; i >= 0; i--) {
+                    try {
+                        release(acquired.get(i));
+                    } catch (RuntimeException e) {
+                        log.warn("Could not release the booking lock of doctor {}", acquired.get(i), e);
+                    }
+                }
+            }
+        });
+        return created;
+    }
+}
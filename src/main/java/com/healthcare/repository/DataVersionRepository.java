@@ -0,0 +1,21 @@
+package com.healthcare.repository;
+
+import com.healthcare.entity.DataVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface DataVersionRepository extends JpaRepository<DataVersion, String> {
+
+    @Query("SELECT d.version FROM DataVersion d WHERE d.name = :name")
+    Optional<Long> findVersionByName(@Param("name") String name);
+
+    @Modifying
+    @Query("UPDATE DataVersion d SET d.version = d.version + 1 WHERE d.name = :name")
+    int increment(@Param("name") String name);
+}
@@ -0,0 +1,41 @@
+package com.healthcare.repository;
+
+import com.healthcare.entity.DoctorPatientStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DoctorPatientStatsRepository extends JpaRepository<DoctorPatientStats, Long> {
+
+    @Modifying
+    @Query("UPDATE DoctorPatientStats s SET s.totalPatients = s.totalPatients + :delta WHERE s.doctorId = :doctorId")
+    int addTotalPatients(@Param("doctorId") Long doctorId, @Param("delta") long delta);
+
+    /**
+     * Sets the counter to the doctor's distinct patients, counted by the same statement
+     * that writes it, so no increment committed before the row is locked is lost.
+     *
+     * @return 1 if the counter was wrong
+     */
+    @Modifying
+    @Query(value = "UPDATE doctor_patient_stats SET total_patients = " +
+            "(SELECT COUNT(DISTINCT v.patient_id) FROM visits v WHERE v.doctor_id = :doctorId) " +
+            "WHERE doctor_id = :doctorId AND total_patients <> " +
+            "(SELECT COUNT(DISTINCT v.patient_id) FROM visits v WHERE v.doctor_id = :doctorId)", nativeQuery = true)
+    int reconcileTotalPatients(@Param("doctorId") Long doctorId);
+
+    /**
+     * Creates the counter of a doctor with visits but no counter row, counted in the same statement.
+     *
+     * @return 1 if the row was created
+     */
+    @Modifying
+    @Query(value = "INSERT INTO doctor_patient_stats (doctor_id, total_patients) " +
+            "SELECT :doctorId, (SELECT COUNT(DISTINCT v.patient_id) FROM visits v WHERE v.doctor_id = :doctorId) " +
+            "FROM DUAL WHERE EXISTS (SELECT 1 FROM visits v WHERE v.doctor_id = :doctorId) " +
+            "AND NOT EXISTS (SELECT 1 FROM doctor_patient_stats s WHERE s.doctor_id = :doctorId)", nativeQuery = true)
+    int insertTotalPatientsIfMissing(@Param("doctorId") Long doctorId);
+}
@@ -14,7 +14,7 @@ public interface DoctorRepository extends JpaRepository<Doctor, Long> {
     @Query("SELECT COUNT(DISTINCT v.patient.id) FROM Visit v WHERE v.doctor.id = :doctorId")
     Long countDistinctPatientsByDoctorId(@Param("doctorId") Long doctorId);
 
-    @Query("SELECT v.doctor.id, COUNT(DISTINCT v.patient.id) FROM Visit v WHERE v.doctor.id IN :doctorIds GROUP BY v.doctor.id")
-    List<Object[]> countDistinctPatientsByDoctorIds(@Param("doctorIds") List<Long> doctorIds);
+    @Query("SELECT d.id FROM Doctor d ORDER BY d.id")
+    List<Long> findAllIds();
 
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.healthcare.repository;
+
+import com.healthcare.entity.DoctorSlot;
+import com.healthcare.entity.DoctorSlotKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DoctorSlotRepository extends JpaRepository<DoctorSlot, DoctorSlotKey> {
+
+    @Query("SELECT s FROM DoctorSlot s WHERE s.visitId = :visitId ORDER BY s.id.slotStart")
+    List<DoctorSlot> findByVisitId(@Param("visitId") Long visitId);
+}
@@ -0,0 +1,41 @@
+package com.healthcare.repository;
+
+import com.healthcare.entity.PatientDoctorKey;
+import com.healthcare.entity.PatientDoctorLastVisit;
+import com.healthcare.repository.projection.LastVisitView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PatientDoctorLastVisitRepository extends JpaRepository<PatientDoctorLastVisit, PatientDoctorKey> {
+
+    @Query("SELECT new com.healthcare.repository.projection.LastVisitView(" +
+            "l.id.patientId, l.id.doctorId, l.startDateTime, l.endDateTime, " +
+            "d.firstName, d.lastName, d.timezone, s.totalPatients) " +
+            "FROM PatientDoctorLastVisit l " +
+            "INNER JOIN l.doctor d " +
+            "LEFT JOIN DoctorPatientStats s ON s.doctorId = l.id.doctorId " +
+            "WHERE l.id.patientId IN :patientIds " +
+            "ORDER BY l.startDateTime DESC")
+    List<LastVisitView> findViewsByPatientIds(@Param("patientIds") List<Long> patientIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM patient_doctor_last_visit", nativeQuery = true)
+    int deleteAllRows();
+
+    @Modifying
+    @Query(value = "INSERT INTO patient_doctor_last_visit " +
+            "(patient_id, doctor_id, visit_id, start_date_time, end_date_time) " +
+            "SELECT v.patient_id, v.doctor_id, v.id, v.start_date_time, v.end_date_time FROM visits v " +
+            "WHERE NOT EXISTS (SELECT 1 FROM visits newer " +
+            "     WHERE newer.patient_id = v.patient_id AND newer.doctor_id = v.doctor_id " +
+            "     AND (newer.start_date_time > v.start_date_time OR " +
+            "          (newer.start_date_time = v.start_date_time AND newer.id > v.id)))",
+            nativeQuery = true)
+    int insertFromVisits();
+}
@@ -1,29 +1,212 @@
 package com.healthcare.repository;
 
 import com.healthcare.entity.Patient;
+import com.healthcare.repository.projection.PatientSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
 
-    @Query("SELECT p FROM Patient p WHERE " +
+    @Query(value = "SELECT new com.healthcare.repository.projection.PatientSummary(p.id, p.firstName, p.lastName) " +
+            "FROM Patient p WHERE " +
+            "(:search IS NULL OR " +
+            "LOWER(CONCAT(p.firstName, ' ', p.lastName)) LIKE LOWER(CONCAT('%', :search, '%')))",
+            countQuery = "SELECT COUNT(p) FROM Patient p WHERE " +
+                    "(:search IS NULL OR " +
+                    "LOWER(CONCAT(p.firstName, ' ', p.lastName)) LIKE LOWER(CONCAT('%', :search, '%')))")
+    Page<PatientSummary> findBySearchCriteria(@Param("search") String search, Pageable pageable);
+
+    // Semi-join: each patient is probed once on visits(doctor_id, patient_id), however many visits match
+    @Query(value = "SELECT new com.healthcare.repository.projection.PatientSummary(p.id, p.firstName, p.lastName) " +
+            "FROM Patient p " +
+            "WHERE (:search IS NULL OR " +
+            "LOWER(CONCAT(p.firstName, ' ', p.lastName)) LIKE LOWER(CONCAT('%', :search, '%'))) " +
+            "AND EXISTS (SELECT 1 FROM Visit v WHERE v.patient = p AND v.doctor.id IN :doctorIds)",
+            countQuery = "SELECT COUNT(p) FROM Patient p " +
+                    "WHERE (:search IS NULL OR " +
+                    "LOWER(CONCAT(p.firstName, ' ', p.lastName)) LIKE LOWER(CONCAT('%', :search, '%'))) " +
+                    "AND EXISTS (SELECT 1 FROM Visit v WHERE v.patient = p AND v.doctor.id IN :doctorIds)")
+    Page<PatientSummary> findBySearchAndDoctorIds(@Param("search") String search,
+                                                  @Param("doctorIds") List<Long> doctorIds,
+                                                  Pageable pageable);
+
+    @Query("SELECT new com.healthcare.repository.projection.PatientSummary(p.id, p.firstName, p.lastName) " +
+            "FROM Patient p WHERE " +
+            "(:search IS NULL OR " +
+            "LOWER(CONCAT(p.firstName, ' ', p.lastName)) LIKE LOWER(CONCAT('%', :search, '%')))")
+    Slice<PatientSummary> findSliceBySearchCriteria(@Param("search") String search, Pageable pageable);
+
+    @Query("SELECT new com.healthcare.repository.projection.PatientSummary(p.id, p.firstName, p.lastName) " +
+            "FROM Patient p " +
+            "WHERE (:search IS NULL OR " +
+            "LOWER(CONCAT(p.firstName, ' ', p.lastName)) LIKE LOWER(CONCAT('%', :search, '%'))) " +
+            "AND EXISTS (SELECT 1 FROM Visit v WHERE v.patient = p AND v.doctor.id IN :doctorIds)")
+    Slice<PatientSummary> findSliceBySearchAndDoctorIds(@Param("search") String search,
+                                                        @Param("doctorIds") List<Long> doctorIds,
+                                                        Pageable pageable);
+
+    @Query("SELECT COUNT(p) FROM Patient p WHERE " +
             "(:search IS NULL OR " +
             "LOWER(CONCAT(p.firstName, ' ', p.lastName)) LIKE LOWER(CONCAT('%', :search, '%')))")
-    Page<Patient> findBySearchCriteria(@Param("search") String search, Pageable pageable);
+    long countBySearchCriteria(@Param("search") String search);
 
-    @Query("SELECT DISTINCT p FROM Patient p " +
-            "INNER JOIN p.visits v " +
+    @Query("SELECT COUNT(p) FROM Patient p " +
             "WHERE (:search IS NULL OR " +
             "LOWER(CONCAT(p.firstName, ' ', p.lastName)) LIKE LOWER(CONCAT('%', :search, '%'))) " +
-            "AND v.doctor.id IN :doctorIds")
-    Page<Patient> findBySearchAndDoctorIds(@Param("search") String search,
-                                           @Param("doctorIds") List<Long> doctorIds,
-                                           Pageable pageable);
-}
\ No newline at end of file
+            "AND EXISTS (SELECT 1 FROM Visit v WHERE v.patient = p AND v.doctor.id IN :doctorIds)")
+    long countBySearchAndDoctorIds(@Param("search") String search,
+                                   @Param("doctorIds") List<Long> doctorIds);
+
+    @Query("SELECT new com.healthcare.repository.projection.PatientSummary(p.id, p.firstName, p.lastName) " +
+            "FROM Patient p WHERE p.id > :afterId AND " +
+            "(:search IS NULL OR " +
+            "LOWER(CONCAT(p.firstName, ' ', p.lastName)) LIKE LOWER(CONCAT('%', :search, '%'))) " +
+            "ORDER BY p.id")
+    List<PatientSummary> findBySearchCriteriaAfter(@Param("search") String search,
+                                                   @Param("afterId") Long afterId,
+                                                   Pageable pageable);
+
+    @Query("SELECT new com.healthcare.repository.projection.PatientSummary(p.id, p.firstName, p.lastName) " +
+            "FROM Patient p " +
+            "WHERE p.id > :afterId AND (:search IS NULL OR " +
+            "LOWER(CONCAT(p.firstName, ' ', p.lastName)) LIKE LOWER(CONCAT('%', :search, '%'))) " +
+            "AND EXISTS (SELECT 1 FROM Visit v WHERE v.patient = p AND v.doctor.id IN :doctorIds) " +
+            "ORDER BY p.id")
+    List<PatientSummary> findBySearchAndDoctorIdsAfter(@Param("search") String search,
+                                                       @Param("doctorIds") List<Long> doctorIds,
+                                                       @Param("afterId") Long afterId,
+                                                       Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.healthcare.repository.projection.PatientSummary(p.id, p.firstName, p.lastName) " +
+            "FROM Patient p ORDER BY p.id")
+    Stream<PatientSummary> streamAllSummaries();
+
+    @Query("SELECT p.id FROM Patient p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.healthcare.repository.projection.PatientSummary(p.id, p.firstName, p.lastName) " +
+            "FROM Patient p WHERE p.id IN :ids")
+    List<PatientSummary> findSummariesByIds(@Param("ids") List<Long> ids);
+
+    @Query(value = "SELECT new com.healthcare.repository.projection.PatientSummary(p.id, p.firstName, p.lastName) " +
+            "FROM Patient p WHERE " +
+            "p.firstNameKey LIKE :prefix ESCAPE '!' OR p.lastNameKey LIKE :prefix ESCAPE '!'",
+            countQuery = "SELECT COUNT(p) FROM Patient p WHERE " +
+                    "p.firstNameKey LIKE :prefix ESCAPE '!' OR p.lastNameKey LIKE :prefix ESCAPE '!'")
+    Page<PatientSummary> findByNamePrefix(@Param("prefix") String prefix, Pageable pageable);
+
+    @Query("SELECT new com.healthcare.repository.projection.PatientSummary(p.id, p.firstName, p.lastName) " +
+            "FROM Patient p WHERE " +
+            "p.firstNameKey LIKE :prefix ESCAPE '!' OR p.lastNameKey LIKE :prefix ESCAPE '!'")
+    Slice<PatientSummary> findSliceByNamePrefix(@Param("prefix") String prefix, Pageable pageable);
+
+    @Query("SELECT COUNT(p) FROM Patient p WHERE " +
+            "p.firstNameKey LIKE :prefix ESCAPE '!' OR p.lastNameKey LIKE :prefix ESCAPE '!'")
+    long countByNamePrefix(@Param("prefix") String prefix);
+
+    @Query("SELECT new com.healthcare.repository.projection.PatientSummary(p.id, p.firstName, p.lastName) " +
+            "FROM Patient p WHERE p.id > :afterId AND " +
+            "(p.firstNameKey LIKE :prefix ESCAPE '!' OR p.lastNameKey LIKE :prefix ESCAPE '!') " +
+            "ORDER BY p.id")
+    List<PatientSummary> findByNamePrefixAfter(@Param("prefix") String prefix,
+                                               @Param("afterId") Long afterId,
+                                               Pageable pageable);
+
+    @Query(value = "SELECT new com.healthcare.repository.projection.PatientSummary(p.id, p.firstName, p.lastName) " +
+            "FROM Patient p " +
+            "WHERE (p.firstNameKey LIKE :prefix ESCAPE '!' OR p.lastNameKey LIKE :prefix ESCAPE '!') " +
+            "AND EXISTS (SELECT 1 FROM Visit v WHERE v.patient = p AND v.doctor.id IN :doctorIds)",
+            countQuery = "SELECT COUNT(p) FROM Patient p " +
+                    "WHERE (p.firstNameKey LIKE :prefix ESCAPE '!' OR p.lastNameKey LIKE :prefix ESCAPE '!') " +
+                    "AND EXISTS (SELECT 1 FROM Visit v WHERE v.patient = p AND v.doctor.id IN :doctorIds)")
+    Page<PatientSummary> findByNamePrefixAndDoctorIds(@Param("prefix") String prefix,
+                                                      @Param("doctorIds") List<Long> doctorIds,
+                                                      Pageable pageable);
+
+    @Query("SELECT new com.healthcare.repository.projection.PatientSummary(p.id, p.firstName, p.lastName) " +
+            "FROM Patient p " +
+            "WHERE (p.firstNameKey LIKE :prefix ESCAPE '!' OR p.lastNameKey LIKE :prefix ESCAPE '!') " +
+            "AND EXISTS (SELECT 1 FROM Visit v WHERE v.patient = p AND v.doctor.id IN :doctorIds)")
+    Slice<PatientSummary> findSliceByNamePrefixAndDoctorIds(@Param("prefix") String prefix,
+                                                            @Param("doctorIds") List<Long> doctorIds,
+                                                            Pageable pageable);
+
+    @Query("SELECT COUNT(p) FROM Patient p " +
+            "WHERE (p.firstNameKey LIKE :prefix ESCAPE '!' OR p.lastNameKey LIKE :prefix ESCAPE '!') " +
+            "AND EXISTS (SELECT 1 FROM Visit v WHERE v.patient = p AND v.doctor.id IN :doctorIds)")
+    long countByNamePrefixAndDoctorIds(@Param("prefix") String prefix,
+                                       @Param("doctorIds") List<Long> doctorIds);
+
+    @Query("SELECT new com.healthcare.repository.projection.PatientSummary(p.id, p.firstName, p.lastName) " +
+            "FROM Patient p " +
+            "WHERE p.id > :afterId AND " +
+            "(p.firstNameKey LIKE :prefix ESCAPE '!' OR p.lastNameKey LIKE :prefix ESCAPE '!') " +
+            "AND EXISTS (SELECT 1 FROM Visit v WHERE v.patient = p AND v.doctor.id IN :doctorIds) " +
+            "ORDER BY p.id")
+    List<PatientSummary> findByNamePrefixAndDoctorIdsAfter(@Param("prefix") String prefix,
+                                                           @Param("doctorIds") List<Long> doctorIds,
+                                                           @Param("afterId") Long afterId,
+                                                           Pageable pageable);
+
+    @Query("SELECT p FROM Patient p WHERE p.firstNameKey IS NULL OR p.lastNameKey IS NULL")
+    List<Patient> findWithoutSearchKeys(Pageable pageable);
+
+    // Forward-only streams for the streaming list response; the fetch size lets the driver
+    // hand rows over in batches (MySQL needs useCursorFetch=true for this)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.healthcare.repository.projection.PatientSummary(p.id, p.firstName, p.lastName) " +
+            "FROM Patient p WHERE p.id > :afterId AND " +
+            "(:search IS NULL OR " +
+            "LOWER(CONCAT(p.firstName, ' ', p.lastName)) LIKE LOWER(CONCAT('%', :search, '%'))) " +
+            "ORDER BY p.id")
+    Stream<PatientSummary> streamBySearchCriteriaAfter(@Param("search") String search,
+                                                       @Param("afterId") Long afterId,
+                                                       Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.healthcare.repository.projection.PatientSummary(p.id, p.firstName, p.lastName) " +
+            "FROM Patient p " +
+            "WHERE p.id > :afterId AND (:search IS NULL OR " +
+            "LOWER(CONCAT(p.firstName, ' ', p.lastName)) LIKE LOWER(CONCAT('%', :search, '%'))) " +
+            "AND EXISTS (SELECT 1 FROM Visit v WHERE v.patient = p AND v.doctor.id IN :doctorIds) " +
+            "ORDER BY p.id")
+    Stream<PatientSummary> streamBySearchAndDoctorIdsAfter(@Param("search") String search,
+                                                           @Param("doctorIds") List<Long> doctorIds,
+                                                           @Param("afterId") Long afterId,
+                                                           Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.healthcare.repository.projection.PatientSummary(p.id, p.firstName, p.lastName) " +
+            "FROM Patient p WHERE p.id > :afterId AND " +
+            "(p.firstNameKey LIKE :prefix ESCAPE '!' OR p.lastNameKey LIKE :prefix ESCAPE '!') " +
+            "ORDER BY p.id")
+    Stream<PatientSummary> streamByNamePrefixAfter(@Param("prefix") String prefix,
+                                                   @Param("afterId") Long afterId,
+                                                   Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.healthcare.repository.projection.PatientSummary(p.id, p.firstName, p.lastName) " +
+            "FROM Patient p " +
+            "WHERE p.id > :afterId AND " +
+            "(p.firstNameKey LIKE :prefix ESCAPE '!' OR p.lastNameKey LIKE :prefix ESCAPE '!') " +
+            "AND EXISTS (SELECT 1 FROM Visit v WHERE v.patient = p AND v.doctor.id IN :doctorIds) " +
+            "ORDER BY p.id")
+    Stream<PatientSummary> streamByNamePrefixAndDoctorIdsAfter(@Param("prefix") String prefix,
+                                                               @Param("doctorIds") List<Long> doctorIds,
+                                                               @Param("afterId") Long afterId,
+                                                               Pageable pageable);
+}
@@ -0,0 +1,68 @@
+package com.healthcare.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Latest visit of a patient to a doctor together with the doctor columns and the
+ * doctor's patient total, as rendered in {@code lastVisits}.
+ */
+public class LastVisitView {
+
+    private final Long patientId;
+    private final Long doctorId;
+    private final LocalDateTime startDateTime;
+    private final LocalDateTime endDateTime;
+    private final String doctorFirstName;
+    private final String doctorLastName;
+    private final String doctorTimezone;
+    private final Long doctorTotalPatients;
+
+    public LastVisitView(Long patientId, Long doctorId,
+                         LocalDateTime startDateTime, LocalDateTime endDateTime,
+                         String doctorFirstName, String doctorLastName, String doctorTimezone,
+                         Long doctorTotalPatients) {
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+        this.startDateTime = startDateTime;
+        this.endDateTime = endDateTime;
+        this.doctorFirstName = doctorFirstName;
+        this.doctorLastName = doctorLastName;
+        this.doctorTimezone = doctorTimezone;
+        this.doctorTotalPatients = doctorTotalPatients;
+    }
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public LocalDateTime getStartDateTime() {
+        return startDateTime;
+    }
+
+    public LocalDateTime getEndDateTime() {
+        return endDateTime;
+    }
+
+    public String getDoctorFirstName() {
+        return doctorFirstName;
+    }
+
+    public String getDoctorLastName() {
+        return doctorLastName;
+    }
+
+    public String getDoctorTimezone() {
+        return doctorTimezone;
+    }
+
+    /**
+     * @return the maintained patient total, or null if the counter row is missing
+     */
+    public Long getDoctorTotalPatients() {
+        return doctorTotalPatients;
+    }
+}
@@ -0,0 +1,38 @@
+package com.healthcare.repository.projection;
+
+/**
+ * Patient columns needed by the patients list, selected without loading the entity.
+ */
+public class PatientSummary {
+
+    private final Long id;
+    private final String firstName;
+    private final String lastName;
+
+    public PatientSummary(Long id, String firstName, String lastName) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    @Override
+    public String toString() {
+        return "PatientSummary{" +
+                "id=" + id +
+                ", firstName='" + firstName + '\'' +
+                ", lastName='" + lastName + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,40 @@
+package com.healthcare.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Time range of a doctor's visit, selected for conflict checks without loading the entity.
+ */
+public class VisitInterval {
+
+    private final Long doctorId;
+    private final LocalDateTime startDateTime;
+    private final LocalDateTime endDateTime;
+
+    public VisitInterval(Long doctorId, LocalDateTime startDateTime, LocalDateTime endDateTime) {
+        this.doctorId = doctorId;
+        this.startDateTime = startDateTime;
+        this.endDateTime = endDateTime;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public LocalDateTime getStartDateTime() {
+        return startDateTime;
+    }
+
+    public LocalDateTime getEndDateTime() {
+        return endDateTime;
+    }
+
+    @Override
+    public String toString() {
+        return "VisitInterval{" +
+                "doctorId=" + doctorId +
+                ", startDateTime=" + startDateTime +
+                ", endDateTime=" + endDateTime +
+                '}';
+    }
+}
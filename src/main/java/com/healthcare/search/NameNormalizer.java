@@ -0,0 +1,60 @@
+package com.healthcare.search;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Lowercases and strips diacritics from names, approximating the accent- and
+ * case-insensitive collation MySQL applies to name comparisons.
+ */
+public final class NameNormalizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private NameNormalizer() {}
+
+    public static String fold(String value) {
+        if (value == null) {
+            return null;
+        }
+        if (isAscii(value)) {
+            return value.toLowerCase(Locale.ROOT);
+        }
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Folded form of {@code CONCAT(firstName, ' ', lastName)}.
+     */
+    public static String fullName(String firstName, String lastName) {
+        return fold(firstName + " " + lastName);
+    }
+
+    /**
+     * LIKE pattern matching keys that start with the folded {@code term}, escaping
+     * wildcards with {@code '!'}.
+     */
+    public static String likePrefix(String term) {
+        String folded = fold(term);
+        StringBuilder pattern = new StringBuilder(folded.length() + 1);
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (c == '!' || c == '%' || c == '_') {
+                pattern.append('!');
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+
+    public static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,232 @@
+package com.healthcare.search;
+
+import com.healthcare.entity.Patient;
+import com.healthcare.event.EntityChangeType;
+import com.healthcare.event.EntityChangedEvent;
+import com.healthcare.repository.PatientRepository;
+import com.healthcare.repository.projection.PatientSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram index over patient full names, answering the
+ * {@code LOWER(CONCAT(firstName, ' ', lastName)) LIKE '%term%'} search without a
+ * table scan.
+ *
+ * <p>Every trigram of the folded full name maps to the ids containing it. A lookup
+ * takes the smallest posting set among the term's trigrams and verifies each
+ * candidate against the stored name, so the cost depends on the number of
+ * candidates rather than on the size of the table.
+ *
+ * <p>The index is loaded on startup and kept current from {@link EntityChangedEvent}s.
+ * Changes are applied once the writing transaction commits, so searches never see
+ * uncommitted patients; a rolled back transaction leaves the index alone. Patients
+ * written by other application instances or directly into the database are not
+ * seen, so the index is off by default and refuses to start together with the
+ * {@code database} booking locks, which exist for running several instances.
+ */
+@Component
+public class PatientNameIndex implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientNameIndex.class);
+
+    static final int GRAM_LENGTH = 3;
+
+    private final PatientRepository patientRepository;
+    private final boolean enabled;
+
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, String> names = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    @Autowired
+    public PatientNameIndex(PatientRepository patientRepository,
+                            @Value("${app.search.name-index.enabled:false}") boolean enabled,
+                            @Value("${app.booking.lock.type:striped}") String lockType) {
+        this(patientRepository, singleInstanceOnly(enabled, lockType));
+    }
+
+    PatientNameIndex(PatientRepository patientRepository, boolean enabled) {
+        this.patientRepository = patientRepository;
+        this.enabled = enabled;
+    }
+
+    private static boolean singleInstanceOnly(boolean enabled, String lockType) {
+        if (enabled && "database".equals(lockType)) {
+            // Patients written by other instances would be missing from search results
+            throw new IllegalStateException(
+                    "app.search.name-index.enabled requires a single instance and cannot be used with app.booking.lock.type=database");
+        }
+        return enabled;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        try (Stream<PatientSummary> patients = patientRepository.streamAllSummaries()) {
+            patients.forEach(patient ->
+                    put(patient.getId(), NameNormalizer.fullName(patient.getFirstName(), patient.getLastName())));
+        }
+        ready = true;
+        log.info("Indexed {} patient names", names.size());
+    }
+
+    /**
+     * Returns the ids of all patients whose full name contains {@code term}, in
+     * ascending order, or {@code null} when the term has to be answered by the
+     * database: the index is not loaded, the term is shorter than a trigram, or it
+     * contains characters that LIKE treats as wildcards or escapes.
+     */
+    public long[] search(String term) {
+        if (!ready || term == null) {
+            return null;
+        }
+        String folded = NameNormalizer.fold(term);
+        if (folded.length() < GRAM_LENGTH || containsLikeMetacharacter(folded)) {
+            return null;
+        }
+
+        // The rarest trigram bounds the candidates; verifying them covers the rest
+        Set<Long> candidates = null;
+        for (int i = 0; i + GRAM_LENGTH <= folded.length(); i++) {
+            Set<Long> posting = postings.get(folded.substring(i, i + GRAM_LENGTH));
+            if (posting == null) {
+                return new long[0];
+            }
+            if (candidates == null || posting.size() < candidates.size()) {
+                candidates = posting;
+            }
+        }
+
+        long[] matches = new long[candidates.size()];
+        int count = 0;
+        for (Long id : candidates) {
+            String name = names.get(id);
+            if (name != null && name.contains(folded) && count < matches.length) {
+                matches[count++] = id;
+            }
+        }
+        long[] result = Arrays.copyOf(matches, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (!enabled || !(event.getEntity() instanceof Patient patient) || patient.getId() == null) {
+            return;
+        }
+
+        // Captured now, as the entity may change again before the commit
+        Optional<String> name = event.getType() == EntityChangeType.DELETED
+                ? Optional.empty()
+                : Optional.of(NameNormalizer.fullName(patient.getFirstName(), patient.getLastName()));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingNames().put(patient.getId(), name);
+        } else {
+            apply(patient.getId(), name);
+        }
+    }
+
+    /**
+     * Latest names written by the current transaction, applied once it commits.
+     */
+    private Map<Long, Optional<String>> pendingNames() {
+        @SuppressWarnings("unchecked")
+        Map<Long, Optional<String>> pending =
+                (Map<Long, Optional<String>>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+
+        Map<Long, Optional<String>> created = new HashMap<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                created.forEach(PatientNameIndex.this::apply);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PatientNameIndex.this);
+            }
+        });
+        return created;
+    }
+
+    private void apply(Long id, Optional<String> name) {
+        if (name.isPresent()) {
+            put(id, name.get());
+        } else {
+            remove(id);
+        }
+    }
+
+    void put(Long id, String name) {
+        String previous = names.put(id, name);
+        if (name.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            removeGrams(id, previous);
+        }
+        for (int i = 0; i + GRAM_LENGTH <= name.length(); i++) {
+            postings.computeIfAbsent(name.substring(i, i + GRAM_LENGTH), gram -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    void remove(Long id) {
+        String previous = names.remove(id);
+        if (previous != null) {
+            removeGrams(id, previous);
+        }
+    }
+
+    void markReady() {
+        ready = true;
+    }
+
+    private void removeGrams(Long id, String name) {
+        for (int i = 0; i + GRAM_LENGTH <= name.length(); i++) {
+            String gram = name.substring(i, i + GRAM_LENGTH);
+            // Keep the posting set even if it becomes empty; dropping it here could race with a concurrent add
+            Set<Long> posting = postings.get(gram);
+            if (posting != null) {
+                posting.remove(id);
+            }
+        }
+    }
+
+    private static boolean containsLikeMetacharacter(String term) {
+        return term.indexOf('%') >= 0 || term.indexOf('_') >= 0 || term.indexOf('\\') >= 0;
+    }
+}
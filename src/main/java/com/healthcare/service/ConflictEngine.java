@@ -0,0 +1,18 @@
+package com.healthcare.service;
+
+/**
+ * How new visits are checked against a doctor's existing ones
+ * ({@code app.booking.conflict-engine}).
+ */
+public enum ConflictEngine {
+    /**
+     * Overlap query (or {@link DoctorScheduleIndex}) before the insert, serialized
+     * per doctor by a {@link com.healthcare.lock.DoctorLockManager}.
+     */
+    QUERY,
+    /**
+     * No read: the visit claims its slots in {@code doctor_slots} and an overlap fails
+     * on the primary key. Visits must start and end on slot boundaries.
+     */
+    SLOTS
+}
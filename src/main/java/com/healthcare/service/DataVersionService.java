@@ -0,0 +1,111 @@
+package com.healthcare.service;
+
+import com.healthcare.entity.DataVersion;
+import com.healthcare.entity.Doctor;
+import com.healthcare.entity.Patient;
+import com.healthcare.entity.Visit;
+import com.healthcare.event.EntityChangedEvent;
+import com.healthcare.repository.DataVersionRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the {@code data_versions} counter of the patients list in step with writes
+ * to patients, doctors and visits.
+ *
+ * <p>The changing transaction increments the counter itself, once, with a single
+ * UPDATE on its own connection right before it commits, so the version commits or
+ * rolls back together with the data and can never fall behind it. The update is run
+ * by Hibernate after its final flush, so rows only written at commit, such as the
+ * visits of a batch, are counted too. Concurrent writers wait for each other on the
+ * counter row only from that update until their commit.
+ */
+@Service
+public class DataVersionService implements ApplicationRunner {
+
+    public static final String PATIENTS_LIST = "patients-list";
+
+    private static final String INCREMENT = "UPDATE data_versions SET version = version + 1 WHERE name = ?";
+    private static final String INSERT = "INSERT INTO data_versions (name, version) VALUES (?, ?)";
+
+    private final DataVersionRepository dataVersionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public DataVersionService(DataVersionRepository dataVersionRepository,
+                              PlatformTransactionManager transactionManager,
+                              EntityManager entityManager,
+                              JdbcTemplate jdbcTemplate) {
+        this.dataVersionRepository = dataVersionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!dataVersionRepository.existsById(PATIENTS_LIST)) {
+                // Start from the clock so a recreated table cannot reissue old ETags
+                dataVersionRepository.save(new DataVersion(PATIENTS_LIST, System.currentTimeMillis()));
+            }
+        });
+    }
+
+    public long currentVersion() {
+        return dataVersionRepository.findVersionByName(PATIENTS_LIST).orElse(0L);
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Patient || entity instanceof Doctor || entity instanceof Visit) {
+            markChanged();
+        }
+    }
+
+    /**
+     * Records that the current transaction changed data shown in the patients list,
+     * which increments the version as part of its commit. Without a transaction the
+     * version is incremented immediately.
+     */
+    public void markChanged() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            transactionTemplate.executeWithoutResult(status -> increment());
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(DataVersionService.this);
+            }
+        });
+        // Also reached from the flush at commit, after Spring's beforeCommit callbacks already ran
+        entityManager.unwrap(SessionImplementor.class).getActionQueue()
+                .registerProcess((BeforeTransactionCompletionProcess) session -> increment());
+    }
+
+    private void increment() {
+        if (jdbcTemplate.update(INCREMENT, PATIENTS_LIST) == 0) {
+            jdbcTemplate.update(INSERT, PATIENTS_LIST, System.currentTimeMillis());
+        }
+    }
+}
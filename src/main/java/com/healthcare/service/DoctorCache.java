@@ -0,0 +1,194 @@
+package com.healthcare.service;
+
+import com.healthcare.entity.Doctor;
+import com.healthcare.event.EntityChangedEvent;
+import com.healthcare.repository.DoctorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of doctors, preloaded on startup. Doctors are few and rarely
+ * change, so resolving one for a new visit normally costs no query.
+ *
+ * <p>Lookups return detached copies that are safe to reference from new entities.
+ * A changed doctor is evicted as soon as the change is flushed and again when the
+ * transaction completes; the writing transaction itself never fills the cache, so
+ * other threads only ever cache committed state.
+ */
+@Component
+public class DoctorCache implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(DoctorCache.class);
+
+    private final DoctorRepository doctorRepository;
+
+    private final Map<Long, Snapshot> doctors = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public DoctorCache(DoctorRepository doctorRepository) {
+        this.doctorRepository = doctorRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void run(ApplicationArguments args) {
+        long stamp = generation.get();
+        for (Doctor doctor : doctorRepository.findAll()) {
+            cache(doctor, stamp);
+        }
+        log.info("Cached {} doctors", doctors.size());
+    }
+
+    public Optional<Doctor> find(Long id) {
+        Snapshot snapshot = doctors.get(id);
+        if (snapshot != null) {
+            return Optional.of(snapshot.toDoctor());
+        }
+
+        long stamp = generation.get();
+        Optional<Doctor> loaded = doctorRepository.findById(id);
+        if (loaded.isPresent() && !TransactionSynchronizationManager.hasResource(this)) {
+            cache(loaded.get(), stamp);
+        }
+        // The loaded doctor may be managed by the caller's persistence context
+        return loaded.map(doctor -> new Snapshot(doctor).toDoctor());
+    }
+
+    /**
+     * The doctor's time zone, without copying a cached doctor; loaded and cached like
+     * {@link #find} on a miss.
+     */
+    public Optional<String> findTimezone(Long id) {
+        Snapshot snapshot = doctors.get(id);
+        if (snapshot != null) {
+            return Optional.of(snapshot.timezone);
+        }
+        return find(id).map(Doctor::getTimezone);
+    }
+
+    /**
+     * Resolves many doctors at once; the ones not cached are loaded with a single query.
+     *
+     * @return the doctors found, by id
+     */
+    public Map<Long, Doctor> findAll(Collection<Long> ids) {
+        Map<Long, Doctor> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            Snapshot snapshot = doctors.get(id);
+            if (snapshot != null) {
+                found.put(id, snapshot.toDoctor());
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        long stamp = generation.get();
+        boolean cacheable = !TransactionSynchronizationManager.hasResource(this);
+        for (Doctor doctor : doctorRepository.findAllById(missing)) {
+            found.put(doctor.getId(), new Snapshot(doctor).toDoctor());
+            if (cacheable) {
+                cache(doctor, stamp);
+            }
+        }
+        return found;
+    }
+
+    public int size() {
+        return doctors.size();
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (!(event.getEntity() instanceof Doctor doctor) || doctor.getId() == null) {
+            return;
+        }
+
+        evict(doctor.getId());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingEvictions().add(doctor.getId());
+        }
+    }
+
+    /**
+     * Doctors changed by the current transaction, evicted again once it completes.
+     */
+    private Set<Long> pendingEvictions() {
+        @SuppressWarnings("unchecked")
+        Set<Long> pending = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+
+        Set<Long> created = new HashSet<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(DoctorCache.this);
+                created.forEach(DoctorCache.this::evict);
+            }
+        });
+        return created;
+    }
+
+    private void cache(Doctor doctor, long stamp) {
+        if (generation.get() != stamp) {
+            return;
+        }
+        Snapshot snapshot = new Snapshot(doctor);
+        doctors.putIfAbsent(doctor.getId(), snapshot);
+        // An eviction that ran meanwhile may have been meant for the row just read
+        if (generation.get() != stamp) {
+            doctors.remove(doctor.getId(), snapshot);
+        }
+    }
+
+    private void evict(Long id) {
+        generation.incrementAndGet();
+        doctors.remove(id);
+    }
+
+    private static final class Snapshot {
+        private final Long id;
+        private final String firstName;
+        private final String lastName;
+        private final String timezone;
+
+        private Snapshot(Doctor doctor) {
+            this.id = doctor.getId();
+            this.firstName = doctor.getFirstName();
+            this.lastName = doctor.getLastName();
+            this.timezone = doctor.getTimezone();
+        }
+
+        private Doctor toDoctor() {
+            Doctor doctor = new Doctor(firstName, lastName, timezone);
+            doctor.setId(id);
+            return doctor;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.healthcare.service;
+
+import com.healthcare.entity.Visit;
+import com.healthcare.event.EntityChangeType;
+import com.healthcare.event.EntityChangedEvent;
+import com.healthcare.repository.VisitRepository;
+import com.healthcare.repository.projection.VisitInterval;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+/**
+ * Answers "does this doctor have a visit conflicting with the given range" from
+ * memory, falling back to {@code VisitRepository.existsByDoctorIdAndDateTimeConflict}
+ * whenever it cannot.
+ *
+ * <p>Each doctor's visits in a window around now (from {@code look-back} before to
+ * {@code horizon} after the moment of loading) are kept in a map sorted by start.
+ * As long as they do not overlap each other, a check looks at the visit starting
+ * before the range and the first one starting inside it, which is O(log n). A
+ * doctor whose stored visits do overlap is left to the database.
+ *
+ * <p>A doctor is loaded in the background on the first check, in its own read-only
+ * transaction; until then, and for ranges outside the window, the database answers.
+ * New visits are added once their transaction commits. Changed or deleted visits,
+ * and loads that ran while a visit of the doctor was committed, send the doctor back
+ * to the database until the next load. A window that has used up half its horizon is
+ * reloaded, which also drops visits that fell behind it. Visits written by other
+ * application instances are only seen on the next load, so the index is off by
+ * default and refuses to start together with the {@code database} booking locks,
+ * which exist for running several instances.
+ */
+@Component
+public class DoctorScheduleIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(DoctorScheduleIndex.class);
+
+    private final VisitRepository visitRepository;
+    private final boolean enabled;
+    private final Duration lookBack;
+    private final Duration horizon;
+    private final Supplier<LocalDateTime> clock;
+    private final Executor loader;
+    private final TransactionOperations readOnlyTransaction;
+
+    private final Map<Long, Schedule> schedules = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DoctorScheduleIndex(VisitRepository visitRepository,
+                               @Value("${app.visit-index.enabled:false}") boolean enabled,
+                               @Value("${app.visit-index.look-back:P1D}") Duration lookBack,
+                               @Value("${app.visit-index.horizon:P90D}") Duration horizon,
+                               @Value("${app.booking.lock.type:striped}") String lockType,
+                               PlatformTransactionManager transactionManager) {
+        this(visitRepository, singleInstanceOnly(enabled, lockType), lookBack, horizon, LocalDateTime::now,
+                loaderPool(), readOnly(transactionManager));
+    }
+
+    DoctorScheduleIndex(VisitRepository visitRepository, boolean enabled, Duration lookBack, Duration horizon,
+                        Supplier<LocalDateTime> clock, Executor loader, TransactionOperations readOnlyTransaction) {
+        this.visitRepository = visitRepository;
+        this.enabled = enabled;
+        this.lookBack = lookBack;
+        this.horizon = horizon;
+        this.clock = clock;
+        this.loader = loader;
+        this.readOnlyTransaction = readOnlyTransaction;
+    }
+
+    private static boolean singleInstanceOnly(boolean enabled, String lockType) {
+        if (enabled && "database".equals(lockType)) {
+            // Visits committed by other instances would not be seen, so a doctor could be double-booked
+            throw new IllegalStateException(
+                    "app.visit-index.enabled requires a single instance and cannot be used with app.booking.lock.type=database");
+        }
+        return enabled;
+    }
+
+    /**
+     * Same result as {@code existsByDoctorIdAndDateTimeConflict} for committed visits.
+     */
+    public boolean hasConflict(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        if (enabled) {
+            Schedule schedule = schedules.computeIfAbsent(doctorId, Schedule::new);
+            LocalDateTime now = clock.get();
+            Boolean conflict = schedule.check(start, end);
+            if (schedule.needsLoad(now)) {
+                load(schedule, now);
+            }
+            if (conflict != null) {
+                return conflict;
+            }
+        }
+        return visitRepository.existsByDoctorIdAndDateTimeConflict(doctorId, start, end);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the number of doctors currently answered from memory
+     */
+    public int loadedDoctors() {
+        return (int) schedules.values().stream().filter(Schedule::isIndexed).count();
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (!enabled || !(event.getEntity() instanceof Visit visit) || visit.getDoctor() == null) {
+            return;
+        }
+        // Created even if never checked, so a load starting before the commit is discarded
+        Schedule schedule = schedules.computeIfAbsent(visit.getDoctor().getId(), Schedule::new);
+
+        if (event.getType() != EntityChangeType.CREATED) {
+            // The old range is unknown here, so the doctor goes back to the database
+            schedule.invalidate();
+            afterCompletion(schedule::invalidate);
+            return;
+        }
+        LocalDateTime start = visit.getStartDateTime();
+        LocalDateTime end = visit.getEndDateTime();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    schedule.add(start, end);
+                }
+            });
+        } else {
+            schedule.add(start, end);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (loader instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        }
+    }
+
+    private void load(Schedule schedule, LocalDateTime now) {
+        long version = schedule.startLoading();
+        if (version < 0) {
+            return;
+        }
+        LocalDateTime from = now.minus(lookBack);
+        LocalDateTime to = now.plus(horizon);
+        try {
+            loader.execute(() -> {
+                try {
+                    List<VisitInterval> visits = readOnlyTransaction.execute(status ->
+                            visitRepository.findIntervalsByDoctorIdsBetween(List.of(schedule.doctorId), from, to));
+                    schedule.install(version, from, to, visits);
+                } catch (RuntimeException e) {
+                    log.warn("Could not load the schedule of doctor {}", schedule.doctorId, e);
+                } finally {
+                    schedule.finishLoading();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Retried by a later check
+            schedule.finishLoading();
+        }
+    }
+
+    private static void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    private static ThreadPoolTaskExecutor loaderPool() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(256);
+        executor.setThreadNamePrefix("doctor-schedule-loader-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    private static TransactionOperations readOnly(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    /**
+     * One doctor's visits in the loaded window. All access is synchronized on the
+     * schedule; {@code version} counts every change seen since the schedule was
+     * created, so a load that raced with one is discarded.
+     */
+    private final class Schedule {
+        private final Long doctorId;
+
+        // Start to end of non-overlapping visits, or null when the database has to answer
+        private TreeMap<LocalDateTime, LocalDateTime> visits;
+        private LocalDateTime from;
+        private LocalDateTime to;
+        private long version;
+        private boolean loading;
+        // Loaded but overlapping; not retried before the window is due for a reload
+        private boolean overlapping;
+
+        private Schedule(Long doctorId) {
+            this.doctorId = doctorId;
+        }
+
+        /**
+         * @return whether the range conflicts, or null if the index cannot tell
+         */
+        synchronized Boolean check(LocalDateTime start, LocalDateTime end) {
+            if (visits == null || start.isBefore(from) || end.isAfter(to)) {
+                return null;
+            }
+            // Visits do not overlap, so among those starting before the range only the last one can reach it
+            Map.Entry<LocalDateTime, LocalDateTime> before = visits.lowerEntry(start);
+            if (before != null && VisitBatchService.conflicts(start, end, before.getKey(), before.getValue())) {
+                return true;
+            }
+            // Any visit starting in [start, end) conflicts; one starting at end only if it also ends there
+            Map.Entry<LocalDateTime, LocalDateTime> next = visits.ceilingEntry(start);
+            if (next != null && !next.getKey().isAfter(end)) {
+                return VisitBatchService.conflicts(start, end, next.getKey(), next.getValue());
+            }
+            return false;
+        }
+
+        synchronized boolean needsLoad(LocalDateTime now) {
+            if (loading) {
+                return false;
+            }
+            if (visits == null && !overlapping) {
+                return true;
+            }
+            // Reload once half of the horizon has been used up
+            return to == null || to.isBefore(now.plus(horizon.dividedBy(2)));
+        }
+
+        synchronized boolean isIndexed() {
+            return visits != null;
+        }
+
+        /**
+         * @return the version to pass to {@link #install}, or -1 if a load is already running
+         */
+        synchronized long startLoading() {
+            if (loading) {
+                return -1;
+            }
+            loading = true;
+            return version;
+        }
+
+        synchronized void finishLoading() {
+            loading = false;
+        }
+
+        synchronized void install(long expectedVersion, LocalDateTime from, LocalDateTime to,
+                                  List<VisitInterval> loaded) {
+            if (version != expectedVersion) {
+                return;
+            }
+            List<VisitInterval> sorted = new ArrayList<>(loaded);
+            sorted.sort(Comparator.comparing(VisitInterval::getStartDateTime));
+            TreeMap<LocalDateTime, LocalDateTime> map = new TreeMap<>();
+            LocalDateTime previousEnd = null;
+            for (VisitInterval visit : sorted) {
+                if (previousEnd != null && previousEnd.isAfter(visit.getStartDateTime())
+                        || map.containsKey(visit.getStartDateTime())) {
+                    log.debug("Visits of doctor {} overlap, checked by the database", doctorId);
+                    this.visits = null;
+                    this.overlapping = true;
+                    this.from = from;
+                    this.to = to;
+                    return;
+                }
+                map.put(visit.getStartDateTime(), visit.getEndDateTime());
+                previousEnd = visit.getEndDateTime();
+            }
+            this.visits = map;
+            this.overlapping = false;
+            this.from = from;
+            this.to = to;
+        }
+
+        synchronized void add(LocalDateTime start, LocalDateTime end) {
+            version++;
+            if (visits == null || end.isBefore(from) || start.isAfter(to)) {
+                return;
+            }
+            Map.Entry<LocalDateTime, LocalDateTime> before = visits.floorEntry(start);
+            if (before != null && before.getKey().equals(start) && before.getValue().equals(end)) {
+                // Already read by a load that ran after the commit
+                return;
+            }
+            Map.Entry<LocalDateTime, LocalDateTime> after = visits.higherEntry(start);
+            boolean fits = (before == null || !before.getKey().equals(start) && !before.getValue().isAfter(start))
+                    && (after == null || !end.isAfter(after.getKey()));
+            if (fits) {
+                visits.put(start, end);
+            } else {
+                // Two bookings raced past the check; let the database answer for this doctor
+                visits = null;
+            }
+        }
+
+        synchronized void invalidate() {
+            version++;
+            visits = null;
+            overlapping = false;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.healthcare.service;
+
+import com.healthcare.entity.Visit;
+import com.healthcare.event.EntityChangeType;
+import com.healthcare.event.EntityChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Write-only conflict detection on a fixed grid: every visit claims the
+ * {@value #SLOT_MINUTES}-minute slots it covers in {@code doctor_slots}, and a slot
+ * claimed twice fails on the primary key. Booking then needs no overlap query and
+ * no lock, and stays correct with any number of application instances.
+ *
+ * <p>Grid visits of positive length conflict on a slot exactly when the overlap
+ * query would report them, so with the {@code slots} engine new visits must start
+ * and end on slot boundaries. Time zone offsets are multiples of 15 minutes, so the
+ * boundaries are the same in the storage zone and in every doctor's zone.
+ */
+@Service
+@Transactional
+public class DoctorSlotService {
+
+    public static final int SLOT_MINUTES = 15;
+
+    static final String CONFLICT_MESSAGE = "Doctor has conflicting visit at this time";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO doctor_slots (doctor_id, slot_start, visit_id) VALUES (?, ?, ?)";
+
+    private static final Comparator<Object[]> KEY_ORDER = Comparator
+            .comparing((Object[] row) -> (Long) row[0])
+            .thenComparing(row -> (Timestamp) row[1]);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    @Autowired
+    public DoctorSlotService(JdbcTemplate jdbcTemplate,
+                             @Value("${app.booking.conflict-engine:query}") ConflictEngine conflictEngine) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = conflictEngine == ConflictEngine.SLOTS;
+    }
+
+    /**
+     * Whether the {@code slots} conflict engine is configured.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return why the range cannot be booked on the slot grid, or null if it can
+     */
+    public String validationError(LocalDateTime start, LocalDateTime end) {
+        if (!isOnGrid(start) || !isOnGrid(end)) {
+            return "Visit times must be on " + SLOT_MINUTES + "-minute boundaries";
+        }
+        if (!start.isBefore(end)) {
+            return "Visit must last at least one " + SLOT_MINUTES + "-minute slot";
+        }
+        return null;
+    }
+
+    /**
+     * Claims the slots of saved visits in one batch. The visits only need their ids,
+     * which the pooled generator assigns before they are flushed.
+     *
+     * <p>The rows are inserted in key order whatever the order of the visits. An
+     * insert waits for a concurrent, uncommitted claim of the same slot, so two
+     * bookings taking overlapping slots in opposite orders would wait for each other
+     * until the lock timeout; in key order the one that claimed the first shared slot
+     * always gets the rest.
+     *
+     * @throws IllegalArgumentException if another visit already holds one of the slots
+     */
+    public void claim(List<Visit> visits) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Visit visit : visits) {
+            for (LocalDateTime slot : slotsCovering(visit.getStartDateTime(), visit.getEndDateTime())) {
+                rows.add(new Object[]{visit.getDoctor().getId(), Timestamp.valueOf(slot), visit.getId()});
+            }
+        }
+        rows.sort(KEY_ORDER);
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        } catch (DuplicateKeyException e) {
+            throw new IllegalArgumentException(CONFLICT_MESSAGE);
+        }
+    }
+
+    /**
+     * Frees the slots of deleted visits whichever engine is configured, so that
+     * switching to {@code slots} later does not see stale claims. Visits are never
+     * updated by the application.
+     */
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.getType() == EntityChangeType.DELETED && event.getEntity() instanceof Visit visit
+                && visit.getId() != null) {
+            // Plain JDBC on the transaction's connection, safe while Hibernate is flushing
+            jdbcTemplate.update("DELETE FROM doctor_slots WHERE visit_id = ?", visit.getId());
+        }
+    }
+
+    /**
+     * The grid slots a visit occupies: from the slot containing its start up to, not
+     * including, the slot starting at or after its end. A zero-length visit occupies
+     * the slot containing it.
+     */
+    public static List<LocalDateTime> slotsCovering(LocalDateTime start, LocalDateTime end) {
+        List<LocalDateTime> slots = new ArrayList<>();
+        LocalDateTime slot = floor(start);
+        do {
+            slots.add(slot);
+            slot = slot.plusMinutes(SLOT_MINUTES);
+        } while (slot.isBefore(end));
+        return slots;
+    }
+
+    private static LocalDateTime floor(LocalDateTime dateTime) {
+        LocalDateTime minutes = dateTime.truncatedTo(ChronoUnit.MINUTES);
+        return minutes.minusMinutes(minutes.getMinute() % SLOT_MINUTES);
+    }
+
+    private static boolean isOnGrid(LocalDateTime dateTime) {
+        return floor(dateTime).equals(dateTime);
+    }
+}
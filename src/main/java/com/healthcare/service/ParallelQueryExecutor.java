@@ -0,0 +1,171 @@
+package com.healthcare.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Runs read-only queries that do not depend on each other's results on a small
+ * dedicated pool, so a request waits for the slowest of them rather than their sum.
+ *
+ * <p>Every branch runs in its own read-only transaction, and therefore on its own
+ * pooled connection, with the configured timeout applied to its statements. The
+ * caller usually holds a connection of its own while it waits, so every running
+ * branch ties up two connections. Branches are therefore only started while fewer
+ * than half of the connection pool (and no more than the configured threads) is
+ * taken by them; beyond that {@link #submit} declines and the caller runs the query
+ * itself, which degrades to sequential execution instead of exhausting the pool.
+ */
+@Component
+public class ParallelQueryExecutor {
+
+    private final boolean enabled;
+    private final Duration timeout;
+    private final ThreadPoolTaskExecutor executor;
+    private final TransactionTemplate readOnlyTransaction;
+    // One per branch that may hold a connection while its caller holds another
+    private final Semaphore permits;
+
+    @Autowired
+    public ParallelQueryExecutor(@Value("${app.patients-list.parallel-queries.enabled:false}") boolean enabled,
+                                 @Value("${app.patients-list.parallel-queries.threads:4}") int threads,
+                                 @Value("${app.patients-list.parallel-queries.queue-capacity:64}") int queueCapacity,
+                                 @Value("${app.patients-list.parallel-queries.timeout:PT5S}") Duration timeout,
+                                 @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize,
+                                 PlatformTransactionManager transactionManager) {
+        this.timeout = timeout;
+        // Callers waiting for a branch plus the branches stay below the pool size
+        int maxBranches = Math.min(threads, (connectionPoolSize - 1) / 2);
+        this.enabled = enabled && maxBranches > 0;
+        this.permits = new Semaphore(Math.max(0, maxBranches));
+
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(threads);
+        this.executor.setMaxPoolSize(threads);
+        this.executor.setQueueCapacity(queueCapacity);
+        this.executor.setThreadNamePrefix("patients-list-query-");
+        this.executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.initialize();
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setTimeout((int) Math.max(1, timeout.toSeconds()));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts the query on the pool if a branch slot is free.
+     *
+     * @return the running branch, or null if as many branches as the connection pool
+     * allows are running, in which case the caller runs the query itself
+     */
+    public <T> Branch<T> submit(String name, Supplier<T> query) {
+        if (!permits.tryAcquire()) {
+            return null;
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        AtomicBoolean claimed = new AtomicBoolean();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                // A branch cancelled before it started has released its slot already
+                if (!claimed.compareAndSet(false, true)) {
+                    return null;
+                }
+                try {
+                    return readOnlyTransaction.execute(status -> query.get());
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        return new Branch<>(name, future, deadline, () -> {
+            if (claimed.compareAndSet(false, true)) {
+                permits.release();
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * A query started by {@link #submit}. Callers must either {@link #join} it or
+     * {@link #cancel} it once their own work fails.
+     */
+    public static final class Branch<T> {
+        private final String name;
+        private final Future<T> future;
+        private final long deadline;
+        private final Runnable releaseIfNotStarted;
+
+        private Branch(String name, Future<T> future, long deadline, Runnable releaseIfNotStarted) {
+            this.name = name;
+            this.future = future;
+            this.deadline = deadline;
+            this.releaseIfNotStarted = releaseIfNotStarted;
+        }
+
+        /**
+         * Waits for the result until the deadline set at submission.
+         *
+         * @throws QueryTimeoutException if the query did not finish in time
+         */
+        public T join() {
+            try {
+                return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                cancel();
+                throw new QueryTimeoutException("Query '" + name + "' did not finish in time", e);
+            } catch (InterruptedException e) {
+                cancel();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for query '" + name + "'", e);
+            } catch (CancellationException e) {
+                throw new IllegalStateException("Query '" + name + "' was cancelled", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException("Query '" + name + "' failed", cause);
+            }
+        }
+
+        /**
+         * Interrupts the query if it is still running; its statement is bounded by the
+         * transaction timeout either way.
+         */
+        public void cancel() {
+            releaseIfNotStarted.run();
+            future.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.SearchMode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of patient list totals keyed by search mode, term and doctor filter,
+ * used by {@code count=estimated}. Entries expire after a fixed TTL; when the cache
+ * grows past its bound it is simply cleared, as recomputing a count is always safe.
+ */
+@Component
+public class PatientCountCache {
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PatientCountCache(@Value("${app.patients-list.count-cache.ttl:PT30S}") Duration ttl,
+                             @Value("${app.patients-list.count-cache.max-entries:1000}") int maxEntries) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return the cached total, or null if absent or expired
+     */
+    public Long get(SearchMode searchMode, String search, List<Long> doctorIds) {
+        Key key = new Key(searchMode, search, doctorIds);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.createdAt > ttlNanos) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.count;
+    }
+
+    public void put(SearchMode searchMode, String search, List<Long> doctorIds, long count) {
+        if (entries.size() >= maxEntries) {
+            entries.clear();
+        }
+        entries.put(new Key(searchMode, search, doctorIds), new Entry(count, System.nanoTime()));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private static final class Entry {
+        private final long count;
+        private final long createdAt;
+
+        private Entry(long count, long createdAt) {
+            this.count = count;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private static final class Key {
+        private final SearchMode searchMode;
+        private final String search;
+        private final List<Long> doctorIds;
+
+        private Key(SearchMode searchMode, String search, List<Long> doctorIds) {
+            this.searchMode = searchMode;
+            this.search = search;
+            List<Long> sorted = doctorIds != null ? new ArrayList<>(doctorIds) : new ArrayList<>();
+            sorted.sort(null);
+            this.doctorIds = sorted;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return searchMode == key.searchMode && Objects.equals(search, key.search)
+                    && doctorIds.equals(key.doctorIds);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(searchMode, search, doctorIds);
+        }
+    }
+}
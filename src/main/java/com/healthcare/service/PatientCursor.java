@@ -0,0 +1,39 @@
+package com.healthcare.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for the patients list. Encodes the id of the last patient
+ * returned, which is the sort key of every patients list query.
+ */
+public final class PatientCursor {
+
+    private static final String PREFIX = "p:";
+
+    private PatientCursor() {}
+
+    public static String encode(long lastPatientId) {
+        byte[] raw = (PREFIX + lastPatientId).getBytes(StandardCharsets.US_ASCII);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    /**
+     * @return the last patient id of the previous page, or 0 for a blank cursor
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.US_ASCII);
+            if (!raw.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return Long.parseLong(raw.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            // Also covers malformed Base64 and NumberFormatException
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
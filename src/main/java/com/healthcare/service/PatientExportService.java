@@ -0,0 +1,157 @@
+package com.healthcare.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.dto.DoctorResponse;
+import com.healthcare.dto.ExportFormat;
+import com.healthcare.dto.LastVisitResponse;
+import com.healthcare.dto.PatientVisitResponse;
+import com.healthcare.repository.PatientRepository;
+import com.healthcare.repository.projection.PatientSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Exports every patient with their per-doctor last visits in a single pass. Patients
+ * are read from a forward-only stream in id order and completed in fixed-size
+ * chunks, so memory use does not depend on the number of patients.
+ */
+@Service
+@Transactional(readOnly = true)
+public class PatientExportService {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private static final String CSV_HEADER = "firstName,lastName,visitStart,visitEnd," +
+            "doctorFirstName,doctorLastName,doctorTotalPatients";
+
+    private final PatientRepository patientRepository;
+    private final PatientService patientService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public PatientExportService(PatientRepository patientRepository,
+                                PatientService patientService,
+                                ObjectMapper objectMapper) {
+        this.patientRepository = patientRepository;
+        this.patientService = patientService;
+        this.objectMapper = objectMapper;
+    }
+
+    public void export(ExportFormat format, OutputStream output) throws IOException {
+        if (format == ExportFormat.CSV) {
+            exportCsv(output);
+        } else {
+            exportNdjson(output);
+        }
+    }
+
+    private void exportNdjson(OutputStream output) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(output);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+
+        forEachChunk(patients -> {
+            for (PatientVisitResponse patient : patients) {
+                generator.writeObject(patient);
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        });
+        generator.close();
+    }
+
+    private void exportCsv(OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+
+        forEachChunk(patients -> {
+            for (PatientVisitResponse patient : patients) {
+                if (patient.getLastVisits().isEmpty()) {
+                    writeCsvRow(writer, patient, null);
+                }
+                for (LastVisitResponse visit : patient.getLastVisits()) {
+                    writeCsvRow(writer, patient, visit);
+                }
+            }
+            writer.flush();
+        });
+    }
+
+    private void forEachChunk(ChunkWriter chunkWriter) throws IOException {
+        List<PatientSummary> chunk = new ArrayList<>(CHUNK_SIZE);
+        try (Stream<PatientSummary> patients = patientRepository.streamAllSummaries()) {
+            Iterator<PatientSummary> iterator = patients.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == CHUNK_SIZE) {
+                    chunkWriter.write(patientService.buildPatientResponses(chunk));
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunkWriter.write(patientService.buildPatientResponses(chunk));
+        }
+    }
+
+    private static void writeCsvRow(Writer writer, PatientVisitResponse patient, LastVisitResponse visit)
+            throws IOException {
+        writeCsvField(writer, patient.getFirstName());
+        writer.write(',');
+        writeCsvField(writer, patient.getLastName());
+        writer.write(',');
+        if (visit != null) {
+            DoctorResponse doctor = visit.getDoctor();
+            writeCsvField(writer, visit.getStart());
+            writer.write(',');
+            writeCsvField(writer, visit.getEnd());
+            writer.write(',');
+            writeCsvField(writer, doctor.getFirstName());
+            writer.write(',');
+            writeCsvField(writer, doctor.getLastName());
+            writer.write(',');
+            writer.write(String.valueOf(doctor.getTotalPatients()));
+        } else {
+            writer.write(",,,,");
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180: quote fields containing separators, quotes or line breaks, doubling quotes
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter {
+        void write(List<PatientVisitResponse> patients) throws IOException;
+    }
+}
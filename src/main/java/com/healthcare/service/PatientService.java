@@ -1,131 +1,508 @@
 package com.healthcare.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.healthcare.dto.*;
-import com.healthcare.entity.Doctor;
-import com.healthcare.entity.Patient;
-import com.healthcare.entity.Visit;
-import com.healthcare.repository.DoctorRepository;
+import com.healthcare.repository.PatientDoctorLastVisitRepository;
 import com.healthcare.repository.PatientRepository;
-import com.healthcare.repository.VisitRepository;
+import com.healthcare.repository.projection.LastVisitView;
+import com.healthcare.repository.projection.PatientSummary;
+import com.healthcare.search.NameNormalizer;
+import com.healthcare.search.PatientNameIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
+import java.io.IOException;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
 public class PatientService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    // Patients assembled and written per last-visit query in streaming mode
+    private static final int STREAM_CHUNK_SIZE = 200;
+
     private final PatientRepository patientRepository;
-    private final VisitRepository visitRepository;
-    private final DoctorRepository doctorRepository;
+    private final PatientDoctorLastVisitRepository lastVisitRepository;
+    private final PatientCountCache countCache;
+    private final PatientsListCache resultCache;
+    private final PatientNameIndex nameIndex;
+    private final TimeZoneConverter timeZoneConverter;
+    private final ParallelQueryExecutor queryExecutor;
+    private final TransactionTemplate readOnlyTransaction;
 
     @Autowired
     public PatientService(PatientRepository patientRepository,
-                          VisitRepository visitRepository,
-                          DoctorRepository doctorRepository) {
+                          PatientDoctorLastVisitRepository lastVisitRepository,
+                          PatientCountCache countCache,
+                          PatientsListCache resultCache,
+                          PatientNameIndex nameIndex,
+                          TimeZoneConverter timeZoneConverter,
+                          ParallelQueryExecutor queryExecutor,
+                          PlatformTransactionManager transactionManager) {
         this.patientRepository = patientRepository;
-        this.visitRepository = visitRepository;
-        this.doctorRepository = doctorRepository;
+        this.lastVisitRepository = lastVisitRepository;
+        this.countCache = countCache;
+        this.resultCache = resultCache;
+        this.nameIndex = nameIndex;
+        this.timeZoneConverter = timeZoneConverter;
+        this.queryExecutor = queryExecutor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
     public PatientsListResponse getPatientsList(Integer page, Integer size, String search, List<Long> doctorIds) {
+        return getPatientsList(new PatientsListRequest(page, size, search, doctorIds));
+    }
+
+    /**
+     * Answered from {@link PatientsListCache} when possible; only a miss opens a transaction.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public PatientsListResponse getPatientsList(PatientsListRequest request) {
+        PatientsListResponse cached = resultCache.get(request);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Stamp before querying so that a visit committed meanwhile keeps the result out of the cache
+        long stamp = resultCache.stamp();
+        PatientsListCache.Dependencies dependencies = new PatientsListCache.Dependencies();
+        PatientsListResponse response = readOnlyTransaction.execute(status -> loadPatientsList(request, dependencies));
+        resultCache.put(request, response, dependencies, stamp);
+        return response;
+    }
+
+    private PatientsListResponse loadPatientsList(PatientsListRequest request, PatientsListCache.Dependencies dependencies) {
+        // Name-only searches are answered by the in-memory index when it can handle the term
+        if (!request.hasDoctorFilter() && !request.isPrefixSearch()) {
+            long[] matchingIds = nameIndex.search(request.getSearch());
+            PatientsListResponse indexed = matchingIds != null
+                    ? getPatientsListFromIndex(request, matchingIds, dependencies) : null;
+            if (indexed != null) {
+                return indexed;
+            }
+        }
+
+        if (request.isCursorMode()) {
+            return getPatientsListAfterCursor(request, dependencies);
+        }
+
         // Set default values
+        Integer page = request.getPage();
         int pageNumber = (page != null && page > 0) ? page - 1 : 0;
-        int pageSize = (size != null && size > 0) ? size : 20;
+        int pageSize = pageSize(request);
+
+        // Sort by id so that consecutive pages never overlap
+        Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by("id"));
+        CountMode countMode = request.getEffectiveCountMode();
+        ParallelQueryExecutor.Branch<Long> countBranch = countInParallel(request, countMode);
+
+        if (countMode == CountMode.EXACT && countBranch == null) {
+            // Page query together with its count query
+            Page<PatientSummary> patientsPage = findPage(request, pageable);
 
-        Pageable pageable = PageRequest.of(pageNumber, pageSize);
-        Page<Patient> patientsPage;
+            PatientsListResponse response = new PatientsListResponse(
+                    buildPatientResponses(patientsPage.getContent(), dependencies), patientsPage.getTotalElements());
+            response.setCountExact(true);
+            putCount(request, patientsPage.getTotalElements());
+            return response;
+        }
+
+        // Slice queries fetch one extra row instead of counting
+        List<PatientVisitResponse> data;
+        try {
+            data = buildPatientResponses(findSlice(request, pageable).getContent(), dependencies);
+        } catch (RuntimeException e) {
+            cancel(countBranch);
+            throw e;
+        }
+
+        PatientsListResponse response = new PatientsListResponse(data, null);
+        applyCount(response, request, countMode, countBranch);
+        return response;
+    }
+
+    private PatientsListResponse getPatientsListAfterCursor(PatientsListRequest request,
+                                                            PatientsListCache.Dependencies dependencies) {
+        long afterId = PatientCursor.decode(request.getCursor());
+        int pageSize = pageSize(request);
+        CountMode countMode = request.getEffectiveCountMode();
+        ParallelQueryExecutor.Branch<Long> countBranch = countInParallel(request, countMode);
 
-        // Get patients based on filters
-        if (doctorIds != null && !doctorIds.isEmpty()) {
-            patientsPage = patientRepository.findBySearchAndDoctorIds(search, doctorIds, pageable);
+        String nextCursor = null;
+        List<PatientVisitResponse> data;
+        try {
+            // Fetch one extra row to find out whether another page exists, no count query
+            List<PatientSummary> patients = findAfter(request, afterId, PageRequest.of(0, pageSize + 1));
+            if (patients.size() > pageSize) {
+                patients = patients.subList(0, pageSize);
+                nextCursor = PatientCursor.encode(patients.get(pageSize - 1).getId());
+            }
+            data = buildPatientResponses(patients, dependencies);
+        } catch (RuntimeException e) {
+            cancel(countBranch);
+            throw e;
+        }
+
+        PatientsListResponse response = new PatientsListResponse(data, null, nextCursor);
+        applyCount(response, request, countMode, countBranch);
+        return response;
+    }
+
+    /**
+     * Writes the same JSON document as {@link #getPatientsList(PatientsListRequest)},
+     * emitting each patient as soon as its chunk is assembled. Patients are read from a
+     * forward-only stream, so memory stays bounded by the chunk size whatever the page
+     * size. The transaction stays open until the last patient is written.
+     *
+     * <p>The cursor and count are resolved before anything is written, so request errors
+     * still produce a regular error response.
+     */
+    public void writePatientsList(PatientsListRequest request, JsonGenerator generator) throws IOException {
+        long afterId = request.isCursorMode() ? PatientCursor.decode(request.getCursor()) : 0;
+        int pageSize = pageSize(request);
+        long[] matchingIds = (request.hasDoctorFilter() || request.isPrefixSearch())
+                ? null : nameIndex.search(request.getSearch());
+
+        PatientsListResponse totals = new PatientsListResponse(null, null);
+        if (matchingIds != null) {
+            if (request.getEffectiveCountMode() != CountMode.NONE) {
+                totals.setCount((long) matchingIds.length);
+                totals.setCountExact(true);
+            }
         } else {
-            patientsPage = patientRepository.findBySearchCriteria(search, pageable);
+            applyCount(totals, request, request.getEffectiveCountMode());
         }
 
-        List<Patient> patients = patientsPage.getContent();
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("data");
+
+        String nextCursor;
+        if (matchingIds != null) {
+            nextCursor = writeIndexedPatients(request, matchingIds, afterId, pageSize, generator);
+        } else {
+            nextCursor = writeStreamedPatients(request, afterId, pageSize, generator);
+        }
+
+        generator.writeEndArray();
+        if (totals.getCount() != null) {
+            generator.writeNumberField("count", totals.getCount());
+            generator.writeBooleanField("countExact", totals.getCountExact());
+        }
+        if (nextCursor != null) {
+            generator.writeStringField("nextCursor", nextCursor);
+        }
+        generator.writeEndObject();
+        generator.flush();
+    }
+
+    private String writeStreamedPatients(PatientsListRequest request, long afterId, int pageSize,
+                                         JsonGenerator generator) throws IOException {
+        Pageable limit;
+        if (request.isCursorMode()) {
+            // One extra row tells whether another page exists
+            limit = PageRequest.of(0, pageSize + 1);
+        } else {
+            Integer page = request.getPage();
+            limit = PageRequest.of((page != null && page > 0) ? page - 1 : 0, pageSize);
+        }
+
+        List<PatientSummary> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+        int written = 0;
+        Long lastId = null;
+        boolean hasMore = false;
+        try (Stream<PatientSummary> patients = streamAfter(request, afterId, limit)) {
+            Iterator<PatientSummary> iterator = patients.iterator();
+            while (iterator.hasNext()) {
+                PatientSummary patient = iterator.next();
+                if (written == pageSize) {
+                    hasMore = true;
+                    break;
+                }
+                chunk.add(patient);
+                written++;
+                lastId = patient.getId();
+                if (chunk.size() == STREAM_CHUNK_SIZE) {
+                    writeChunk(chunk, generator);
+                }
+            }
+        }
+        writeChunk(chunk, generator);
+
+        return request.isCursorMode() && hasMore ? PatientCursor.encode(lastId) : null;
+    }
+
+    private String writeIndexedPatients(PatientsListRequest request, long[] matchingIds, long afterId, int pageSize,
+                                        JsonGenerator generator) throws IOException {
+        int from = indexPageStart(request, matchingIds, afterId, pageSize);
+        int to = Math.min(from + pageSize, matchingIds.length);
+
+        for (int chunkStart = from; chunkStart < to; chunkStart += STREAM_CHUNK_SIZE) {
+            List<Long> chunkIds = new ArrayList<>(STREAM_CHUNK_SIZE);
+            for (int i = chunkStart; i < Math.min(chunkStart + STREAM_CHUNK_SIZE, to); i++) {
+                chunkIds.add(matchingIds[i]);
+            }
+            List<PatientSummary> chunk = new ArrayList<>(patientRepository.findSummariesByIds(chunkIds));
+            chunk.sort(Comparator.comparing(PatientSummary::getId));
+            writeChunk(chunk, generator);
+        }
+
+        return request.isCursorMode() && to < matchingIds.length ? PatientCursor.encode(matchingIds[to - 1]) : null;
+    }
+
+    private void writeChunk(List<PatientSummary> chunk, JsonGenerator generator) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        for (PatientVisitResponse patient : buildPatientResponses(chunk)) {
+            generator.writeObject(patient);
+        }
+        generator.flush();
+        chunk.clear();
+    }
+
+    /**
+     * @return the page of the indexed matches, or null if some of them are no longer
+     * stored, so that the count would not agree with the page
+     */
+    private PatientsListResponse getPatientsListFromIndex(PatientsListRequest request, long[] matchingIds,
+                                                          PatientsListCache.Dependencies dependencies) {
+        int pageSize = pageSize(request);
+
+        long afterId = request.isCursorMode() ? PatientCursor.decode(request.getCursor()) : 0;
+        int from = indexPageStart(request, matchingIds, afterId, pageSize);
+        int to = Math.min(from + pageSize, matchingIds.length);
+
+        List<Long> pageIds = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            pageIds.add(matchingIds[i]);
+        }
+
+        List<PatientSummary> patients = new ArrayList<>();
+        if (!pageIds.isEmpty()) {
+            patients.addAll(patientRepository.findSummariesByIds(pageIds));
+            if (patients.size() < pageIds.size()) {
+                // Deleted since the index was read; the database answers this request
+                return null;
+            }
+            patients.sort(Comparator.comparing(PatientSummary::getId));
+        }
+
+        String nextCursor = null;
+        if (request.isCursorMode() && to < matchingIds.length) {
+            nextCursor = PatientCursor.encode(matchingIds[to - 1]);
+        }
+
+        PatientsListResponse response = new PatientsListResponse(
+                buildPatientResponses(patients, dependencies), null, nextCursor);
+        if (request.getEffectiveCountMode() != CountMode.NONE) {
+            // The index yields the exact total for free
+            response.setCount((long) matchingIds.length);
+            response.setCountExact(true);
+        }
+        return response;
+    }
+
+    private int indexPageStart(PatientsListRequest request, long[] matchingIds, long afterId, int pageSize) {
+        // Ids are sorted ascending, matching the id order of the database queries
+        if (request.isCursorMode()) {
+            int position = Arrays.binarySearch(matchingIds, afterId);
+            return position >= 0 ? position + 1 : -position - 1;
+        }
+        Integer page = request.getPage();
+        long pageNumber = (page != null && page > 0) ? page - 1 : 0;
+        return (int) Math.min(pageNumber * pageSize, matchingIds.length);
+    }
+
+    /**
+     * Starts the count query on the query executor when the response needs one, so it
+     * overlaps with the page and last-visit queries of the calling thread.
+     *
+     * @return the running count, or null to count sequentially in {@link #applyCount},
+     * also when the executor has no branch slot free
+     */
+    private ParallelQueryExecutor.Branch<Long> countInParallel(PatientsListRequest request, CountMode countMode) {
+        if (!queryExecutor.isEnabled() || countMode == CountMode.NONE) {
+            return null;
+        }
+        if (countMode == CountMode.ESTIMATED
+                && countCache.get(request.getEffectiveSearchMode(), request.getSearch(), request.getDoctorIds()) != null) {
+            return null;
+        }
+        return queryExecutor.submit("patients count", () -> count(request));
+    }
+
+    private void applyCount(PatientsListResponse response, PatientsListRequest request, CountMode countMode,
+                            ParallelQueryExecutor.Branch<Long> countBranch) {
+        if (countBranch == null) {
+            applyCount(response, request, countMode);
+            return;
+        }
+
+        long count = countBranch.join();
+        putCount(request, count);
+        response.setCount(count);
+        response.setCountExact(true);
+    }
+
+    private static void cancel(ParallelQueryExecutor.Branch<?> branch) {
+        if (branch != null) {
+            branch.cancel();
+        }
+    }
+
+    private void applyCount(PatientsListResponse response, PatientsListRequest request, CountMode countMode) {
+        if (countMode == CountMode.NONE) {
+            return;
+        }
+
+        if (countMode == CountMode.ESTIMATED) {
+            Long cached = countCache.get(request.getEffectiveSearchMode(), request.getSearch(), request.getDoctorIds());
+            if (cached != null) {
+                response.setCount(cached);
+                response.setCountExact(false);
+                return;
+            }
+        }
+
+        long count = count(request);
+        putCount(request, count);
+        response.setCount(count);
+        response.setCountExact(true);
+    }
+
+    private void putCount(PatientsListRequest request, long count) {
+        countCache.put(request.getEffectiveSearchMode(), request.getSearch(), request.getDoctorIds(), count);
+    }
+
+    private Page<PatientSummary> findPage(PatientsListRequest request, Pageable pageable) {
+        if (request.isPrefixSearch()) {
+            String prefix = NameNormalizer.likePrefix(request.getSearch());
+            return request.hasDoctorFilter()
+                    ? patientRepository.findByNamePrefixAndDoctorIds(prefix, request.getDoctorIds(), pageable)
+                    : patientRepository.findByNamePrefix(prefix, pageable);
+        }
+        return request.hasDoctorFilter()
+                ? patientRepository.findBySearchAndDoctorIds(request.getSearch(), request.getDoctorIds(), pageable)
+                : patientRepository.findBySearchCriteria(request.getSearch(), pageable);
+    }
+
+    private Slice<PatientSummary> findSlice(PatientsListRequest request, Pageable pageable) {
+        if (request.isPrefixSearch()) {
+            String prefix = NameNormalizer.likePrefix(request.getSearch());
+            return request.hasDoctorFilter()
+                    ? patientRepository.findSliceByNamePrefixAndDoctorIds(prefix, request.getDoctorIds(), pageable)
+                    : patientRepository.findSliceByNamePrefix(prefix, pageable);
+        }
+        return request.hasDoctorFilter()
+                ? patientRepository.findSliceBySearchAndDoctorIds(request.getSearch(), request.getDoctorIds(), pageable)
+                : patientRepository.findSliceBySearchCriteria(request.getSearch(), pageable);
+    }
+
+    private List<PatientSummary> findAfter(PatientsListRequest request, long afterId, Pageable limit) {
+        if (request.isPrefixSearch()) {
+            String prefix = NameNormalizer.likePrefix(request.getSearch());
+            return request.hasDoctorFilter()
+                    ? patientRepository.findByNamePrefixAndDoctorIdsAfter(prefix, request.getDoctorIds(), afterId, limit)
+                    : patientRepository.findByNamePrefixAfter(prefix, afterId, limit);
+        }
+        return request.hasDoctorFilter()
+                ? patientRepository.findBySearchAndDoctorIdsAfter(request.getSearch(), request.getDoctorIds(), afterId, limit)
+                : patientRepository.findBySearchCriteriaAfter(request.getSearch(), afterId, limit);
+    }
+
+    private Stream<PatientSummary> streamAfter(PatientsListRequest request, long afterId, Pageable limit) {
+        if (request.isPrefixSearch()) {
+            String prefix = NameNormalizer.likePrefix(request.getSearch());
+            return request.hasDoctorFilter()
+                    ? patientRepository.streamByNamePrefixAndDoctorIdsAfter(prefix, request.getDoctorIds(), afterId, limit)
+                    : patientRepository.streamByNamePrefixAfter(prefix, afterId, limit);
+        }
+        return request.hasDoctorFilter()
+                ? patientRepository.streamBySearchAndDoctorIdsAfter(request.getSearch(), request.getDoctorIds(), afterId, limit)
+                : patientRepository.streamBySearchCriteriaAfter(request.getSearch(), afterId, limit);
+    }
+
+    private long count(PatientsListRequest request) {
+        if (request.isPrefixSearch()) {
+            String prefix = NameNormalizer.likePrefix(request.getSearch());
+            return request.hasDoctorFilter()
+                    ? patientRepository.countByNamePrefixAndDoctorIds(prefix, request.getDoctorIds())
+                    : patientRepository.countByNamePrefix(prefix);
+        }
+        return request.hasDoctorFilter()
+                ? patientRepository.countBySearchAndDoctorIds(request.getSearch(), request.getDoctorIds())
+                : patientRepository.countBySearchCriteria(request.getSearch());
+    }
+
+    private int pageSize(PatientsListRequest request) {
+        Integer size = request.getSize();
+        return (size != null && size > 0) ? size : DEFAULT_PAGE_SIZE;
+    }
+
+    List<PatientVisitResponse> buildPatientResponses(List<PatientSummary> patients) {
+        return buildPatientResponses(patients, null);
+    }
+
+    private List<PatientVisitResponse> buildPatientResponses(List<PatientSummary> patients,
+                                                             PatientsListCache.Dependencies dependencies) {
         List<Long> patientIds = patients.stream()
-                .map(Patient::getId)
+                .map(PatientSummary::getId)
                 .collect(Collectors.toList());
 
-        // Get all visits for these patients
-        List<Visit> allVisits = new ArrayList<>();
+        // Latest visit per doctor with doctor columns and patient totals, in a single projection query
+        List<LastVisitView> lastVisits = new ArrayList<>();
         if (!patientIds.isEmpty()) {
-            allVisits = visitRepository.findLastVisitsByPatients(patientIds);
-        }
-
-        // Group visits by patient and doctor
-        Map<Long, Map<Long, Visit>> patientDoctorVisits = allVisits.stream()
-                .collect(Collectors.groupingBy(
-                        visit -> visit.getPatient().getId(),
-                        Collectors.toMap(
-                                visit -> visit.getDoctor().getId(),
-                                visit -> visit,
-                                (existing, replacement) ->
-                                        existing.getStartDateTime().isAfter(replacement.getStartDateTime()) ?
-                                                existing : replacement
-                        )
-                ));
-
-        // Get doctor total patients count
-        Set<Long> allDoctorIds = allVisits.stream()
-                .map(visit -> visit.getDoctor().getId())
-                .collect(Collectors.toSet());
-
-        Map<Long, Long> doctorPatientCounts = new HashMap<>();
-        if (!allDoctorIds.isEmpty()) {
-            List<Object[]> counts = doctorRepository.countDistinctPatientsByDoctorIds(new ArrayList<>(allDoctorIds));
-            for (Object[] count : counts) {
-                doctorPatientCounts.put((Long) count[0], (Long) count[1]);
-            }
+            lastVisits = lastVisitRepository.findViewsByPatientIds(patientIds);
+        }
+
+        // Group visits by patient, keeping the newest-first order of the query
+        Map<Long, List<LastVisitView>> patientLastVisits = lastVisits.stream()
+                .collect(Collectors.groupingBy(LastVisitView::getPatientId));
+
+        if (dependencies != null) {
+            patientIds.forEach(dependencies::addPatient);
+            lastVisits.forEach(visit -> dependencies.addVisit(visit.getDoctorId()));
         }
 
         // Build response
-        List<PatientVisitResponse> responseData = patients.stream()
+        return patients.stream()
                 .map(patient -> {
-                    Map<Long, Visit> doctorVisits = patientDoctorVisits.getOrDefault(patient.getId(), new HashMap<>());
-
-                    List<LastVisitResponse> lastVisits = doctorVisits.values().stream()
-                            .sorted((v1, v2) -> v2.getStartDateTime().compareTo(v1.getStartDateTime()))
+                    List<LastVisitResponse> patientVisits = patientLastVisits.getOrDefault(patient.getId(), List.of())
+                            .stream()
                             .map(visit -> {
-                                Doctor doctor = visit.getDoctor();
-
                                 // Convert datetime to doctor's timezone
-                                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
-                                ZoneId doctorTimezone = ZoneId.of(doctor.getTimezone());
-
-                                String startFormatted = visit.getStartDateTime()
-                                        .atZone(ZoneId.systemDefault())
-                                        .withZoneSameInstant(doctorTimezone)
-                                        .format(formatter);
-
-                                String endFormatted = visit.getEndDateTime()
-                                        .atZone(ZoneId.systemDefault())
-                                        .withZoneSameInstant(doctorTimezone)
-                                        .format(formatter);
+                                String startFormatted = timeZoneConverter.format(
+                                        visit.getStartDateTime(), visit.getDoctorTimezone());
+                                String endFormatted = timeZoneConverter.format(
+                                        visit.getEndDateTime(), visit.getDoctorTimezone());
 
+                                Long totalPatients = visit.getDoctorTotalPatients();
                                 DoctorResponse doctorResponse = new DoctorResponse(
-                                        doctor.getFirstName(),
-                                        doctor.getLastName(),
-                                        doctorPatientCounts.getOrDefault(doctor.getId(), 0L).intValue()
+                                        visit.getDoctorFirstName(),
+                                        visit.getDoctorLastName(),
+                                        totalPatients != null ? totalPatients.intValue() : 0
                                 );
 
                                 return new LastVisitResponse(startFormatted, endFormatted, doctorResponse);
                             })
                             .collect(Collectors.toList());
 
-                    return new PatientVisitResponse(patient.getFirstName(), patient.getLastName(), lastVisits);
+                    return new PatientVisitResponse(patient.getFirstName(), patient.getLastName(), patientVisits);
                 })
                 .collect(Collectors.toList());
-
-        return new PatientsListResponse(responseData, patientsPage.getTotalElements());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,231 @@
+package com.healthcare.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.healthcare.dto.CountMode;
+import com.healthcare.dto.PatientsListRequest;
+import com.healthcare.dto.PatientsListResponse;
+import com.healthcare.dto.SearchMode;
+import com.healthcare.entity.Visit;
+import com.healthcare.event.EntityChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of whole patients list responses, keyed by every request parameter.
+ * Eviction is size-aware (one unit per patient and per last visit) with Caffeine's
+ * TinyLFU policy, and entries expire after a fixed TTL.
+ *
+ * <p>Each entry remembers the patients and doctors it shows. A committed visit drops
+ * only the entries that show its patient or doctor or filter by its doctor; any other
+ * write to patients or doctors drops everything. Responses computed while an
+ * invalidation happened are not stored, so a slow reader cannot put back data older
+ * than the write. Other application instances only see the change after the TTL.
+ */
+@Component
+public class PatientsListCache {
+
+    private final boolean enabled;
+    private final Cache<Key, Entry> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public PatientsListCache(@Value("${app.patients-list.result-cache.enabled:true}") boolean enabled,
+                             @Value("${app.patients-list.result-cache.ttl:PT30S}") Duration ttl,
+                             @Value("${app.patients-list.result-cache.max-weight:200000}") long maxWeight,
+                             MeterRegistry meterRegistry) {
+        this(enabled, ttl, maxWeight, Ticker.systemTicker(), ForkJoinPool.commonPool());
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "patients-list");
+    }
+
+    PatientsListCache(boolean enabled, Duration ttl, long maxWeight, Ticker ticker, Executor executor) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Key key, Entry entry) -> entry.weight)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .executor(executor)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @return the cached response, or null if absent, expired or the cache is disabled
+     */
+    public PatientsListResponse get(PatientsListRequest request) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = cache.getIfPresent(new Key(request));
+        return entry != null ? entry.response : null;
+    }
+
+    /**
+     * To be taken before the queries of a response that is later passed to {@link #put}.
+     */
+    public long stamp() {
+        return generation.get();
+    }
+
+    public void put(PatientsListRequest request, PatientsListResponse response, Dependencies dependencies, long stamp) {
+        if (!enabled || generation.get() != stamp) {
+            return;
+        }
+        Key key = new Key(request);
+        Entry entry = new Entry(response, dependencies);
+        cache.put(key, entry);
+        // An invalidation that ran between the check and the put may have missed the entry
+        if (generation.get() != stamp) {
+            cache.asMap().remove(key, entry);
+        }
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.getEntity() instanceof Visit visit && visit.getPatient() != null && visit.getDoctor() != null) {
+            Long patientId = visit.getPatient().getId();
+            Long doctorId = visit.getDoctor().getId();
+            afterCommit(() -> invalidateVisit(patientId, doctorId));
+        } else {
+            invalidateAllAfterCommit();
+        }
+    }
+
+    /**
+     * For bulk writes: drops everything once the current transaction commits.
+     */
+    public void invalidateAllAfterCommit() {
+        afterCommit(this::invalidateAll);
+    }
+
+    /**
+     * Drops the entries a new or changed visit of the patient with the doctor can affect.
+     */
+    public void invalidateVisit(Long patientId, Long doctorId) {
+        generation.incrementAndGet();
+        cache.asMap().entrySet().removeIf(e ->
+                e.getKey().doctorIds.contains(doctorId) || e.getValue().involves(patientId, doctorId));
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    void cleanUp() {
+        cache.cleanUp();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Patients and doctors shown in a response, collected while it is built.
+     */
+    public static final class Dependencies {
+        private final Set<Long> patientIds = new HashSet<>();
+        private final Set<Long> doctorIds = new HashSet<>();
+        private int visits;
+
+        public void addPatient(Long patientId) {
+            patientIds.add(patientId);
+        }
+
+        public void addVisit(Long doctorId) {
+            doctorIds.add(doctorId);
+            visits++;
+        }
+    }
+
+    private static final class Entry {
+        private final PatientsListResponse response;
+        private final Set<Long> patientIds;
+        private final Set<Long> doctorIds;
+        private final int weight;
+
+        private Entry(PatientsListResponse response, Dependencies dependencies) {
+            this.response = response;
+            this.patientIds = dependencies.patientIds;
+            this.doctorIds = dependencies.doctorIds;
+            this.weight = 1 + dependencies.patientIds.size() + dependencies.visits;
+        }
+
+        private boolean involves(Long patientId, Long doctorId) {
+            return patientIds.contains(patientId) || doctorIds.contains(doctorId);
+        }
+    }
+
+    private static final class Key {
+        private final Integer page;
+        private final Integer size;
+        private final String search;
+        private final SearchMode searchMode;
+        private final List<Long> doctorIds;
+        private final String cursor;
+        private final CountMode countMode;
+
+        private Key(PatientsListRequest request) {
+            this.page = request.getPage();
+            this.size = request.getSize();
+            this.search = request.getSearch();
+            this.searchMode = request.getEffectiveSearchMode();
+            List<Long> sorted = request.getDoctorIds() != null ? new ArrayList<>(request.getDoctorIds()) : new ArrayList<>();
+            sorted.sort(null);
+            this.doctorIds = sorted;
+            this.cursor = request.getCursor();
+            this.countMode = request.getEffectiveCountMode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return Objects.equals(page, key.page) && Objects.equals(size, key.size)
+                    && Objects.equals(search, key.search) && searchMode == key.searchMode
+                    && doctorIds.equals(key.doctorIds) && Objects.equals(cursor, key.cursor)
+                    && countMode == key.countMode;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(page, size, search, searchMode, doctorIds, cursor, countMode);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.healthcare.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Converts between the storage time zone (the JVM default, in which visit times are
+ * persisted) and doctors' time zones, formatting and parsing {@code yyyy-MM-dd'T'HH:mm:ss}.
+ *
+ * <p>Zones are resolved once per id together with their offset transitions from 1900
+ * to 2100, so a conversion is a binary search over those instead of a rules lookup,
+ * whichever DST period it falls into. Values are formatted and parsed by hand into a per-thread buffer; anything
+ * the fast paths do not cover (dates near a transition, years outside 1-9999,
+ * malformed input) goes through {@link ZonedDateTime} and the original formatter.
+ */
+@Component
+public class TimeZoneConverter {
+
+    static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private static final int TEXT_LENGTH = 19;
+    private static final long SECONDS_PER_DAY = 86_400;
+    // Wider than the largest difference between two offsets (+18:00 / -18:00)
+    private static final long TRANSITION_MARGIN_SECONDS = 2 * SECONDS_PER_DAY;
+
+    private final ZoneState storageZone;
+    private final Map<String, ZoneState> zones = new ConcurrentHashMap<>();
+    private final ThreadLocal<char[]> buffers = ThreadLocal.withInitial(() -> new char[TEXT_LENGTH]);
+
+    @Autowired
+    public TimeZoneConverter() {
+        this(ZoneId.systemDefault());
+    }
+
+    TimeZoneConverter(ZoneId storageZone) {
+        this.storageZone = new ZoneState(storageZone);
+    }
+
+    /**
+     * Formats a stored visit time as wall-clock time in {@code timezone}.
+     */
+    public String format(LocalDateTime storageDateTime, String timezone) {
+        long epochSecond = storageZone.toEpochSecond(storageDateTime.toEpochSecond(ZoneOffset.UTC));
+        long localSecond = epochSecond + zone(timezone).offsetAt(epochSecond);
+        return formatLocalSecond(localSecond);
+    }
+
+    /**
+     * Parses wall-clock time in {@code timezone} into a storage time.
+     */
+    public LocalDateTime parse(String text, String timezone) {
+        long localSecond = parseLocalSecond(text);
+        if (localSecond == Long.MIN_VALUE) {
+            localSecond = LocalDateTime.parse(text, FORMATTER).toEpochSecond(ZoneOffset.UTC);
+        }
+        long epochSecond = zone(timezone).toEpochSecond(localSecond);
+        return LocalDateTime.ofEpochSecond(epochSecond + storageZone.offsetAt(epochSecond), 0, ZoneOffset.UTC);
+    }
+
+    public ZoneId zoneId(String timezone) {
+        return zone(timezone).zoneId;
+    }
+
+    private ZoneState zone(String timezone) {
+        ZoneState state = zones.get(timezone);
+        if (state == null) {
+            // ZoneId.of rejects unknown ids before anything is cached
+            state = zones.computeIfAbsent(timezone, id -> new ZoneState(ZoneId.of(id)));
+        }
+        return state;
+    }
+
+    private String formatLocalSecond(long localSecond) {
+        long epochDay = Math.floorDiv(localSecond, SECONDS_PER_DAY);
+        int secondOfDay = (int) Math.floorMod(localSecond, SECONDS_PER_DAY);
+
+        // Civil date from epoch day (proleptic Gregorian, days_from_civil inverse)
+        long z = epochDay + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        if (year < 1 || year > 9999) {
+            return FORMATTER.format(LocalDateTime.ofEpochSecond(localSecond, 0, ZoneOffset.UTC));
+        }
+
+        char[] buffer = buffers.get();
+        writeDigits(buffer, 0, (int) year, 4);
+        buffer[4] = '-';
+        writeDigits(buffer, 5, month, 2);
+        buffer[7] = '-';
+        writeDigits(buffer, 8, day, 2);
+        buffer[10] = 'T';
+        writeDigits(buffer, 11, secondOfDay / 3_600, 2);
+        buffer[13] = ':';
+        writeDigits(buffer, 14, secondOfDay / 60 % 60, 2);
+        buffer[16] = ':';
+        writeDigits(buffer, 17, secondOfDay % 60, 2);
+        return new String(buffer);
+    }
+
+    /**
+     * @return seconds since the epoch treating the text as UTC, or {@link Long#MIN_VALUE}
+     *         when the text is not a plain in-range {@code yyyy-MM-dd'T'HH:mm:ss} value
+     */
+    private static long parseLocalSecond(String text) {
+        if (text == null || text.length() != TEXT_LENGTH
+                || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T'
+                || text.charAt(13) != ':' || text.charAt(16) != ':') {
+            return Long.MIN_VALUE;
+        }
+        int year = readDigits(text, 0, 4);
+        int month = readDigits(text, 5, 2);
+        int day = readDigits(text, 8, 2);
+        int hour = readDigits(text, 11, 2);
+        int minute = readDigits(text, 14, 2);
+        int second = readDigits(text, 17, 2);
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return Long.MIN_VALUE;
+        }
+
+        // days_from_civil
+        int y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        long epochDay = era * 146_097 + dayOfEra - 719_468;
+        return epochDay * SECONDS_PER_DAY + hour * 3_600L + minute * 60L + second;
+    }
+
+    private static int readDigits(String text, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static void writeDigits(char[] buffer, int from, int value, int count) {
+        for (int i = from + count - 1; i >= from; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * A zone with its offsets precomputed from its rules: {@code offsets[i]} applies from
+     * {@code transitions[i - 1]} (inclusive) to {@code transitions[i]} (exclusive), for
+     * instants from {@link #TABLE_START} to {@link #TABLE_END}. Immutable, so threads
+     * converting instants in different DST periods do not disturb each other.
+     */
+    private static final class ZoneState {
+
+        // 1900-01-01T00:00:00Z and 2100-01-01T00:00:00Z
+        private static final long TABLE_START = -2_208_988_800L;
+        private static final long TABLE_END = 4_102_444_800L;
+
+        private final ZoneId zoneId;
+        private final ZoneRules rules;
+        private final long[] transitions;
+        private final int[] offsets;
+
+        private ZoneState(ZoneId zoneId) {
+            this.zoneId = zoneId;
+            this.rules = zoneId.getRules();
+
+            List<Long> instants = new ArrayList<>();
+            List<Integer> offsetList = new ArrayList<>();
+            Instant start = Instant.ofEpochSecond(TABLE_START);
+            offsetList.add(rules.getOffset(start).getTotalSeconds());
+            if (!rules.isFixedOffset()) {
+                ZoneOffsetTransition next = rules.nextTransition(start);
+                while (next != null && next.toEpochSecond() < TABLE_END) {
+                    instants.add(next.toEpochSecond());
+                    offsetList.add(next.getOffsetAfter().getTotalSeconds());
+                    next = rules.nextTransition(next.getInstant());
+                }
+            }
+            this.transitions = instants.stream().mapToLong(Long::longValue).toArray();
+            this.offsets = offsetList.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        int offsetAt(long epochSecond) {
+            if (epochSecond < TABLE_START || epochSecond >= TABLE_END) {
+                return rules.getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+            }
+            return offsets[periodOf(epochSecond)];
+        }
+
+        /**
+         * Resolves local wall-clock seconds to an instant, preferring the earlier offset
+         * in overlaps and shifting forward across gaps, like {@link ZonedDateTime#of}.
+         */
+        long toEpochSecond(long localSecond) {
+            if (localSecond - TABLE_START >= TRANSITION_MARGIN_SECONDS
+                    && TABLE_END - localSecond > TRANSITION_MARGIN_SECONDS) {
+                // Local and UTC seconds differ by less than the margin, so away from
+                // transitions both fall into the same period
+                int period = periodOf(localSecond);
+                long candidate = localSecond - offsets[period];
+                if ((period == 0 || candidate - transitions[period - 1] >= TRANSITION_MARGIN_SECONDS)
+                        && (period == transitions.length || transitions[period] - candidate > TRANSITION_MARGIN_SECONDS)) {
+                    return candidate;
+                }
+            }
+            LocalDateTime local = LocalDateTime.ofEpochSecond(localSecond, 0, ZoneOffset.UTC);
+            return ZonedDateTime.of(local, zoneId).toEpochSecond();
+        }
+
+        private int periodOf(long epochSecond) {
+            int index = Arrays.binarySearch(transitions, epochSecond);
+            // A transition instant already has the offset after it
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.CreateVisitRequest;
+import com.healthcare.dto.VisitBatchItemResult;
+import com.healthcare.entity.Doctor;
+import com.healthcare.entity.Visit;
+import com.healthcare.lock.DoctorLockManager;
+import com.healthcare.repository.PatientRepository;
+import com.healthcare.repository.VisitRepository;
+import com.healthcare.repository.projection.VisitInterval;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Creates many visits in one transaction with a fixed number of queries: one for
+ * the patients, at most one for doctors missing from {@link DoctorCache} and one for
+ * the doctors' visits in the time range of the batch. The visits and projection rows
+ * are then written with batched INSERTs.
+ *
+ * <p>Each item is accepted or rejected on its own with the same rules and messages
+ * as {@link VisitService#createVisit}. Items are first checked against the stored
+ * visits; of the remaining items of one doctor that conflict with each other, the
+ * one that starts first (then the one listed first) wins. The booking locks of all
+ * doctors in the batch are held until commit.
+ *
+ * <p>With the {@code slots} engine no locks are taken and the accepted visits claim
+ * their slots in one batch; if a concurrent booking took one of them meanwhile, the
+ * whole batch fails with the conflict message and can be retried.
+ */
+@Service
+@Transactional
+public class VisitBatchService {
+
+    static final String CONFLICT_MESSAGE = "Doctor has conflicting visit at this time";
+
+    private static final Comparator<Candidate> BY_START =
+            Comparator.comparing((Candidate c) -> c.start).thenComparingInt(c -> c.index);
+
+    private final VisitRepository visitRepository;
+    private final PatientRepository patientRepository;
+    private final DoctorCache doctorCache;
+    private final DoctorLockManager doctorLockManager;
+    private final DoctorSlotService doctorSlotService;
+    private final VisitProjectionService visitProjectionService;
+    private final TimeZoneConverter timeZoneConverter;
+
+    @Autowired
+    public VisitBatchService(VisitRepository visitRepository,
+                             PatientRepository patientRepository,
+                             DoctorCache doctorCache,
+                             DoctorLockManager doctorLockManager,
+                             DoctorSlotService doctorSlotService,
+                             VisitProjectionService visitProjectionService,
+                             TimeZoneConverter timeZoneConverter) {
+        this.visitRepository = visitRepository;
+        this.patientRepository = patientRepository;
+        this.doctorCache = doctorCache;
+        this.doctorLockManager = doctorLockManager;
+        this.doctorSlotService = doctorSlotService;
+        this.visitProjectionService = visitProjectionService;
+        this.timeZoneConverter = timeZoneConverter;
+    }
+
+    /**
+     * @return one result per request, in request order
+     */
+    public List<VisitBatchItemResult> createVisits(List<CreateVisitRequest> requests) {
+        if (!doctorSlotService.isEnabled()) {
+            // Same booking locks as single visits, before the first read of the transaction
+            Set<Long> doctorIds = new HashSet<>();
+            for (CreateVisitRequest request : requests) {
+                doctorIds.add(request.getDoctorId());
+            }
+            doctorLockManager.lockForTransaction(doctorIds);
+        }
+
+        VisitBatchItemResult[] results = new VisitBatchItemResult[requests.size()];
+        List<Candidate> candidates = validate(requests, results);
+
+        List<Candidate> accepted = new ArrayList<>();
+        if (!candidates.isEmpty()) {
+            rejectConflicts(candidates, loadExistingVisits(candidates), results);
+            for (Candidate candidate : candidates) {
+                if (results[candidate.index] == null) {
+                    accepted.add(candidate);
+                }
+            }
+        }
+
+        List<Visit> visits = new ArrayList<>(accepted.size());
+        for (Candidate candidate : accepted) {
+            visits.add(new Visit(candidate.start, candidate.end,
+                    patientRepository.getReferenceById(candidate.patientId), candidate.doctor));
+        }
+
+        if (!visits.isEmpty()) {
+            // Ids come from the pooled generator, so the INSERTs are batched at flush time
+            visitRepository.saveAll(visits);
+            if (doctorSlotService.isEnabled()) {
+                doctorSlotService.claim(visits);
+            }
+            visitProjectionService.recordVisits(visits);
+        }
+        for (int i = 0; i < accepted.size(); i++) {
+            Candidate candidate = accepted.get(i);
+            String timezone = candidate.doctor.getTimezone();
+            results[candidate.index] = VisitBatchItemResult.created(candidate.index, visits.get(i).getId(),
+                    timeZoneConverter.format(candidate.start, timezone), timeZoneConverter.format(candidate.end, timezone),
+                    timezone);
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Resolves patients and doctors for all items at once and parses their times.
+     * Items that fail are rejected in {@code results}.
+     */
+    private List<Candidate> validate(List<CreateVisitRequest> requests, VisitBatchItemResult[] results) {
+        Set<Long> patientIds = new HashSet<>();
+        Set<Long> doctorIds = new HashSet<>();
+        for (CreateVisitRequest request : requests) {
+            patientIds.add(request.getPatientId());
+            doctorIds.add(request.getDoctorId());
+        }
+        Set<Long> existingPatientIds = new HashSet<>(patientRepository.findExistingIds(patientIds));
+        Map<Long, Doctor> doctors = doctorCache.findAll(doctorIds);
+
+        List<Candidate> candidates = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            CreateVisitRequest request = requests.get(i);
+            if (!existingPatientIds.contains(request.getPatientId())) {
+                results[i] = VisitBatchItemResult.rejected(i, "Patient not found with ID: " + request.getPatientId());
+                continue;
+            }
+            Doctor doctor = doctors.get(request.getDoctorId());
+            if (doctor == null) {
+                results[i] = VisitBatchItemResult.rejected(i, "Doctor not found with ID: " + request.getDoctorId());
+                continue;
+            }
+
+            LocalDateTime start;
+            LocalDateTime end;
+            try {
+                start = timeZoneConverter.parse(request.getStart(), doctor.getTimezone());
+                end = timeZoneConverter.parse(request.getEnd(), doctor.getTimezone());
+            } catch (DateTimeException e) {
+                results[i] = VisitBatchItemResult.rejected(i, "Invalid date time, expected yyyy-MM-dd'T'HH:mm:ss");
+                continue;
+            }
+            if (start.isAfter(end)) {
+                results[i] = VisitBatchItemResult.rejected(i, "Start time cannot be after end time");
+                continue;
+            }
+            String slotError = doctorSlotService.isEnabled() ? doctorSlotService.validationError(start, end) : null;
+            if (slotError != null) {
+                results[i] = VisitBatchItemResult.rejected(i, slotError);
+                continue;
+            }
+            candidates.add(new Candidate(i, request.getPatientId(), doctor, start, end));
+        }
+        return candidates;
+    }
+
+    private Map<Long, List<VisitInterval>> loadExistingVisits(List<Candidate> candidates) {
+        Set<Long> doctorIds = new HashSet<>();
+        LocalDateTime from = candidates.get(0).start;
+        LocalDateTime to = candidates.get(0).end;
+        for (Candidate candidate : candidates) {
+            doctorIds.add(candidate.doctor.getId());
+            from = candidate.start.isBefore(from) ? candidate.start : from;
+            to = candidate.end.isAfter(to) ? candidate.end : to;
+        }
+
+        Map<Long, List<VisitInterval>> byDoctor = new HashMap<>();
+        for (VisitInterval interval : visitRepository.findIntervalsByDoctorIdsBetween(doctorIds, from, to)) {
+            byDoctor.computeIfAbsent(interval.getDoctorId(), id -> new ArrayList<>()).add(interval);
+        }
+        return byDoctor;
+    }
+
+    /**
+     * Sort-and-sweep per doctor. Every pair that {@link #conflicts} also intersects as
+     * closed ranges, so when the later starting of the two is reached the other one is
+     * still among the ranges whose end has not been passed.
+     */
+    private static void rejectConflicts(List<Candidate> candidates, Map<Long, List<VisitInterval>> existingByDoctor,
+                                VisitBatchItemResult[] results) {
+        Map<Long, List<Candidate>> byDoctor = new HashMap<>();
+        for (Candidate candidate : candidates) {
+            byDoctor.computeIfAbsent(candidate.doctor.getId(), id -> new ArrayList<>()).add(candidate);
+        }
+
+        byDoctor.forEach((doctorId, doctorCandidates) -> {
+            doctorCandidates.sort(BY_START);
+            List<VisitInterval> existing = new ArrayList<>(existingByDoctor.getOrDefault(doctorId, List.of()));
+            existing.sort(Comparator.comparing(VisitInterval::getStartDateTime));
+            sweepAgainstExisting(doctorCandidates, existing, results);
+            sweepWithinBatch(doctorCandidates, results);
+        });
+    }
+
+    private static void sweepAgainstExisting(List<Candidate> candidates, List<VisitInterval> existing,
+                                             VisitBatchItemResult[] results) {
+        PriorityQueue<Candidate> openCandidates = new PriorityQueue<>(Comparator.comparing((Candidate c) -> c.end));
+        PriorityQueue<VisitInterval> openVisits = new PriorityQueue<>(Comparator.comparing(VisitInterval::getEndDateTime));
+
+        int c = 0;
+        int e = 0;
+        while (e < existing.size() && (c < candidates.size() || !openCandidates.isEmpty())) {
+            if (c == candidates.size() || !existing.get(e).getStartDateTime().isAfter(candidates.get(c).start)) {
+                VisitInterval visit = existing.get(e++);
+                while (!openCandidates.isEmpty() && openCandidates.peek().end.isBefore(visit.getStartDateTime())) {
+                    openCandidates.poll();
+                }
+                openCandidates.removeIf(open -> {
+                    if (conflicts(open.start, open.end, visit.getStartDateTime(), visit.getEndDateTime())) {
+                        results[open.index] = VisitBatchItemResult.rejected(open.index, CONFLICT_MESSAGE);
+                        return true;
+                    }
+                    return false;
+                });
+                openVisits.add(visit);
+            } else {
+                Candidate candidate = candidates.get(c++);
+                while (!openVisits.isEmpty() && openVisits.peek().getEndDateTime().isBefore(candidate.start)) {
+                    openVisits.poll();
+                }
+                boolean conflict = openVisits.stream().anyMatch(visit ->
+                        conflicts(candidate.start, candidate.end, visit.getStartDateTime(), visit.getEndDateTime()));
+                if (conflict) {
+                    results[candidate.index] = VisitBatchItemResult.rejected(candidate.index, CONFLICT_MESSAGE);
+                } else {
+                    openCandidates.add(candidate);
+                }
+            }
+        }
+        // Candidates left once the stored visits are exhausted only start after all of them ended
+        while (c < candidates.size()) {
+            Candidate candidate = candidates.get(c++);
+            while (!openVisits.isEmpty() && openVisits.peek().getEndDateTime().isBefore(candidate.start)) {
+                openVisits.poll();
+            }
+            if (openVisits.stream().anyMatch(visit ->
+                    conflicts(candidate.start, candidate.end, visit.getStartDateTime(), visit.getEndDateTime()))) {
+                results[candidate.index] = VisitBatchItemResult.rejected(candidate.index, CONFLICT_MESSAGE);
+            }
+        }
+    }
+
+    private static void sweepWithinBatch(List<Candidate> candidates, VisitBatchItemResult[] results) {
+        PriorityQueue<Candidate> accepted = new PriorityQueue<>(Comparator.comparing((Candidate c) -> c.end));
+        for (Candidate candidate : candidates) {
+            if (results[candidate.index] != null) {
+                continue;
+            }
+            while (!accepted.isEmpty() && accepted.peek().end.isBefore(candidate.start)) {
+                accepted.poll();
+            }
+            Candidate winner = null;
+            for (Candidate open : accepted) {
+                if (conflicts(candidate.start, candidate.end, open.start, open.end)
+                        || conflicts(open.start, open.end, candidate.start, candidate.end)) {
+                    winner = open;
+                    break;
+                }
+            }
+            if (winner != null) {
+                results[candidate.index] = VisitBatchItemResult.rejected(candidate.index,
+                        CONFLICT_MESSAGE + " (item " + winner.index + " of this batch)");
+            } else {
+                accepted.add(candidate);
+            }
+        }
+    }
+
+    /**
+     * Whether a new visit from {@code start} to {@code end} conflicts with a stored one,
+     * exactly as {@code VisitRepository.existsByDoctorIdAndDateTimeConflict} decides it.
+     */
+    static boolean conflicts(LocalDateTime start, LocalDateTime end,
+                             LocalDateTime storedStart, LocalDateTime storedEnd) {
+        return (!storedStart.isAfter(start) && storedEnd.isAfter(start))
+                || (storedStart.isBefore(end) && !storedEnd.isBefore(end))
+                || (!storedStart.isBefore(start) && !storedEnd.isAfter(end));
+    }
+
+    private static final class Candidate {
+        private final int index;
+        private final Long patientId;
+        private final Doctor doctor;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        private Candidate(int index, Long patientId, Doctor doctor, LocalDateTime start, LocalDateTime end) {
+            this.index = index;
+            this.patientId = patientId;
+            this.doctor = doctor;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
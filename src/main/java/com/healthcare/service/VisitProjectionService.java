@@ -0,0 +1,128 @@
+package com.healthcare.service;
+
+import com.healthcare.entity.Visit;
+import com.healthcare.repository.DoctorPatientStatsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the read-side tables derived from {@code visits} in step with new visits.
+ * Runs inside the transaction of the caller so the projection commits or rolls back
+ * together with the visit itself.
+ *
+ * <p>The last-visit rows are written with plain JDBC statements that decide inside
+ * the database, so concurrent bookings of the same patient and doctor, which the
+ * {@code slots} engine does not serialize, can neither lose the newer visit nor fail
+ * on the primary key.
+ */
+@Service
+@Transactional
+public class VisitProjectionService {
+
+    // Replaces the stored visit if the given one is at least as recent, with the visit id as a tie breaker
+    // like the rebuild query
+    private static final String UPDATE_IF_NEWER = "UPDATE patient_doctor_last_visit " +
+            "SET visit_id = ?, start_date_time = ?, end_date_time = ? " +
+            "WHERE patient_id = ? AND doctor_id = ? " +
+            "AND (start_date_time < ? OR (start_date_time = ? AND visit_id <= ?))";
+
+    private static final String INSERT = "INSERT INTO patient_doctor_last_visit " +
+            "(patient_id, doctor_id, visit_id, start_date_time, end_date_time) VALUES (?, ?, ?, ?, ?)";
+
+    private final DoctorPatientStatsRepository statsRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public VisitProjectionService(DoctorPatientStatsRepository statsRepository,
+                                  JdbcTemplate jdbcTemplate) {
+        this.statsRepository = statsRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void recordVisit(Visit visit) {
+        if (jdbcTemplate.update(UPDATE_IF_NEWER, updateArguments(visit)) == 0 && insertOrUpdate(visit)) {
+            // First visit of this patient to this doctor
+            addDoctorPatients(visit.getDoctor().getId(), 1L);
+        }
+    }
+
+    /**
+     * Same as {@link #recordVisit} for many visits, with the updates sent as one JDBC
+     * batch and one counter update per doctor.
+     */
+    public void recordVisits(List<Visit> visits) {
+        if (visits.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> arguments = new ArrayList<>(visits.size());
+        for (Visit visit : visits) {
+            arguments.add(updateArguments(visit));
+        }
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_IF_NEWER, arguments);
+
+        Map<Long, Long> newPatientsPerDoctor = new HashMap<>();
+        for (int i = 0; i < visits.size(); i++) {
+            // Drivers may report SUCCESS_NO_INFO for batches; the insert then finds the row
+            if (updated[i] <= 0 && insertOrUpdate(visits.get(i))) {
+                newPatientsPerDoctor.merge(visits.get(i).getDoctor().getId(), 1L, Long::sum);
+            }
+        }
+
+        newPatientsPerDoctor.forEach(this::addDoctorPatients);
+    }
+
+    /**
+     * Inserts the row of the visit's patient and doctor; if there is one by now, whether
+     * it holds a newer visit or a concurrent booking inserted it first, updates that
+     * instead. Plain JDBC, so a duplicate key fails only this statement and not the
+     * surrounding transaction.
+     *
+     * @return true if the row was inserted
+     */
+    private boolean insertOrUpdate(Visit visit) {
+        try {
+            jdbcTemplate.update(INSERT, visit.getPatient().getId(), visit.getDoctor().getId(), visit.getId(),
+                    visit.getStartDateTime(), visit.getEndDateTime());
+            return true;
+        } catch (DuplicateKeyException e) {
+            jdbcTemplate.update(UPDATE_IF_NEWER, updateArguments(visit));
+            return false;
+        }
+    }
+
+    private static Object[] updateArguments(Visit visit) {
+        return new Object[]{visit.getId(), visit.getStartDateTime(), visit.getEndDateTime(),
+                visit.getPatient().getId(), visit.getDoctor().getId(),
+                visit.getStartDateTime(), visit.getStartDateTime(), visit.getId()};
+    }
+
+    private void addDoctorPatients(Long doctorId, long count) {
+        if (statsRepository.addTotalPatients(doctorId, count) == 0) {
+            createStatsRow(doctorId);
+            statsRepository.addTotalPatients(doctorId, count);
+        }
+    }
+
+    /**
+     * Creates the doctor's counter row unless a concurrent first booking of the same
+     * doctor did, which the {@code slots} engine does not serialize. Plain JDBC, so a
+     * duplicate key fails only this statement and not the surrounding transaction.
+     */
+    private void createStatsRow(Long doctorId) {
+        try {
+            jdbcTemplate.update("INSERT INTO doctor_patient_stats (doctor_id, total_patients) SELECT ?, 0 FROM DUAL " +
+                    "WHERE NOT EXISTS (SELECT 1 FROM doctor_patient_stats WHERE doctor_id = ?)", doctorId, doctorId);
+        } catch (DuplicateKeyException e) {
+            // Inserted by a concurrent booking that committed first
+        }
+    }
+}
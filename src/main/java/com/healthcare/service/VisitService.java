@@ -1,20 +1,22 @@
 package com.healthcare.service;
 
 import com.healthcare.dto.CreateVisitRequest;
+import com.healthcare.dto.VisitCreatedResponse;
 import com.healthcare.entity.Doctor;
 import com.healthcare.entity.Patient;
 import com.healthcare.entity.Visit;
+import com.healthcare.exception.VisitIntegrityViolationException;
+import com.healthcare.lock.DoctorLockManager;
 import com.healthcare.repository.DoctorRepository;
 import com.healthcare.repository.PatientRepository;
 import com.healthcare.repository.VisitRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
-import java.util.Optional;
+import java.util.List;
 
 @Service
 @Transactional
@@ -23,61 +25,104 @@ public class VisitService {
     private final VisitRepository visitRepository;
     private final PatientRepository patientRepository;
     private final DoctorRepository doctorRepository;
+    private final DoctorCache doctorCache;
+    private final DoctorScheduleIndex doctorScheduleIndex;
+    private final DoctorLockManager doctorLockManager;
+    private final DoctorSlotService doctorSlotService;
+    private final VisitProjectionService visitProjectionService;
+    private final TimeZoneConverter timeZoneConverter;
 
     @Autowired
     public VisitService(VisitRepository visitRepository,
                         PatientRepository patientRepository,
-                        DoctorRepository doctorRepository) {
+                        DoctorRepository doctorRepository,
+                        DoctorCache doctorCache,
+                        DoctorScheduleIndex doctorScheduleIndex,
+                        DoctorLockManager doctorLockManager,
+                        DoctorSlotService doctorSlotService,
+                        VisitProjectionService visitProjectionService,
+                        TimeZoneConverter timeZoneConverter) {
         this.visitRepository = visitRepository;
         this.patientRepository = patientRepository;
         this.doctorRepository = doctorRepository;
+        this.doctorCache = doctorCache;
+        this.doctorScheduleIndex = doctorScheduleIndex;
+        this.doctorLockManager = doctorLockManager;
+        this.doctorSlotService = doctorSlotService;
+        this.visitProjectionService = visitProjectionService;
+        this.timeZoneConverter = timeZoneConverter;
     }
 
-    public Visit createVisit(CreateVisitRequest request) {
-        // Validate patient exists
-        Optional<Patient> patientOpt = patientRepository.findById(request.getPatientId());
-        if (patientOpt.isEmpty()) {
-            throw new IllegalArgumentException("Patient not found with ID: " + request.getPatientId());
+    public VisitCreatedResponse createVisit(CreateVisitRequest request) {
+        boolean slots = doctorSlotService.isEnabled();
+        if (!slots) {
+            // Serialize bookings per doctor until commit; locked before any read so the conflict check sees earlier bookings
+            doctorLockManager.lockForTransaction(List.of(request.getDoctorId()));
         }
 
-        // Validate doctor exists
-        Optional<Doctor> doctorOpt = doctorRepository.findById(request.getDoctorId());
-        if (doctorOpt.isEmpty()) {
-            throw new IllegalArgumentException("Doctor not found with ID: " + request.getDoctorId());
-        }
-
-        Patient patient = patientOpt.get();
-        Doctor doctor = doctorOpt.get();
+        // The time zone is needed to parse the times, and normally comes without a query
+        String timezone = doctorCache.findTimezone(request.getDoctorId())
+                .orElseThrow(() -> rejection(request, "Doctor not found with ID: " + request.getDoctorId()));
 
         // Parse datetime strings in doctor's timezone
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
-        ZoneId doctorTimezone = ZoneId.of(doctor.getTimezone());
-
-        LocalDateTime startDateTime = LocalDateTime.parse(request.getStart(), formatter)
-                .atZone(doctorTimezone)
-                .withZoneSameInstant(ZoneId.systemDefault())
-                .toLocalDateTime();
-
-        LocalDateTime endDateTime = LocalDateTime.parse(request.getEnd(), formatter)
-                .atZone(doctorTimezone)
-                .withZoneSameInstant(ZoneId.systemDefault())
-                .toLocalDateTime();
+        LocalDateTime startDateTime = timeZoneConverter.parse(request.getStart(), timezone);
+        LocalDateTime endDateTime = timeZoneConverter.parse(request.getEnd(), timezone);
 
         // Validate time range
         if (startDateTime.isAfter(endDateTime)) {
-            throw new IllegalArgumentException("Start time cannot be after end time");
+            throw rejection(request, "Start time cannot be after end time");
+        }
+
+        if (slots) {
+            // Conflicts surface when the slots are claimed
+            String slotError = doctorSlotService.validationError(startDateTime, endDateTime);
+            if (slotError != null) {
+                throw rejection(request, slotError);
+            }
+        } else if (doctorScheduleIndex.hasConflict(request.getDoctorId(), startDateTime, endDateTime)) {
+            // Checked from memory when the doctor's schedule is loaded
+            throw rejection(request, "Doctor has conflicting visit at this time");
         }
 
-        // Check for conflicts
-        boolean hasConflict = visitRepository.existsByDoctorIdAndDateTimeConflict(
-                request.getDoctorId(), startDateTime, endDateTime);
+        // Create and save visit; the patient is not read, a missing one fails the foreign key
+        Patient patient = patientRepository.getReferenceById(request.getPatientId());
+        Doctor doctor = doctorRepository.getReferenceById(request.getDoctorId());
+        Visit visit = insert(new Visit(startDateTime, endDateTime, patient, doctor), request);
+        if (slots) {
+            doctorSlotService.claim(List.of(visit));
+        }
+
+        // Keep the last-visit projection in the same transaction
+        visitProjectionService.recordVisit(visit);
+
+        // From the request and the saved values only, the references stay uninitialized
+        return new VisitCreatedResponse(visit.getId(), request.getPatientId(), request.getDoctorId(),
+                timeZoneConverter.format(startDateTime, timezone), timeZoneConverter.format(endDateTime, timezone),
+                timezone);
+    }
 
-        if (hasConflict) {
-            throw new IllegalArgumentException("Doctor has conflicting visit at this time");
+    /**
+     * A missing patient is still reported ahead of any other error, as when it was
+     * looked up first. Only rejected requests look it up; accepted ones leave it to
+     * the foreign key.
+     */
+    private IllegalArgumentException rejection(CreateVisitRequest request, String error) {
+        if (!patientRepository.existsById(request.getPatientId())) {
+            return new IllegalArgumentException("Patient not found with ID: " + request.getPatientId());
         }
+        return new IllegalArgumentException(error);
+    }
 
-        // Create and save visit
-        Visit visit = new Visit(startDateTime, endDateTime, patient, doctor);
-        return visitRepository.save(visit);
+    /**
+     * Inserts the visit right away so that a foreign key violation can be told apart
+     * from the later statements; {@link com.healthcare.exception.GlobalExceptionHandler}
+     * reports it like the former existence checks.
+     */
+    private Visit insert(Visit visit, CreateVisitRequest request) {
+        try {
+            return visitRepository.saveAndFlush(visit);
+        } catch (DataIntegrityViolationException e) {
+            throw new VisitIntegrityViolationException(request.getPatientId(), request.getDoctorId(), e);
+        }
     }
-}
\ No newline at end of file
+}
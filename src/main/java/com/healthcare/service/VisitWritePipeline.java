@@ -0,0 +1,319 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.BatchItemStatus;
+import com.healthcare.dto.CreateVisitRequest;
+import com.healthcare.dto.VisitBatchItemResult;
+import com.healthcare.dto.VisitCreatedResponse;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Group commit for single visit creation: requests are queued and a single writer
+ * thread creates whatever has queued up, up to {@code max-batch-size} visits, with
+ * one {@link VisitBatchService#createVisits} call, so one transaction and one commit
+ * serve many requests. Each item gets the same checks against the stored visits and
+ * against the rest of its batch as a batch request, and each caller gets its own
+ * result or error.
+ *
+ * <p>After taking the first request of a batch the writer waits up to {@code linger}
+ * for more; while a batch commits the next one fills up on its own. The queue is
+ * lock-free and holds at most {@code queue-capacity} requests; beyond that
+ * submissions fail right away instead of piling up. A batch that fails as a whole,
+ * such as one losing a slot race with the {@code slots} engine, is retried one
+ * request at a time so only the requests that actually fail see the error.
+ *
+ * <p>Callers wait at most {@code timeout} for the writer to take their request; one
+ * given up on before that is skipped. A request the writer took is always waited
+ * for, as its batch may still commit it. Anything thrown while writing, errors
+ * included, fails that batch and the writer carries on. Should the writer thread
+ * still die, the pipeline stops and fails whatever is queued.
+ */
+@Component
+public class VisitWritePipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(VisitWritePipeline.class);
+
+    private final VisitBatchService visitBatchService;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final int queueCapacity;
+    private final long lingerNanos;
+    private final Duration timeout;
+
+    private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+    // Reserved before offering, so the queue never holds more than the capacity
+    private final AtomicInteger queued = new AtomicInteger();
+    private volatile boolean running;
+    private final Thread writer;
+
+    @Autowired
+    public VisitWritePipeline(VisitBatchService visitBatchService,
+                              @Value("${app.visit-pipeline.enabled:false}") boolean enabled,
+                              @Value("${app.visit-pipeline.max-batch-size:100}") int maxBatchSize,
+                              @Value("${app.visit-pipeline.linger:PT0.002S}") Duration linger,
+                              @Value("${app.visit-pipeline.queue-capacity:1000}") int queueCapacity,
+                              @Value("${app.visit-pipeline.timeout:PT10S}") Duration timeout) {
+        this.visitBatchService = visitBatchService;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.queueCapacity = queueCapacity;
+        this.lingerNanos = linger.toNanos();
+        this.timeout = timeout;
+
+        if (enabled) {
+            this.running = true;
+            this.writer = new Thread(this::writeLoop, "visit-write-pipeline");
+            this.writer.setDaemon(true);
+            this.writer.start();
+        } else {
+            this.writer = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Same contract as {@link VisitService#createVisit}, waiting up to {@code timeout}
+     * for the writer to take the request. Once taken the request is waited for until
+     * its batch completes, so a timeout always means the visit was not written.
+     *
+     * @throws RejectedExecutionException if the queue is full
+     * @throws QueryTimeoutException if the writer did not take the request in time
+     */
+    public VisitCreatedResponse createVisit(CreateVisitRequest request) {
+        Pending pending = enqueue(request);
+        VisitBatchItemResult result;
+        try {
+            try {
+                result = pending.result.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (pending.abandon()) {
+                    throw new QueryTimeoutException("Visit was not written within " + timeout, e);
+                }
+                // Already in a batch being written, which may still commit it
+                result = pending.result.get();
+            }
+        } catch (InterruptedException e) {
+            pending.abandon();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the visit to be written", e);
+        } catch (ExecutionException e) {
+            // Rethrown as is, so the exception handler maps it like on the direct path
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Visit could not be written", cause);
+        }
+
+        if (result.getStatus() == BatchItemStatus.REJECTED) {
+            // The caller cannot see the other items of the batch
+            String error = result.getError().startsWith(VisitBatchService.CONFLICT_MESSAGE)
+                    ? VisitBatchService.CONFLICT_MESSAGE : result.getError();
+            throw new IllegalArgumentException(error);
+        }
+        return new VisitCreatedResponse(result.getVisitId(), request.getPatientId(), request.getDoctorId(),
+                result.getStart(), result.getEnd(), result.getTimezone());
+    }
+
+    /**
+     * Queues the request for the writer.
+     *
+     * @return completed with the item result once its batch committed, or
+     * exceptionally if the batch could not be written
+     * @throws RejectedExecutionException if the queue is full or the pipeline is stopped
+     */
+    public CompletableFuture<VisitBatchItemResult> submit(CreateVisitRequest request) {
+        return enqueue(request).result;
+    }
+
+    private Pending enqueue(CreateVisitRequest request) {
+        if (!running) {
+            throw new RejectedExecutionException("Visit write pipeline is not running");
+        }
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            throw new RejectedExecutionException("Visit write pipeline is full");
+        }
+        Pending pending = new Pending(request);
+        queue.offer(pending);
+        // The writer may have stopped after the check and already failed the queue
+        if (!running && queue.remove(pending)) {
+            queued.decrementAndGet();
+            throw new RejectedExecutionException("Visit write pipeline is not running");
+        }
+        LockSupport.unpark(writer);
+        return pending;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Submitted while the writer was stopping
+        failQueued();
+    }
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                List<Pending> batch = drain();
+                if (batch.isEmpty()) {
+                    return;
+                }
+                try {
+                    write(batch);
+                } catch (Throwable e) {
+                    // Thrown past the per-request handling, such as an Error; the callers still get an answer
+                    log.error("Writing a batch of {} visits failed", batch.size(), e);
+                    for (Pending pending : batch) {
+                        pending.result.completeExceptionally(e);
+                    }
+                }
+            }
+        } finally {
+            // Also reached when the writer dies, after which nothing would complete the queued requests
+            running = false;
+            failQueued();
+        }
+    }
+
+    private void failQueued() {
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            queued.decrementAndGet();
+            pending.result.completeExceptionally(new RejectedExecutionException("Visit write pipeline is stopped"));
+        }
+    }
+
+    /**
+     * Blocks for the first request, then lingers for more until the batch is full.
+     *
+     * @return the next batch, empty once the pipeline is stopped and drained
+     */
+    private List<Pending> drain() {
+        List<Pending> batch = new ArrayList<>();
+        Pending next = queue.poll();
+        while (next == null) {
+            if (!running) {
+                return batch;
+            }
+            // Woken by submit; a wake-up sent before parking is not lost
+            LockSupport.park(this);
+            next = queue.poll();
+        }
+        batch.add(next);
+
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < maxBatchSize) {
+            next = queue.poll();
+            if (next != null) {
+                batch.add(next);
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !running) {
+                break;
+            }
+            LockSupport.parkNanos(this, remaining);
+        }
+        queued.addAndGet(-batch.size());
+        return batch;
+    }
+
+    private void write(List<Pending> drained) {
+        // Callers that gave up before the batch was taken are not written
+        List<Pending> batch = new ArrayList<>(drained.size());
+        for (Pending pending : drained) {
+            if (pending.take()) {
+                batch.add(pending);
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeTaken(batch);
+        }
+    }
+
+    private void writeTaken(List<Pending> batch) {
+        List<CreateVisitRequest> requests = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            requests.add(pending.request);
+        }
+        try {
+            List<VisitBatchItemResult> results = visitBatchService.createVisits(requests);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result.completeExceptionally(e);
+                return;
+            }
+            log.debug("Batch of {} visits failed, retrying them one by one", batch.size(), e);
+            for (Pending pending : batch) {
+                writeTaken(List.of(pending));
+            }
+        }
+    }
+
+    private static final class Pending {
+        private static final int QUEUED = 0;
+        private static final int TAKEN = 1;
+        private static final int ABANDONED = 2;
+
+        private final CreateVisitRequest request;
+        private final CompletableFuture<VisitBatchItemResult> result = new CompletableFuture<>();
+        // Decided once, so a request is either written or given up on, never both
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        private Pending(CreateVisitRequest request) {
+            this.request = request;
+        }
+
+        private boolean take() {
+            return state.compareAndSet(QUEUED, TAKEN);
+        }
+
+        /**
+         * @return whether the request will not be written, false if the writer took it first
+         */
+        private boolean abandon() {
+            if (state.compareAndSet(QUEUED, ABANDONED)) {
+                result.cancel(false);
+                return true;
+            }
+            return state.get() == ABANDONED;
+        }
+    }
+}
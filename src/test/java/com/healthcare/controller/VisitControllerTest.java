@@ -2,28 +2,42 @@ package com.healthcare.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.healthcare.dto.CreateVisitRequest;
+import com.healthcare.dto.PatientsListRequest;
+import com.healthcare.dto.PatientsListResponse;
+import com.healthcare.dto.VisitCreatedResponse;
 import com.healthcare.entity.Doctor;
 import com.healthcare.entity.Patient;
 import com.healthcare.entity.Visit;
+import com.healthcare.exception.VisitIntegrityViolationException;
 import com.healthcare.repository.DoctorRepository;
 import com.healthcare.repository.PatientRepository;
 import com.healthcare.repository.VisitRepository;
+import com.healthcare.service.DataVersionService;
+import com.healthcare.service.PatientExportService;
 import com.healthcare.service.PatientService;
+import com.healthcare.service.VisitBatchService;
 import com.healthcare.service.VisitService;
+import com.healthcare.service.VisitWritePipeline;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
-import java.time.LocalDateTime;
+import java.sql.SQLException;
+import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -36,9 +50,21 @@ class VisitControllerTest {
     @MockBean
     private VisitService visitService;
 
+    @MockBean
+    private VisitBatchService visitBatchService;
+
+    @MockBean
+    private VisitWritePipeline visitWritePipeline;
+
     @MockBean
     private PatientService patientService;
 
+    @MockBean
+    private PatientExportService patientExportService;
+
+    @MockBean
+    private DataVersionService dataVersionService;
+
     @MockBean
     private VisitRepository visitRepository;
 
@@ -51,26 +77,13 @@ class VisitControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
-    private Doctor testDoctor;
-    private Patient testPatient;
-    private Visit testVisit;
+    private VisitCreatedResponse createdVisit;
     private CreateVisitRequest validRequest;
 
     @BeforeEach
     void setUp() {
-        testDoctor = new Doctor("John", "Smith", "America/New_York");
-        testDoctor.setId(1L);
-
-        testPatient = new Patient("Jane", "Doe");
-        testPatient.setId(1L);
-
-        testVisit = new Visit(
-                LocalDateTime.now(),
-                LocalDateTime.now().plusHours(1),
-                testPatient,
-                testDoctor
-        );
-        testVisit.setId(1L);
+        createdVisit = new VisitCreatedResponse(1L, 1L, 1L,
+                "2024-01-15T10:00:00", "2024-01-15T11:00:00", "America/New_York");
 
         validRequest = new CreateVisitRequest();
         validRequest.setStart("2024-01-15T10:00:00");
@@ -81,15 +94,19 @@ class VisitControllerTest {
 
     @Test
     void createVisit_ValidRequest_ReturnsCreatedVisit() throws Exception {
-        when(visitService.createVisit(any(CreateVisitRequest.class))).thenReturn(testVisit);
+        when(visitService.createVisit(any(CreateVisitRequest.class))).thenReturn(createdVisit);
 
         mockMvc.perform(post("/api/visits")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(validRequest)))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.id").value(1))
-                .andExpect(jsonPath("$.patient.firstName").value("Jane"))
-                .andExpect(jsonPath("$.doctor.firstName").value("John"));
+                .andExpect(jsonPath("$.patientId").value(1))
+                .andExpect(jsonPath("$.doctorId").value(1))
+                .andExpect(jsonPath("$.start").value("2024-01-15T10:00:00"))
+                .andExpect(jsonPath("$.end").value("2024-01-15T11:00:00"))
+                .andExpect(jsonPath("$.timezone").value("America/New_York"))
+                .andExpect(jsonPath("$.patient").doesNotExist());
 
         verify(visitService, times(1)).createVisit(any(CreateVisitRequest.class));
     }
@@ -138,4 +155,89 @@ class VisitControllerTest {
 
         verify(visitService, times(1)).createVisit(any(CreateVisitRequest.class));
     }
+
+    @Test
+    void createVisit_PatientForeignKeyViolated_ReturnsBadRequestWithPatientId() throws Exception {
+        when(visitService.createVisit(any(CreateVisitRequest.class)))
+                .thenThrow(visitIntegrityViolation("FK_VISITS_PATIENT"));
+
+        mockMvc.perform(post("/api/visits")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validRequest)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Patient not found with ID: 5"));
+    }
+
+    @Test
+    void createVisit_DoctorForeignKeyViolated_ReturnsBadRequestWithDoctorId() throws Exception {
+        when(visitService.createVisit(any(CreateVisitRequest.class)))
+                .thenThrow(visitIntegrityViolation("fk_visits_doctor"));
+
+        mockMvc.perform(post("/api/visits")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validRequest)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Doctor not found with ID: 7"));
+    }
+
+    @Test
+    void createVisit_OtherConstraintViolated_ReturnsConflict() throws Exception {
+        when(visitService.createVisit(any(CreateVisitRequest.class)))
+                .thenThrow(visitIntegrityViolation("uk_something_else"));
+
+        mockMvc.perform(post("/api/visits")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validRequest)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Conflicting concurrent update, please retry"));
+    }
+
+    @Test
+    void getPatientsList_ReturnsDataVersionAsEtag() throws Exception {
+        when(dataVersionService.currentVersion()).thenReturn(7L);
+        when(patientService.getPatientsList(any(PatientsListRequest.class)))
+                .thenReturn(new PatientsListResponse(List.of(), 0L));
+
+        mockMvc.perform(get("/api/visits/patients"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+    }
+
+    @Test
+    void getPatientsList_MatchingEtag_ReturnsNotModifiedWithoutQuerying() throws Exception {
+        when(dataVersionService.currentVersion()).thenReturn(7L);
+
+        mockMvc.perform(get("/api/visits/patients")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7\""));
+
+        mockMvc.perform(get("/api/visits/patients")
+                        .param("stream", "true")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+                .andExpect(status().isNotModified());
+
+        verifyNoInteractions(patientService);
+    }
+
+    @Test
+    void getPatientsList_QueryTimeout_ReturnsServiceUnavailable() throws Exception {
+        when(patientService.getPatientsList(any(PatientsListRequest.class)))
+                .thenThrow(new QueryTimeoutException("Query 'patients count' did not finish in time"));
+
+        mockMvc.perform(get("/api/visits/patients"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.error").value("Query timed out, please retry"));
+    }
+
+    /**
+     * As thrown for a visit of patient 5 with doctor 7 violating the named constraint.
+     */
+    private static VisitIntegrityViolationException visitIntegrityViolation(String constraintName) {
+        ConstraintViolationException violation = new ConstraintViolationException(
+                "could not execute statement", new SQLException("Constraint violation"), constraintName);
+        return new VisitIntegrityViolationException(5L, 7L,
+                new DataIntegrityViolationException("could not execute statement", violation));
+    }
 }
@@ -0,0 +1,219 @@
+package com.healthcare.integration;
+
+import com.healthcare.dto.BatchItemStatus;
+import com.healthcare.dto.CreateVisitRequest;
+import com.healthcare.dto.VisitBatchItemResult;
+import com.healthcare.entity.Doctor;
+import com.healthcare.entity.Patient;
+import com.healthcare.entity.PatientDoctorKey;
+import com.healthcare.entity.PatientDoctorLastVisit;
+import com.healthcare.repository.DoctorPatientStatsRepository;
+import com.healthcare.repository.DoctorRepository;
+import com.healthcare.repository.PatientDoctorLastVisitRepository;
+import com.healthcare.repository.PatientRepository;
+import com.healthcare.repository.VisitRepository;
+import com.healthcare.repository.projection.VisitInterval;
+import com.healthcare.service.VisitBatchService;
+import com.healthcare.service.VisitService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Many threads booking overlapping slots of a few doctors at once, through single
+ * and batch creation, with committed transactions. Afterwards no doctor may have two
+ * conflicting visits. Runs against its own in-memory database since nothing is
+ * rolled back. Also books one patient with one doctor from all threads at once, which
+ * must leave the newest visit in the last-visit projection and count the patient once.
+ * {@link SlotBookingStressTest} repeats both with the {@code slots} engine
+ * and {@link PipelineBookingStressTest} through the group-commit pipeline.
+ */
+@SpringBootTest(properties = {
+        // Every commit also updates the data version row; wait for row locks closer to MySQL than H2's 2s default
+        "spring.datasource.url=jdbc:h2:mem:booking-stress;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        // Waiters hold their connection while the holder may need a second one for an id block
+        "spring.datasource.hikari.maximum-pool-size=40",
+        "app.booking.lock.type=striped",
+        "app.visit-index.enabled=true"
+})
+@ActiveProfiles("test")
+class ConcurrentBookingStressTest {
+
+    private static final int THREADS = 32;
+    private static final int BOOKINGS_PER_THREAD = 40;
+    private static final int DOCTORS = 3;
+    private static final int SAME_PAIR_BOOKINGS_PER_THREAD = 6;
+    private static final LocalDateTime DAY = LocalDateTime.now().plusDays(1).withHour(8).withMinute(0).withSecond(0).withNano(0);
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    @Autowired
+    private VisitService visitService;
+
+    @Autowired
+    private VisitBatchService visitBatchService;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private PatientDoctorLastVisitRepository lastVisitRepository;
+
+    @Autowired
+    private DoctorPatientStatsRepository statsRepository;
+
+    @Test
+    void concurrentBookings_NeverDoubleBookADoctor() throws Exception {
+        List<Long> doctorIds = new ArrayList<>();
+        for (int i = 0; i < DOCTORS; i++) {
+            doctorIds.add(doctorRepository.save(new Doctor("Stress", "Doctor" + i, "UTC")).getId());
+        }
+        // One patient per thread, so only the doctors' calendars are contended
+        List<Long> patientIds = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            patientIds.add(patientRepository.save(new Patient("Stress", "Patient" + t)).getId());
+        }
+
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Long patientId = patientIds.get(t);
+            workers.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                    if (random.nextInt(10) == 0) {
+                        List<CreateVisitRequest> batch = List.of(randomRequest(doctorIds, patientId),
+                                randomRequest(doctorIds, patientId), randomRequest(doctorIds, patientId));
+                        try {
+                            for (VisitBatchItemResult result : visitBatchService.createVisits(batch)) {
+                                (result.getStatus() == BatchItemStatus.CREATED ? created : rejected).incrementAndGet();
+                            }
+                        } catch (IllegalArgumentException e) {
+                            // A slot claimed by a concurrent booking fails the whole batch
+                            assertEquals("Doctor has conflicting visit at this time", e.getMessage());
+                            rejected.addAndGet(batch.size());
+                        }
+                        continue;
+                    }
+                    try {
+                        createVisit(randomRequest(doctorIds, patientId));
+                        created.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        assertEquals("Doctor has conflicting visit at this time", e.getMessage());
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        List<VisitInterval> visits = visitRepository.findIntervalsByDoctorIdsBetween(
+                doctorIds, DAY.minusDays(1), DAY.plusDays(2));
+        assertEquals(created.get(), visits.size());
+        assertTrue(rejected.get() > 0, "the slots should have been contended");
+
+        Map<Long, List<VisitInterval>> byDoctor = new HashMap<>();
+        visits.forEach(visit -> byDoctor.computeIfAbsent(visit.getDoctorId(), id -> new ArrayList<>()).add(visit));
+        byDoctor.forEach((doctorId, doctorVisits) -> {
+            doctorVisits.sort(Comparator.comparing(VisitInterval::getStartDateTime));
+            for (int i = 1; i < doctorVisits.size(); i++) {
+                VisitInterval previous = doctorVisits.get(i - 1);
+                VisitInterval next = doctorVisits.get(i);
+                assertFalse(previous.getEndDateTime().isAfter(next.getStartDateTime()),
+                        () -> "Doctor " + doctorId + " double booked at " + next.getStartDateTime());
+            }
+        });
+    }
+
+    @Test
+    void concurrentBookings_SamePatientAndDoctor_KeepNewestLastVisitAndCountPatientOnce() throws Exception {
+        Long doctorId = doctorRepository.save(new Doctor("Stress", "Shared", "UTC")).getId();
+        Long patientId = patientRepository.save(new Patient("Stress", "Regular")).getId();
+        LocalDateTime day = DAY.plusDays(5);
+
+        // Every thread books its own quarter hours, interleaved with the others, so all
+        // bookings succeed and race on the same last-visit row
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < SAME_PAIR_BOOKINGS_PER_THREAD; i++) {
+                    LocalDateTime visitStart = day.plusMinutes(15L * (i * THREADS + thread));
+                    CreateVisitRequest request = new CreateVisitRequest(visitStart.format(FORMATTER),
+                            visitStart.plusMinutes(15).format(FORMATTER), patientId, doctorId);
+                    if (i % 2 == 0) {
+                        createVisit(request);
+                    } else {
+                        VisitBatchItemResult result = visitBatchService.createVisits(List.of(request)).get(0);
+                        assertEquals(BatchItemStatus.CREATED, result.getStatus(), result::getError);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        LocalDateTime newest = day.plusMinutes(15L * (SAME_PAIR_BOOKINGS_PER_THREAD * THREADS - 1));
+        PatientDoctorLastVisit lastVisit = lastVisitRepository.findById(new PatientDoctorKey(patientId, doctorId))
+                .orElseThrow();
+        assertEquals(newest, lastVisit.getStartDateTime());
+        assertEquals(1L, statsRepository.findById(doctorId).orElseThrow().getTotalPatients());
+    }
+
+    /**
+     * How single visits are created; overridden to go through another write path.
+     */
+    protected void createVisit(CreateVisitRequest request) {
+        visitService.createVisit(request);
+    }
+
+    /**
+     * 15 to 60 minutes starting on a quarter hour within four hours, so most requests collide.
+     */
+    private static CreateVisitRequest randomRequest(List<Long> doctorIds, Long patientId) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDateTime start = DAY.plusMinutes(15L * random.nextInt(16));
+        LocalDateTime end = start.plusMinutes(15L * (1 + random.nextInt(4)));
+        return new CreateVisitRequest(start.format(FORMATTER), end.format(FORMATTER), patientId,
+                doctorIds.get(random.nextInt(doctorIds.size())));
+    }
+}
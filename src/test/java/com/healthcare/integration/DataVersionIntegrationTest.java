@@ -0,0 +1,84 @@
+package com.healthcare.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.dto.CreateVisitRequest;
+import com.healthcare.dto.CreateVisitBatchRequest;
+import com.healthcare.entity.Doctor;
+import com.healthcare.entity.Patient;
+import com.healthcare.repository.DoctorRepository;
+import com.healthcare.repository.PatientRepository;
+import com.healthcare.service.DataVersionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The patients list version is written by the changing transaction itself, so it
+ * has moved by the time a write returns and stays put when the write rolls back.
+ * Runs against its own in-memory database and commits its data instead of rolling
+ * back a test transaction.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:data-version;DB_CLOSE_DELAY=-1")
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+class DataVersionIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void writes_CommittedOrRolledBack_MoveVersionWithData() throws Exception {
+        // Arrange
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        Doctor doctor = doctorRepository.save(new Doctor("Dr. Version", "Doctor", "UTC"));
+        Patient patient = patientRepository.save(new Patient("Version", "Patient"));
+        long initial = dataVersionService.currentVersion();
+
+        // Act & Assert - the batch inserts are only flushed at commit and still count
+        CreateVisitBatchRequest batch = new CreateVisitBatchRequest(List.of(
+                new CreateVisitRequest("2024-01-15T10:00:00", "2024-01-15T11:00:00", patient.getId(), doctor.getId()),
+                new CreateVisitRequest("2024-01-15T11:00:00", "2024-01-15T12:00:00", patient.getId(), doctor.getId())));
+        mockMvc.perform(post("/api/visits/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk());
+        long afterBatch = dataVersionService.currentVersion();
+        assertTrue(afterBatch > initial);
+
+        // Rolled back together with the patient
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            patientRepository.saveAndFlush(new Patient("Rolled", "Back"));
+            status.setRollbackOnly();
+        });
+        assertEquals(afterBatch, dataVersionService.currentVersion());
+    }
+}
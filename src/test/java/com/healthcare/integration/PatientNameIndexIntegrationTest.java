@@ -0,0 +1,81 @@
+package com.healthcare.integration;
+
+import com.healthcare.entity.Patient;
+import com.healthcare.repository.PatientRepository;
+import com.healthcare.search.PatientNameIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Name searches answered by {@link PatientNameIndex}, which only picks up committed
+ * writes. Runs against its own in-memory database and commits its data instead of
+ * rolling back a test transaction.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:name-index;DB_CLOSE_DELAY=-1",
+        "app.search.name-index.enabled=true"
+})
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+class PatientNameIndexIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PatientNameIndex nameIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void indexedSearch_CommittedWrites_MatchDatabaseLike() throws Exception {
+        // Arrange
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        patientRepository.save(new Patient("Test", "Patient"));
+        patientRepository.save(new Patient("Testa", "Rossi"));
+        patientRepository.save(new Patient("Anna", "Ostest"));
+        Patient renamed = patientRepository.save(new Patient("Old", "Name"));
+        renamed.setLastName("Tester");
+        patientRepository.save(renamed);
+
+        // Rolled back, so neither the database nor the index has it
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            patientRepository.saveAndFlush(new Patient("Testo", "Gone"));
+            status.setRollbackOnly();
+        });
+
+        // Act & Assert - every term is answered by the index and agrees with LIKE
+        assertTrue(nameIndex.isReady());
+        for (String term : new String[]{"test", "TEST", "st p", "ssi", "old tes", "gone", "nothing"}) {
+            long[] indexed = nameIndex.search(term);
+            assertNotNull(indexed, term);
+            assertEquals(patientRepository.countBySearchCriteria(term), indexed.length, term);
+        }
+
+        mockMvc.perform(get("/api/visits/patients")
+                        .param("search", "tes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(4))
+                .andExpect(jsonPath("$.countExact").value(true))
+                .andExpect(jsonPath("$.data.length()").value(4))
+                .andExpect(jsonPath("$.data[0].firstName").value("Test"))
+                .andExpect(jsonPath("$.data[3].lastName").value("Tester"));
+    }
+}
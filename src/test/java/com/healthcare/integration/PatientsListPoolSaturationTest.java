@@ -0,0 +1,85 @@
+package com.healthcare.integration;
+
+import com.healthcare.entity.Patient;
+import com.healthcare.repository.PatientRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * More concurrent patients list requests than pooled connections, with the count
+ * query running in parallel. Every request holds a connection while its count needs
+ * another, so without a bound on parallel branches the pool runs dry and the counts
+ * time out. Runs against its own in-memory database since the branches only see
+ * committed data.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:patients-list-saturation;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "app.patients-list.parallel-queries.enabled=true",
+        "app.patients-list.parallel-queries.timeout=PT2S"
+})
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+class PatientsListPoolSaturationTest {
+
+    private static final int THREADS = 16;
+    private static final int REQUESTS = 64;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void concurrentListRequests_MoreThanPooledConnections_AllSucceed() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        for (int i = 0; i < 30; i++) {
+            patientRepository.save(new Patient("Pool", "Patient" + i));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> statuses = new ArrayList<>();
+        try {
+            for (int i = 0; i < REQUESTS; i++) {
+                int page = 1 + i % 3;
+                statuses.add(pool.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(get("/api/visits/patients")
+                                    .param("page", String.valueOf(page))
+                                    .param("size", "10"))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+            start.countDown();
+
+            Map<Integer, Integer> byStatus = new TreeMap<>();
+            for (Future<Integer> status : statuses) {
+                byStatus.merge(status.get(60, TimeUnit.SECONDS), 1, Integer::sum);
+            }
+            assertEquals(Map.of(200, REQUESTS), byStatus);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.healthcare.integration;
+
+import com.healthcare.dto.CreateVisitRequest;
+import com.healthcare.service.VisitWritePipeline;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * {@link ConcurrentBookingStressTest} with single visits created through the
+ * group-commit pipeline, racing the batch endpoint for the same doctors.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pipeline-booking-stress;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.hikari.maximum-pool-size=40",
+        "app.visit-pipeline.enabled=true",
+        "app.visit-pipeline.max-batch-size=16"
+})
+class PipelineBookingStressTest extends ConcurrentBookingStressTest {
+
+    @Autowired
+    private VisitWritePipeline visitWritePipeline;
+
+    @Override
+    protected void createVisit(CreateVisitRequest request) {
+        visitWritePipeline.createVisit(request);
+    }
+}
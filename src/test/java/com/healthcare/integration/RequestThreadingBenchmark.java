@@ -0,0 +1,192 @@
+package com.healthcare.integration;
+
+import com.healthcare.VisitTrackingApplication;
+import com.zaxxer.hikari.HikariDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Load test of GET /api/visits/patients with 1000 concurrent clients, once on
+ * Tomcat's platform thread pool and once with the {@code virtual-threads} profile.
+ * Every JDBC statement is delayed to stand in for a MySQL round trip, and both runs
+ * use the same connection pool so that only the request threading differs.
+ * Requires a Java 21 runtime and skips itself on the Java 17 this project targets.
+ * Not picked up by the default test run, execute explicitly with
+ * {@code mvn test -Dtest=RequestThreadingBenchmark}.
+ */
+class RequestThreadingBenchmark {
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 1000);
+    private static final int POOL_SIZE = 400;
+    private static final long STATEMENT_LATENCY_MILLIS = 10;
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(15);
+
+    @Test
+    void platformThreadsVersusVirtualThreads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need Java 21");
+
+        System.out.printf("%-18s %-12s %-10s %-10s %-8s%n", "mode", "requests/s", "p50 ms", "p99 ms", "errors");
+        run("platform threads", "test");
+        run("virtual threads", "test", "virtual-threads");
+    }
+
+    private void run(String mode, String... profiles) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                VisitTrackingApplication.class, LatencyConfig.class)
+                .profiles(profiles)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:threading-" + profiles.length + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                        "--spring.datasource.hikari.connection-timeout=30000",
+                        "--app.data.initialize=true",
+                        "--logging.level.com.healthcare=WARN")) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LatencyConfig.enabled = true;
+            try {
+                load(port, WARMUP);
+                Result result = load(port, MEASUREMENT);
+                System.out.printf("%-18s %-12.0f %-10d %-10d %-8d%n", mode,
+                        result.completed * 1000.0 / MEASUREMENT.toMillis(),
+                        result.percentileMillis(50), result.percentileMillis(99), result.errors);
+                assertEquals(0, result.errors);
+            } finally {
+                LatencyConfig.enabled = false;
+            }
+        }
+    }
+
+    /**
+     * Keeps {@link #CLIENTS} requests in flight for the given time, each on a random
+     * page of the unfiltered list.
+     */
+    private Result load(int port, Duration duration) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        Semaphore inFlight = new Semaphore(CLIENTS);
+        AtomicLong completed = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+
+        long end = System.nanoTime() + duration.toNanos();
+        while (System.nanoTime() < end) {
+            inFlight.acquire();
+            int page = ThreadLocalRandom.current().nextInt(1, 50);
+            HttpRequest request = HttpRequest.newBuilder(
+                    URI.create("http://localhost:" + port + "/api/visits/patients?count=none&page=" + page)).build();
+            long start = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                if (failure == null && response.statusCode() == 200) {
+                    if (System.nanoTime() < end) {
+                        completed.incrementAndGet();
+                        latencies.add(System.nanoTime() - start);
+                    }
+                } else {
+                    errors.incrementAndGet();
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquire(CLIENTS);
+        return new Result(completed.get(), errors.get(), latencies);
+    }
+
+    private static final class Result {
+        private final long completed;
+        private final long errors;
+        private final List<Long> latencies;
+
+        private Result(long completed, long errors, List<Long> latencies) {
+            this.completed = completed;
+            this.errors = errors;
+            this.latencies = new ArrayList<>(latencies);
+            this.latencies.sort(null);
+        }
+
+        private long percentileMillis(int percentile) {
+            if (latencies.isEmpty()) {
+                return 0;
+            }
+            int index = Math.min(latencies.size() - 1, latencies.size() * percentile / 100);
+            return TimeUnit.NANOSECONDS.toMillis(latencies.get(index));
+        }
+    }
+
+    /**
+     * Puts an H2 data source behind Hikari whose statements sleep before executing.
+     * Passed as an application source rather than annotated, so that component
+     * scanning of other test contexts does not pick it up.
+     */
+    static class LatencyConfig {
+
+        static volatile boolean enabled;
+
+        @Bean
+        static BeanPostProcessor latencyDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof HikariDataSource hikari) {
+                        JdbcDataSource h2 = new JdbcDataSource();
+                        h2.setURL(hikari.getJdbcUrl());
+                        h2.setUser(hikari.getUsername());
+                        h2.setPassword(hikari.getPassword());
+                        hikari.setDataSource(delayed(DataSource.class, h2));
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        private static <T> T delayed(Class<T> type, T target) {
+            InvocationHandler handler = (proxy, method, args) -> {
+                if (enabled && target instanceof PreparedStatement && method.getName().startsWith("execute")) {
+                    Thread.sleep(STATEMENT_LATENCY_MILLIS);
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (result instanceof Connection connection) {
+                    return delayed(Connection.class, connection);
+                }
+                if (result instanceof PreparedStatement statement) {
+                    return delayed(PreparedStatement.class, statement);
+                }
+                return result;
+            };
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.healthcare.integration;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * {@link ConcurrentBookingStressTest} with the {@code slots} conflict engine, where
+ * overlaps are only caught by the {@code doctor_slots} primary key.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:slot-booking-stress;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.hikari.maximum-pool-size=40",
+        "app.booking.conflict-engine=slots"
+})
+class SlotBookingStressTest extends ConcurrentBookingStressTest {
+}
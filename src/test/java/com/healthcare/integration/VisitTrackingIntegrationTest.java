@@ -1,28 +1,52 @@
 package com.healthcare.integration;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.dto.CreateVisitBatchRequest;
 import com.healthcare.dto.CreateVisitRequest;
 import com.healthcare.entity.Doctor;
+import com.healthcare.entity.DoctorPatientStats;
 import com.healthcare.entity.Patient;
 import com.healthcare.entity.Visit;
+import com.healthcare.job.DoctorPatientStatsReconciliationJob;
+import com.healthcare.job.DoctorSlotBackfillJob;
+import com.healthcare.job.IdGeneratorAlignmentJob;
+import com.healthcare.job.LastVisitRebuildJob;
+import com.healthcare.job.PatientSearchKeyBackfillJob;
+import com.healthcare.repository.DataVersionRepository;
+import com.healthcare.repository.DoctorPatientStatsRepository;
 import com.healthcare.repository.DoctorRepository;
+import com.healthcare.repository.DoctorSlotRepository;
 import com.healthcare.repository.PatientRepository;
 import com.healthcare.repository.VisitRepository;
+import com.healthcare.service.DataVersionService;
+import com.healthcare.service.DoctorCache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.context.WebApplicationContext;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -48,6 +72,39 @@ class VisitTrackingIntegrationTest {
     @Autowired
     private VisitRepository visitRepository;
 
+    @Autowired
+    private LastVisitRebuildJob lastVisitRebuildJob;
+
+    @Autowired
+    private DoctorPatientStatsReconciliationJob statsReconciliationJob;
+
+    @Autowired
+    private DoctorPatientStatsRepository statsRepository;
+
+    @Autowired
+    private PatientSearchKeyBackfillJob searchKeyBackfillJob;
+
+    @Autowired
+    private DataVersionRepository dataVersionRepository;
+
+    @Autowired
+    private DoctorCache doctorCache;
+
+    @Autowired
+    private IdGeneratorAlignmentJob idGeneratorAlignmentJob;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DoctorSlotBackfillJob doctorSlotBackfillJob;
+
+    @Autowired
+    private DoctorSlotRepository doctorSlotRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private MockMvc mockMvc;
     private Doctor testDoctor;
     private Patient testPatient;
@@ -79,13 +136,43 @@ class VisitTrackingIntegrationTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.id").exists())
-                .andExpect(jsonPath("$.patient.firstName").value("Test"))
-                .andExpect(jsonPath("$.doctor.firstName").value("Dr. Test"));
+                .andExpect(jsonPath("$.patientId").value(testPatient.getId()))
+                .andExpect(jsonPath("$.doctorId").value(testDoctor.getId()))
+                .andExpect(jsonPath("$.start").value("2024-01-15T10:00:00"))
+                .andExpect(jsonPath("$.end").value("2024-01-15T11:00:00"))
+                .andExpect(jsonPath("$.timezone").value("America/New_York"));
 
         // Verify visit was saved
         assertEquals(1L, visitRepository.count());
     }
 
+    @Test
+    void createVisit_CachedDoctor_ReferencesDoctorWithoutLoadingIt() throws Exception {
+        // Let the doctor written by this test transaction be cached as if it were committed
+        TransactionSynchronizationManager.unbindResourceIfPossible(doctorCache);
+        assertTrue(doctorCache.find(testDoctor.getId()).isPresent());
+        entityManager.flush();
+        entityManager.detach(testDoctor);
+
+        CreateVisitRequest request = new CreateVisitRequest();
+        request.setStart("2024-01-15T10:00:00");
+        request.setEnd("2024-01-15T11:00:00");
+        request.setPatientId(testPatient.getId());
+        request.setDoctorId(testDoctor.getId());
+
+        mockMvc.perform(post("/api/visits")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.timezone").value("America/New_York"));
+
+        entityManager.flush();
+        entityManager.clear();
+        Visit visit = visitRepository.findAll().get(0);
+        assertEquals(testDoctor.getId(), visit.getDoctor().getId());
+        assertEquals(15, visit.getStartDateTime().getHour());
+    }
+
     @Test
     void createVisit_ConflictingTime_ReturnsBadRequest() throws Exception {
         // Arrange - Create first visit through API
@@ -143,6 +230,8 @@ class VisitTrackingIntegrationTest {
                 testDoctor
         );
         visitRepository.save(visit1);
+        lastVisitRebuildJob.rebuild();
+        statsReconciliationJob.reconcile();
 
         // Act & Assert
         mockMvc.perform(get("/api/visits/patients"))
@@ -158,6 +247,96 @@ class VisitTrackingIntegrationTest {
                 .andExpect(jsonPath("$.data[0].lastVisits[0].doctor.totalPatients").value(1));
     }
 
+    @Test
+    void getPatientsList_AfterCreateVisit_ReturnsNewestVisitPerDoctor() throws Exception {
+        // Arrange - Two visits to the same doctor created through the API
+        for (String day : new String[]{"2024-01-15", "2024-01-20"}) {
+            CreateVisitRequest request = new CreateVisitRequest();
+            request.setStart(day + "T10:00:00");
+            request.setEnd(day + "T11:00:00");
+            request.setPatientId(testPatient.getId());
+            request.setDoctorId(testDoctor.getId());
+
+            mockMvc.perform(post("/api/visits")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated());
+        }
+
+        // Act & Assert
+        mockMvc.perform(get("/api/visits/patients"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].lastVisits.length()").value(1))
+                .andExpect(jsonPath("$.data[0].lastVisits[0].start").value("2024-01-20T10:00:00"))
+                .andExpect(jsonPath("$.data[0].lastVisits[0].doctor.totalPatients").value(1));
+    }
+
+    @Test
+    void reconcileDoctorStats_DriftedCounter_IsRepaired() {
+        // Arrange - One visit, but the counter claims five patients
+        visitRepository.save(new Visit(
+                LocalDateTime.of(2024, 1, 15, 10, 0),
+                LocalDateTime.of(2024, 1, 15, 11, 0),
+                testPatient,
+                testDoctor
+        ));
+        statsRepository.save(new DoctorPatientStats(testDoctor.getId(), 5L));
+
+        // Act
+        int repaired = statsReconciliationJob.reconcile();
+
+        // Assert - Repaired in SQL, so read back past the persistence context
+        assertEquals(1, repaired);
+        entityManager.clear();
+        assertEquals(1L, statsRepository.findById(testDoctor.getId()).orElseThrow().getTotalPatients());
+    }
+
+    @Test
+    void alignIdGenerators_RowsLoadedOutsideTheApplication_MoveGeneratorPastThem() {
+        // Arrange - A patient from a dump, far ahead of the generator
+        jdbcTemplate.update("INSERT INTO patients (id, first_name, last_name) VALUES (?, ?, ?)",
+                10_000L, "Dump", "Patient");
+        // Blocks reserved past the largest visit id, e.g. by another instance
+        jdbcTemplate.update("UPDATE id_generators SET next_val = ? WHERE sequence_name = 'visits'", 20_000L);
+
+        // Act
+        idGeneratorAlignmentJob.align();
+        idGeneratorAlignmentJob.align();
+
+        // Assert
+        assertEquals(10_001L, jdbcTemplate.queryForObject(
+                "SELECT next_val FROM id_generators WHERE sequence_name = 'patients'", Long.class));
+        assertTrue(jdbcTemplate.queryForObject(
+                "SELECT next_val FROM id_generators WHERE sequence_name = 'doctors'", Long.class) > testDoctor.getId());
+        assertEquals(20_000L, jdbcTemplate.queryForObject(
+                "SELECT next_val FROM id_generators WHERE sequence_name = 'visits'", Long.class));
+    }
+
+    @Test
+    void backfillDoctorSlots_ClaimsFreeSlotsOfExistingVisitsOnceAndDeletesReleaseThem() {
+        // Arrange - Overlapping visits from a dump, the second one off the grid
+        Visit onGrid = visitRepository.save(new Visit(
+                LocalDateTime.of(2024, 1, 15, 10, 0), LocalDateTime.of(2024, 1, 15, 11, 0), testPatient, testDoctor));
+        Visit offGrid = visitRepository.save(new Visit(
+                LocalDateTime.of(2024, 1, 15, 10, 50), LocalDateTime.of(2024, 1, 15, 11, 10), testPatient, testDoctor));
+        entityManager.flush();
+
+        // Act
+        int claimed = doctorSlotBackfillJob.backfill();
+
+        // Assert - 10:45 already belongs to the first visit
+        assertEquals(5, claimed);
+        assertEquals(4, doctorSlotRepository.findByVisitId(onGrid.getId()).size());
+        assertEquals(LocalDateTime.of(2024, 1, 15, 11, 0),
+                doctorSlotRepository.findByVisitId(offGrid.getId()).get(0).getId().getSlotStart());
+        assertEquals(0, doctorSlotBackfillJob.backfill());
+
+        visitRepository.delete(onGrid);
+        entityManager.flush();
+        assertTrue(doctorSlotRepository.findByVisitId(onGrid.getId()).isEmpty());
+        assertEquals(1L, doctorSlotRepository.count());
+    }
+
     @Test
     void getPatientsList_WithSearch_ReturnsFilteredResults() throws Exception {
         // Arrange - Create another patient
@@ -180,6 +359,8 @@ class VisitTrackingIntegrationTest {
                 testDoctor
         );
         visitRepository.save(visit2);
+        lastVisitRebuildJob.rebuild();
+        statsReconciliationJob.reconcile();
 
         // Act & Assert - Search for "Test"
         mockMvc.perform(get("/api/visits/patients")
@@ -190,6 +371,57 @@ class VisitTrackingIntegrationTest {
                 .andExpect(jsonPath("$.count").value(1));
     }
 
+    @Test
+    void getPatientsList_PrefixSearch_MatchesFirstOrLastNameStart() throws Exception {
+        // Arrange
+        patientRepository.save(new Patient("Émile", "Zola"));
+        patientRepository.save(new Patient("Anna", "Emerson"));
+        patientRepository.save(new Patient("Noemi", "Brown"));
+        patientRepository.save(new Patient("Em_ma", "Stone"));
+
+        // Act & Assert - accent-insensitive, start of either name only
+        mockMvc.perform(get("/api/visits/patients")
+                        .param("search", "EM")
+                        .param("searchMode", "prefix"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(3))
+                .andExpect(jsonPath("$.data[0].firstName").value("Émile"))
+                .andExpect(jsonPath("$.data[1].lastName").value("Emerson"));
+
+        // Wildcards in the term are matched literally
+        mockMvc.perform(get("/api/visits/patients")
+                        .param("search", "em_")
+                        .param("searchMode", "prefix"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.data[0].lastName").value("Stone"));
+
+        mockMvc.perform(get("/api/visits/patients")
+                        .param("search", "em")
+                        .param("searchMode", "suffix"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid search mode: suffix"));
+    }
+
+    @Test
+    void backfillSearchKeys_PatientsWithoutKeys_AreFilled() {
+        // Arrange - simulate rows written before the key columns existed
+        Patient patient = patientRepository.save(new Patient("Zoë", "Ångström"));
+        entityManager.flush();
+        entityManager.createNativeQuery("UPDATE patients SET first_name_key = NULL, last_name_key = NULL")
+                .executeUpdate();
+        entityManager.clear();
+
+        // Act
+        int updated = searchKeyBackfillJob.backfill();
+
+        // Assert
+        assertEquals(2, updated);
+        Patient reloaded = patientRepository.findById(patient.getId()).orElseThrow();
+        assertEquals("zoe", reloaded.getFirstNameKey());
+        assertEquals("angstrom", reloaded.getLastNameKey());
+    }
+
     @Test
     void getPatientsList_WithPagination_ReturnsCorrectPage() throws Exception {
         // Arrange - Create multiple patients
@@ -207,6 +439,189 @@ class VisitTrackingIntegrationTest {
                 .andExpect(jsonPath("$.count").value(26)); // 25 new + 1 existing
     }
 
+    @Test
+    void getPatientsList_WithCursor_WalksAllPagesWithoutOverlap() throws Exception {
+        // Arrange - Create multiple patients
+        for (int i = 0; i < 25; i++) {
+            patientRepository.save(new Patient("Patient" + i, "LastName" + i));
+        }
+
+        // Act - Follow next cursors from the first page
+        Set<String> seen = new HashSet<>();
+        String cursor = "";
+        int pages = 0;
+        while (cursor != null) {
+            String body = mockMvc.perform(get("/api/visits/patients")
+                            .param("size", "10")
+                            .param("cursor", cursor))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.count").doesNotExist())
+                    .andReturn().getResponse().getContentAsString();
+
+            JsonNode json = objectMapper.readTree(body);
+            json.get("data").forEach(p -> seen.add(p.get("firstName").asText() + " " + p.get("lastName").asText()));
+            cursor = json.hasNonNull("nextCursor") ? json.get("nextCursor").asText() : null;
+            pages++;
+        }
+
+        // Assert - 25 new + 1 existing, each returned exactly once
+        assertEquals(3, pages);
+        assertEquals(26, seen.size());
+    }
+
+    @Test
+    void getPatientsList_CountModes_ReportWhetherTotalIsExact() throws Exception {
+        mockMvc.perform(get("/api/visits/patients"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.countExact").value(true));
+
+        mockMvc.perform(get("/api/visits/patients").param("count", "none"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(1))
+                .andExpect(jsonPath("$.count").doesNotExist())
+                .andExpect(jsonPath("$.countExact").doesNotExist());
+
+        mockMvc.perform(get("/api/visits/patients").param("count", "bogus"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid count mode: bogus"));
+    }
+
+    @Test
+    void getPatientsList_Streamed_MatchesBufferedResponse() throws Exception {
+        // Arrange
+        for (int i = 0; i < 25; i++) {
+            Patient patient = patientRepository.save(new Patient("Patient" + i, "LastName" + i));
+            visitRepository.save(new Visit(
+                    LocalDateTime.of(2024, 1, 1, 9, 0).plusHours(i),
+                    LocalDateTime.of(2024, 1, 1, 9, 30).plusHours(i),
+                    patient,
+                    testDoctor
+            ));
+        }
+        lastVisitRebuildJob.rebuild();
+        statsReconciliationJob.reconcile();
+
+        // Act & Assert - offset, cursor and indexed search pages are identical in both modes
+        String[][] queries = {
+                {"page", "2", "size", "10"},
+                {"cursor", "", "size", "10"},
+                {"search", "patient1", "size", "5"},
+                {"doctorIds", String.valueOf(testDoctor.getId()), "count", "none"}
+        };
+        for (String[] query : queries) {
+            MockHttpServletRequestBuilder buffered = get("/api/visits/patients");
+            MockHttpServletRequestBuilder streamed = get("/api/visits/patients").param("stream", "true");
+            for (int i = 0; i < query.length; i += 2) {
+                buffered.param(query[i], query[i + 1]);
+                streamed.param(query[i], query[i + 1]);
+            }
+
+            String expected = mockMvc.perform(buffered).andReturn().getResponse().getContentAsString();
+            String actual = mockMvc.perform(streamed)
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andReturn().getResponse().getContentAsString();
+            assertEquals(objectMapper.readTree(expected), objectMapper.readTree(actual), String.join(",", query));
+        }
+
+        mockMvc.perform(get("/api/visits/patients")
+                        .param("stream", "true")
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid cursor"));
+    }
+
+    @Test
+    void exportPatients_Ndjson_WritesOnePatientPerLine() throws Exception {
+        // Arrange
+        Patient other = patientRepository.save(new Patient("Other", "Person"));
+        visitRepository.save(new Visit(
+                LocalDateTime.of(2024, 1, 15, 15, 0),
+                LocalDateTime.of(2024, 1, 15, 16, 0),
+                testPatient,
+                testDoctor
+        ));
+        lastVisitRebuildJob.rebuild();
+        statsReconciliationJob.reconcile();
+
+        // Act
+        String body = mockMvc.perform(get("/api/visits/patients/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"patients.ndjson\""))
+                .andReturn().getResponse().getContentAsString();
+
+        // Assert - same shape as the patients list entries
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("Test", first.get("firstName").asText());
+        assertEquals("2024-01-15T10:00:00", first.get("lastVisits").get(0).get("start").asText());
+        assertEquals(1, first.get("lastVisits").get(0).get("doctor").get("totalPatients").asInt());
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertEquals(other.getLastName(), second.get("lastName").asText());
+        assertEquals(0, second.get("lastVisits").size());
+    }
+
+    @Test
+    void exportPatients_Csv_WritesEscapedRowPerLastVisit() throws Exception {
+        // Arrange
+        patientRepository.save(new Patient("Jean, \"JJ\"", "O'Neil"));
+        visitRepository.save(new Visit(
+                LocalDateTime.of(2024, 1, 15, 15, 0),
+                LocalDateTime.of(2024, 1, 15, 16, 0),
+                testPatient,
+                testDoctor
+        ));
+        lastVisitRebuildJob.rebuild();
+        statsReconciliationJob.reconcile();
+
+        // Act & Assert
+        mockMvc.perform(get("/api/visits/patients/export").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string(
+                        "firstName,lastName,visitStart,visitEnd,doctorFirstName,doctorLastName,doctorTotalPatients\r\n" +
+                        "Test,Patient,2024-01-15T10:00:00,2024-01-15T11:00:00,Dr. Test,Doctor,1\r\n" +
+                        "\"Jean, \"\"JJ\"\"\",O'Neil,,,,,\r\n"));
+
+        mockMvc.perform(get("/api/visits/patients/export").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid export format: xml"));
+    }
+
+    @Test
+    void getPatientsList_IfNoneMatch_ReturnsNotModifiedUntilDataVersionChanges() throws Exception {
+        String etag = mockMvc.perform(get("/api/visits/patients"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/api/visits/patients")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        dataVersionRepository.increment(DataVersionService.PATIENTS_LIST);
+
+        String newEtag = mockMvc.perform(get("/api/visits/patients")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(newEtag);
+        assertTrue(!etag.equals(newEtag));
+    }
+
+    @Test
+    void getPatientsList_InvalidCursor_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/visits/patients")
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid cursor"));
+    }
+
     @Test
     void createVisit_InvalidRequest_ReturnsValidationError() throws Exception {
         // Arrange
@@ -242,6 +657,23 @@ class VisitTrackingIntegrationTest {
                 .andExpect(jsonPath("$.error").value("Patient not found with ID: 999"));
     }
 
+    @Test
+    void createVisit_NonExistentPatientAndInvalidTimeRange_ReportsPatient() throws Exception {
+        // Arrange
+        CreateVisitRequest request = new CreateVisitRequest();
+        request.setStart("2024-01-15T11:00:00");
+        request.setEnd("2024-01-15T10:00:00");
+        request.setPatientId(999L);
+        request.setDoctorId(testDoctor.getId());
+
+        // Act & Assert
+        mockMvc.perform(post("/api/visits")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Patient not found with ID: 999"));
+    }
+
     @Test
     void createVisit_NonExistentDoctor_ReturnsBadRequest() throws Exception {
         // Arrange
@@ -258,4 +690,57 @@ class VisitTrackingIntegrationTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.error").value("Doctor not found with ID: 999"));
     }
+
+    @Test
+    void createVisits_Batch_ReportsPerItemResultsAndUpdatesPatientsList() throws Exception {
+        // Arrange - A stored visit from 10:00 to 11:00 New York time
+        visitRepository.save(new Visit(
+                LocalDateTime.of(2024, 1, 15, 15, 0),
+                LocalDateTime.of(2024, 1, 15, 16, 0),
+                testPatient,
+                testDoctor
+        ));
+        Patient otherPatient = patientRepository.save(new Patient("Other", "Patient"));
+
+        CreateVisitBatchRequest batch = new CreateVisitBatchRequest(List.of(
+                new CreateVisitRequest("2024-01-15T10:30:00", "2024-01-15T11:30:00", testPatient.getId(), testDoctor.getId()),
+                new CreateVisitRequest("2024-01-16T10:00:00", "2024-01-16T11:00:00", testPatient.getId(), testDoctor.getId()),
+                new CreateVisitRequest("2024-01-16T10:30:00", "2024-01-16T11:30:00", otherPatient.getId(), testDoctor.getId()),
+                new CreateVisitRequest("2024-01-17T10:00:00", "2024-01-17T11:00:00", otherPatient.getId(), testDoctor.getId()),
+                new CreateVisitRequest("2024-01-17T10:00:00", "2024-01-17T11:00:00", 999L, testDoctor.getId())
+        ));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/visits/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(3))
+                .andExpect(jsonPath("$.results[0].status").value("REJECTED"))
+                .andExpect(jsonPath("$.results[0].error").value("Doctor has conflicting visit at this time"))
+                .andExpect(jsonPath("$.results[1].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[1].visitId").exists())
+                .andExpect(jsonPath("$.results[2].error").value("Doctor has conflicting visit at this time (item 1 of this batch)"))
+                .andExpect(jsonPath("$.results[3].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[4].error").value("Patient not found with ID: 999"));
+
+        assertEquals(3L, visitRepository.count());
+        mockMvc.perform(get("/api/visits/patients"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[0].lastVisits[0].start").value("2024-01-16T10:00:00"))
+                .andExpect(jsonPath("$.data[1].lastVisits[0].start").value("2024-01-17T10:00:00"))
+                .andExpect(jsonPath("$.data[1].lastVisits[0].doctor.totalPatients").value(2));
+    }
+
+    @Test
+    void createVisits_EmptyBatch_ReturnsValidationError() throws Exception {
+        mockMvc.perform(post("/api/visits/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateVisitBatchRequest(List.of()))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Validation failed"))
+                .andExpect(jsonPath("$.details.visits").exists());
+    }
 }
@@ -0,0 +1,78 @@
+package com.healthcare.lock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdvisoryDoctorLockManagerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private AdvisoryDoctorLockManager lockManager;
+
+    @BeforeEach
+    void setUp() {
+        lockManager = new AdvisoryDoctorLockManager(jdbcTemplate, Duration.ofSeconds(5));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(lockManager);
+    }
+
+    @Test
+    void lockForTransaction_GetsNamedLocksInIdOrderAndReleasesThemAfterCompletion() {
+        when(jdbcTemplate.queryForObject(eq("SELECT GET_LOCK(?, ?)"), eq(Integer.class), anyString(), eq(5L)))
+                .thenReturn(1);
+
+        lockManager.lockForTransaction(List.of(7L, 2L));
+        lockManager.lockForTransaction(List.of(2L));
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).queryForObject("SELECT GET_LOCK(?, ?)", Integer.class, "visit-booking:doctor:2", 5L);
+        inOrder.verify(jdbcTemplate).queryForObject("SELECT GET_LOCK(?, ?)", Integer.class, "visit-booking:doctor:7", 5L);
+        inOrder.verify(jdbcTemplate).queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, "visit-booking:doctor:7");
+        inOrder.verify(jdbcTemplate).queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, "visit-booking:doctor:2");
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void lockForTransaction_TimedOut_ThrowsAndKeepsEarlierLocksForRelease() {
+        when(jdbcTemplate.queryForObject("SELECT GET_LOCK(?, ?)", Integer.class, "visit-booking:doctor:1", 5L))
+                .thenReturn(1);
+        when(jdbcTemplate.queryForObject("SELECT GET_LOCK(?, ?)", Integer.class, "visit-booking:doctor:2", 5L))
+                .thenReturn(0);
+
+        assertThrows(CannotAcquireLockException.class, () -> lockManager.lockForTransaction(List.of(1L, 2L)));
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verify(jdbcTemplate).queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, "visit-booking:doctor:1");
+        verify(jdbcTemplate, never()).queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, "visit-booking:doctor:2");
+    }
+}
@@ -0,0 +1,117 @@
+package com.healthcare.lock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedDoctorLockManagerTest {
+
+    private StripedDoctorLockManager lockManager;
+
+    @BeforeEach
+    void setUp() {
+        lockManager = new StripedDoctorLockManager(4, Duration.ofMillis(200));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            complete();
+        }
+    }
+
+    @Test
+    void lockForTransaction_HeldUntilCompletion() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        lockManager.lockForTransaction(List.of(1L));
+
+        assertFalse(lockFromOtherThread(1L));
+        assertTrue(lockFromOtherThread(2L));
+
+        complete();
+        assertTrue(lockFromOtherThread(1L));
+    }
+
+    @Test
+    void lockForTransaction_AlreadyHeldOrSharingStripe_ReleasesEverything() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        // 1 and 5 share a stripe
+        lockManager.lockForTransaction(List.of(5L, 1L));
+        lockManager.lockForTransaction(List.of(1L));
+
+        complete();
+
+        assertTrue(lockFromOtherThread(1L));
+        assertTrue(lockFromOtherThread(5L));
+    }
+
+    @Test
+    void lockForTransaction_TimesOut_ThrowsCannotAcquireLock() throws Exception {
+        CompletableFuture<Void> holder = new CompletableFuture<>();
+        CompletableFuture<Void> locked = CompletableFuture.runAsync(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                lockManager.lockForTransaction(List.of(3L));
+                holder.complete(null);
+                sleep(1000);
+            } finally {
+                complete();
+            }
+        });
+        holder.get(5, TimeUnit.SECONDS);
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertThrows(CannotAcquireLockException.class, () -> lockManager.lockForTransaction(List.of(3L)));
+        locked.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void lockForTransaction_WithoutTransaction_Throws() {
+        assertThrows(IllegalStateException.class, () -> lockManager.lockForTransaction(List.of(1L)));
+    }
+
+    @Test
+    void lockOrder_IsByStripe() {
+        assertTrue(lockManager.lockOrder().compare(4L, 1L) < 0);
+        assertTrue(lockManager.lockOrder().compare(1L, 5L) < 0);
+    }
+
+    private boolean lockFromOtherThread(Long doctorId) throws Exception {
+        return CompletableFuture.supplyAsync(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                lockManager.lockForTransaction(List.of(doctorId));
+                return true;
+            } catch (CannotAcquireLockException e) {
+                return false;
+            } finally {
+                complete();
+            }
+        }).get(5, TimeUnit.SECONDS);
+    }
+
+    private static void complete() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
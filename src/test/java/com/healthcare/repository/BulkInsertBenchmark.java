@@ -0,0 +1,88 @@
+package com.healthcare.repository;
+
+import com.healthcare.entity.Doctor;
+import com.healthcare.entity.Patient;
+import com.healthcare.entity.Visit;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Times {@code saveAll} of as many visits as {@code DataInitializer} seeds, flushed
+ * and detached after every round. Not picked up by the default test run, execute
+ * explicitly with {@code mvn test -Dtest=BulkInsertBenchmark}.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class BulkInsertBenchmark {
+
+    private static final int DOCTORS = 10;
+    private static final int PATIENTS = 500;
+    private static final int VISITS = 5000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 10;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Test
+    void saveAllVisits() {
+        List<Doctor> doctors = new ArrayList<>();
+        for (int i = 0; i < DOCTORS; i++) {
+            doctors.add(new Doctor("Doctor" + i, "Bench", "UTC"));
+        }
+        List<Patient> patients = new ArrayList<>();
+        for (int i = 0; i < PATIENTS; i++) {
+            patients.add(new Patient("Patient" + i, "Bench"));
+        }
+        long seedNanos = time(() -> {
+            doctorRepository.saveAll(doctors);
+            patientRepository.saveAll(patients);
+        });
+
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        long totalNanos = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            List<Visit> visits = new ArrayList<>(VISITS);
+            for (int i = 0; i < VISITS; i++) {
+                LocalDateTime start = base.plusMinutes(15L * (round * VISITS + i));
+                visits.add(new Visit(start, start.plusMinutes(15),
+                        entityManager.getReference(Patient.class, patients.get(i % PATIENTS).getId()),
+                        entityManager.getReference(Doctor.class, doctors.get(i % DOCTORS).getId())));
+            }
+            long nanos = time(() -> visitRepository.saveAll(visits));
+            if (round >= WARMUP_ROUNDS) {
+                totalNanos += nanos;
+            }
+        }
+
+        assertEquals((long) VISITS * (WARMUP_ROUNDS + ROUNDS), visitRepository.count());
+        System.out.printf("doctors and patients: %.1f ms%n", seedNanos / 1e6);
+        System.out.printf("saveAll of %d visits: %.1f ms per round%n", VISITS, totalNanos / 1e6 / ROUNDS);
+    }
+
+    private long time(Runnable action) {
+        long start = System.nanoTime();
+        action.run();
+        entityManager.flush();
+        entityManager.clear();
+        return System.nanoTime() - start;
+    }
+}
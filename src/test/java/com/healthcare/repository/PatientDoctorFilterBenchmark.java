@@ -0,0 +1,104 @@
+package com.healthcare.repository;
+
+import com.healthcare.entity.Doctor;
+import com.healthcare.entity.Patient;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the doctor-filtered patient count of the former DISTINCT join with the
+ * EXISTS semi-join as visits per patient grow while matched patients stay fixed.
+ * Not picked up by the default test run, execute explicitly with
+ * {@code mvn test -Dtest=PatientDoctorFilterBenchmark}.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class PatientDoctorFilterBenchmark {
+
+    private static final int PATIENTS = 500;
+    private static final int[] VISITS_PER_PATIENT = {1, 10, 50};
+    private static final int ROUNDS = 50;
+
+    private static final String DISTINCT_JOIN_COUNT = "SELECT COUNT(DISTINCT p) FROM Patient p " +
+            "INNER JOIN p.visits v WHERE v.doctor.id IN :doctorIds";
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void distinctJoinVersusSemiJoin() {
+        Doctor doctor = new Doctor("Bench", "Doctor", "UTC");
+        entityManager.persist(doctor);
+        List<Long> patientIds = new ArrayList<>();
+        for (int i = 0; i < PATIENTS; i++) {
+            Patient patient = new Patient("Patient" + i, "Bench");
+            entityManager.persist(patient);
+            patientIds.add(patient.getId());
+        }
+        entityManager.flush();
+        List<Long> doctorIds = List.of(doctor.getId());
+
+        int visitsPerPatient = 0;
+        long visitId = 0;
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        System.out.printf("%-18s %-14s %-16s %-14s%n", "visits/patient", "join rows", "DISTINCT join", "EXISTS");
+        for (int target : VISITS_PER_PATIENT) {
+            List<Object[]> rows = new ArrayList<>();
+            for (int v = visitsPerPatient; v < target; v++) {
+                for (Long patientId : patientIds) {
+                    LocalDateTime start = base.plusHours((long) v * PATIENTS + patientId);
+                    rows.add(new Object[]{++visitId, Timestamp.valueOf(start), Timestamp.valueOf(start.plusMinutes(30)),
+                            patientId, doctor.getId()});
+                }
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO visits (id, start_date_time, end_date_time, patient_id, doctor_id) " +
+                    "VALUES (?, ?, ?, ?, ?)", rows);
+            visitsPerPatient = target;
+
+            long distinctNanos = time(() -> {
+                Long count = entityManager.createQuery(DISTINCT_JOIN_COUNT, Long.class)
+                        .setParameter("doctorIds", doctorIds)
+                        .getSingleResult();
+                assertEquals(PATIENTS, count);
+            });
+            long existsNanos = time(() ->
+                    assertEquals(PATIENTS, patientRepository.countBySearchAndDoctorIds(null, doctorIds)));
+
+            System.out.printf("%-18d %-14d %-16s %-14s%n", target, (long) target * PATIENTS,
+                    micros(distinctNanos), micros(existsNanos));
+        }
+    }
+
+    private static long time(Runnable query) {
+        // Warm-up rounds, then the average of the measured rounds
+        for (int i = 0; i < ROUNDS; i++) {
+            query.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            query.run();
+        }
+        return (System.nanoTime() - start) / ROUNDS;
+    }
+
+    private static String micros(long nanos) {
+        return (nanos / 1_000) + " us";
+    }
+}
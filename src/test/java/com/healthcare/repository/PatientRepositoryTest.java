@@ -0,0 +1,95 @@
+package com.healthcare.repository;
+
+import com.healthcare.entity.Doctor;
+import com.healthcare.entity.Patient;
+import com.healthcare.entity.Visit;
+import com.healthcare.repository.projection.PatientSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class PatientRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    private Doctor doctor1;
+    private Doctor doctor2;
+    private Patient patient1;
+    private Patient patient2;
+    private Patient patient3;
+
+    @BeforeEach
+    void setUp() {
+        doctor1 = entityManager.persist(new Doctor("John", "Smith", "America/New_York"));
+        doctor2 = entityManager.persist(new Doctor("Jane", "Doe", "America/Los_Angeles"));
+        patient1 = entityManager.persist(new Patient("Alice", "Johnson"));
+        patient2 = entityManager.persist(new Patient("Bob", "Wilson"));
+        patient3 = entityManager.persist(new Patient("Carol", "Jones"));
+
+        // patient1 has many visits to both doctors, patient2 one visit to doctor2, patient3 none
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        for (int i = 0; i < 5; i++) {
+            entityManager.persist(new Visit(start.plusDays(i), start.plusDays(i).plusHours(1), patient1, doctor1));
+            entityManager.persist(new Visit(start.plusDays(i).plusHours(2), start.plusDays(i).plusHours(3), patient1, doctor2));
+        }
+        entityManager.persist(new Visit(start.plusHours(4), start.plusHours(5), patient2, doctor2));
+        entityManager.flush();
+    }
+
+    @Test
+    void findBySearchAndDoctorIds_PatientWithManyVisits_ReturnedOnce() {
+        // Act
+        Page<PatientSummary> result = patientRepository.findBySearchAndDoctorIds(
+                null, List.of(doctor1.getId(), doctor2.getId()), PageRequest.of(0, 10, Sort.by("id")));
+
+        // Assert
+        assertEquals(2, result.getTotalElements());
+        assertEquals(List.of(patient1.getId(), patient2.getId()),
+                result.getContent().stream().map(PatientSummary::getId).toList());
+    }
+
+    @Test
+    void countBySearchAndDoctorIds_CountsPatientsNotVisits() {
+        assertEquals(1, patientRepository.countBySearchAndDoctorIds(null, List.of(doctor1.getId())));
+        assertEquals(2, patientRepository.countBySearchAndDoctorIds(null, List.of(doctor2.getId())));
+        assertEquals(1, patientRepository.countBySearchAndDoctorIds("wil", List.of(doctor1.getId(), doctor2.getId())));
+    }
+
+    @Test
+    void findBySearchAndDoctorIdsAfter_SkipsPatientsUpToCursor() {
+        // Act
+        List<PatientSummary> result = patientRepository.findBySearchAndDoctorIdsAfter(
+                null, List.of(doctor2.getId()), patient1.getId(), PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(List.of(patient2.getId()), result.stream().map(PatientSummary::getId).toList());
+    }
+
+    @Test
+    void findByNamePrefixAndDoctorIds_MatchesKeysAndDoctor() {
+        // Act
+        Page<PatientSummary> result = patientRepository.findByNamePrefixAndDoctorIds(
+                "jo%", List.of(doctor1.getId()), PageRequest.of(0, 10));
+
+        // Assert - patient3 matches the prefix but has no visits
+        assertEquals(1, result.getTotalElements());
+        assertEquals(patient1.getId(), result.getContent().get(0).getId());
+    }
+}
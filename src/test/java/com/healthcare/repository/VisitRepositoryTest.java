@@ -3,6 +3,7 @@ package com.healthcare.repository;
 import com.healthcare.entity.Doctor;
 import com.healthcare.entity.Patient;
 import com.healthcare.entity.Visit;
+import com.healthcare.repository.projection.VisitInterval;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -81,32 +82,6 @@ class VisitRepositoryTest {
         assertTrue(visits.stream().allMatch(v -> v.getPatient().getId().equals(patient1.getId())));
     }
 
-    @Test
-    void findLastVisitsByPatients_ReturnsVisitsForMultiplePatients() {
-        // Act
-        List<Visit> visits = visitRepository.findLastVisitsByPatients(
-                List.of(patient1.getId(), patient2.getId())
-        );
-
-        // Assert
-        assertEquals(3, visits.size());
-        assertTrue(visits.stream().anyMatch(v -> v.getPatient().getId().equals(patient1.getId())));
-        assertTrue(visits.stream().anyMatch(v -> v.getPatient().getId().equals(patient2.getId())));
-    }
-
-    @Test
-    void findLastVisitByPatientAndDoctor_ReturnsSpecificVisit() {
-        // Act
-        List<Visit> visits = visitRepository.findLastVisitByPatientAndDoctor(
-                patient1.getId(), doctor1.getId()
-        );
-
-        // Assert
-        assertEquals(1, visits.size());
-        assertEquals(patient1.getId(), visits.get(0).getPatient().getId());
-        assertEquals(doctor1.getId(), visits.get(0).getDoctor().getId());
-    }
-
     @Test
     void existsByDoctorIdAndDateTimeConflict_NoConflict_ReturnsFalse() {
         // Arrange
@@ -194,20 +169,29 @@ class VisitRepositoryTest {
     }
 
     @Test
-    void findLastVisitsByPatients_WithFetchJoins_LoadsAssociatedEntities() {
+    void save_AssignsIdsFromOnePooledBlockBeforeInserting() {
+        // Arrange
+        Visit first = new Visit(LocalDateTime.of(2024, 1, 15, 10, 0), LocalDateTime.of(2024, 1, 15, 11, 0), patient2, doctor2);
+        Visit second = new Visit(LocalDateTime.of(2024, 1, 16, 10, 0), LocalDateTime.of(2024, 1, 16, 11, 0), patient2, doctor2);
+
         // Act
-        List<Visit> visits = visitRepository.findLastVisitsByPatients(
-                List.of(patient1.getId(), patient2.getId())
-        );
+        visitRepository.saveAll(List.of(first, second));
+
+        // Assert - Both ids are known before the INSERTs are flushed
+        assertNotNull(first.getId());
+        assertEquals(first.getId() + 1, second.getId());
+        entityManager.flush();
+        assertEquals(5, visitRepository.count());
+    }
+
+    @Test
+    void findIntervalsByDoctorIdsBetween_ReturnsOnlyIntersectingVisits() {
+        // Act - visit3 of the same doctor lies outside the range
+        List<VisitInterval> intervals = visitRepository.findIntervalsByDoctorIdsBetween(
+                List.of(doctor1.getId()), visit1.getStartDateTime(), visit1.getEndDateTime());
 
         // Assert
-        assertNotNull(visits);
-        assertFalse(visits.isEmpty());
-        
-        // Verify that associated entities are loaded (no lazy loading exceptions)
-        for (Visit visit : visits) {
-            assertNotNull(visit.getPatient().getFirstName());
-            assertNotNull(visit.getDoctor().getFirstName());
-        }
+        assertEquals(1, intervals.size());
+        assertEquals(doctor1.getId(), intervals.get(0).getDoctorId());
     }
 }
@@ -0,0 +1,170 @@
+package com.healthcare.search;
+
+import com.healthcare.entity.Patient;
+import com.healthcare.event.EntityChangeType;
+import com.healthcare.event.EntityChangedEvent;
+import com.healthcare.repository.PatientRepository;
+import com.healthcare.repository.projection.PatientSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PatientNameIndexTest {
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    private PatientNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PatientNameIndex(patientRepository, true);
+    }
+
+    @Test
+    void run_LoadsAllPatientNames() {
+        // Arrange
+        when(patientRepository.streamAllSummaries()).thenReturn(Stream.of(
+                new PatientSummary(1L, "John", "Doe"),
+                new PatientSummary(2L, "Jane", "Smith")));
+
+        // Act
+        index.run(null);
+
+        // Assert
+        assertTrue(index.isReady());
+        assertEquals(2, index.size());
+        assertArrayEquals(new long[]{1L}, index.search("hn d"));
+    }
+
+    @Test
+    void search_MatchesSubstringsCaseAndAccentInsensitively() {
+        // Arrange
+        index.put(3L, NameNormalizer.fullName("José", "Müller"));
+        index.put(1L, NameNormalizer.fullName("Joseph", "Miller"));
+        index.put(2L, NameNormalizer.fullName("Anna", "Joseva"));
+        index.markReady();
+
+        // Act & Assert
+        assertArrayEquals(new long[]{1L, 2L, 3L}, index.search("JOSE"));
+        assertArrayEquals(new long[]{3L}, index.search("se mü"));
+        assertArrayEquals(new long[]{3L}, index.search("muller"));
+        assertArrayEquals(new long[0], index.search("xyz"));
+    }
+
+    @Test
+    void search_TermsTheIndexCannotAnswer_ReturnNull() {
+        // Arrange
+        index.put(1L, NameNormalizer.fullName("John", "Doe"));
+
+        // Act & Assert - not loaded yet
+        assertNull(index.search("john"));
+
+        index.markReady();
+        assertNull(index.search(null));
+        assertNull(index.search("jo"));
+        assertNull(index.search("jo%n"));
+        assertNull(index.search("j_hn"));
+    }
+
+    @Test
+    void onEntityChanged_RenameAndDelete_UpdatePostings() {
+        // Arrange
+        index.markReady();
+        Patient patient = new Patient("John", "Doe");
+        patient.setId(1L);
+        index.onEntityChanged(new EntityChangedEvent(patient, EntityChangeType.CREATED));
+
+        // Act
+        patient.setLastName("Smith");
+        index.onEntityChanged(new EntityChangedEvent(patient, EntityChangeType.UPDATED));
+
+        // Assert
+        assertArrayEquals(new long[0], index.search("doe"));
+        assertArrayEquals(new long[]{1L}, index.search("smith"));
+
+        index.onEntityChanged(new EntityChangedEvent(patient, EntityChangeType.DELETED));
+        assertArrayEquals(new long[0], index.search("smith"));
+    }
+
+    @Test
+    void onEntityChanged_InTransaction_AppliesLatestNamesOnCommitOnly() {
+        // Arrange
+        index.put(1L, NameNormalizer.fullName("John", "Doe"));
+        index.markReady();
+        Patient existing = new Patient("John", "Smith");
+        existing.setId(1L);
+        Patient created = new Patient("Jane", "Doe");
+        created.setId(2L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            index.onEntityChanged(new EntityChangedEvent(existing, EntityChangeType.UPDATED));
+            existing.setLastName("Jones");
+            index.onEntityChanged(new EntityChangedEvent(existing, EntityChangeType.UPDATED));
+            index.onEntityChanged(new EntityChangedEvent(created, EntityChangeType.CREATED));
+
+            // Assert - nothing is visible before the commit
+            assertArrayEquals(new long[0], index.search("jones"));
+            assertArrayEquals(new long[]{1L}, index.search("doe"));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertArrayEquals(new long[]{1L}, index.search("jones"));
+        assertArrayEquals(new long[0], index.search("smith"));
+        assertArrayEquals(new long[]{2L}, index.search("doe"));
+    }
+
+    @Test
+    void onEntityChanged_RolledBackTransaction_LeavesIndexAlone() {
+        // Arrange
+        index.put(1L, NameNormalizer.fullName("John", "Doe"));
+        index.markReady();
+        Patient existing = new Patient("John", "Jones");
+        existing.setId(1L);
+        Patient created = new Patient("Jane", "Doe");
+        created.setId(2L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            index.onEntityChanged(new EntityChangedEvent(existing, EntityChangeType.UPDATED));
+            index.onEntityChanged(new EntityChangedEvent(created, EntityChangeType.CREATED));
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        assertArrayEquals(new long[]{1L}, index.search("doe"));
+        assertArrayEquals(new long[0], index.search("jones"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void constructor_EnabledWithDatabaseLocks_RefusesToStart() {
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> new PatientNameIndex(patientRepository, true, "database"));
+        assertTrue(exception.getMessage().contains("app.booking.lock.type=database"));
+
+        assertDoesNotThrow(() -> new PatientNameIndex(patientRepository, false, "database"));
+    }
+}
@@ -0,0 +1,156 @@
+package com.healthcare.service;
+
+import com.healthcare.entity.DoctorPatientStats;
+import com.healthcare.entity.Patient;
+import com.healthcare.event.EntityChangeType;
+import com.healthcare.event.EntityChangedEvent;
+import com.healthcare.repository.DataVersionRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.ActionQueue;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DataVersionServiceTest {
+
+    @Mock
+    private DataVersionRepository dataVersionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private SessionImplementor session;
+
+    @Mock
+    private ActionQueue actionQueue;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private DataVersionService dataVersionService;
+
+    @BeforeEach
+    void setUp() {
+        dataVersionService = new DataVersionService(dataVersionRepository, transactionManager, entityManager, jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.unbindResourceIfPossible(dataVersionService);
+    }
+
+    @Test
+    void markChanged_SeveralChangesInTransaction_IncrementsOnceBeforeCommit() {
+        beginTransaction();
+        when(jdbcTemplate.update(anyString(), eq(DataVersionService.PATIENTS_LIST))).thenReturn(1);
+
+        dataVersionService.onEntityChanged(new EntityChangedEvent(new Patient("Jane", "Doe"), EntityChangeType.CREATED));
+        dataVersionService.markChanged();
+
+        // Nothing is written until Hibernate completes the transaction
+        ArgumentCaptor<BeforeTransactionCompletionProcess> process =
+                ArgumentCaptor.forClass(BeforeTransactionCompletionProcess.class);
+        verify(actionQueue, times(1)).registerProcess(process.capture());
+        verifyNoInteractions(jdbcTemplate);
+
+        process.getValue().doBeforeTransactionCompletion(session);
+        verify(jdbcTemplate, times(1)).update(
+                "UPDATE data_versions SET version = version + 1 WHERE name = ?", DataVersionService.PATIENTS_LIST);
+        verifyNoInteractions(transactionManager);
+
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        assertFalse(TransactionSynchronizationManager.hasResource(dataVersionService));
+    }
+
+    @Test
+    void markChanged_RolledBack_LeavesVersionAlone() {
+        beginTransaction();
+
+        dataVersionService.markChanged();
+        // Hibernate only runs the process when committing
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verifyNoInteractions(jdbcTemplate);
+        assertFalse(TransactionSynchronizationManager.hasResource(dataVersionService));
+    }
+
+    @Test
+    void markChanged_NoTransaction_IncrementsImmediately() {
+        when(jdbcTemplate.update(anyString(), eq(DataVersionService.PATIENTS_LIST))).thenReturn(1);
+
+        dataVersionService.markChanged();
+
+        verify(jdbcTemplate, times(1)).update(anyString(), eq(DataVersionService.PATIENTS_LIST));
+        verify(transactionManager).commit(any());
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void markChanged_MissingRow_CreatesIt() {
+        when(jdbcTemplate.update(anyString(), eq(DataVersionService.PATIENTS_LIST))).thenReturn(0);
+
+        dataVersionService.markChanged();
+
+        verify(jdbcTemplate).update(eq("INSERT INTO data_versions (name, version) VALUES (?, ?)"),
+                eq(DataVersionService.PATIENTS_LIST), anyLong());
+    }
+
+    @Test
+    void onEntityChanged_UntrackedEntity_IsIgnored() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        dataVersionService.onEntityChanged(new EntityChangedEvent(new DoctorPatientStats(), EntityChangeType.UPDATED));
+
+        assertTrue(TransactionSynchronizationManager.getSynchronizations().isEmpty());
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void currentVersion_MissingRow_ReturnsZero() {
+        when(dataVersionRepository.findVersionByName(DataVersionService.PATIENTS_LIST)).thenReturn(Optional.empty());
+
+        assertEquals(0L, dataVersionService.currentVersion());
+    }
+
+    private void beginTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        when(entityManager.unwrap(SessionImplementor.class)).thenReturn(session);
+        when(session.getActionQueue()).thenReturn(actionQueue);
+    }
+
+    private void completeTransaction(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(status);
+        }
+    }
+}
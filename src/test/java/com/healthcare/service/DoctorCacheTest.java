@@ -0,0 +1,126 @@
+package com.healthcare.service;
+
+import com.healthcare.entity.Doctor;
+import com.healthcare.event.EntityChangeType;
+import com.healthcare.event.EntityChangedEvent;
+import com.healthcare.repository.DoctorRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DoctorCacheTest {
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @InjectMocks
+    private DoctorCache doctorCache;
+
+    private Doctor doctor;
+
+    @BeforeEach
+    void setUp() {
+        doctor = new Doctor("John", "Smith", "America/New_York");
+        doctor.setId(1L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(doctorCache);
+    }
+
+    @Test
+    void find_Preloaded_ReturnsDetachedCopyWithoutQuery() {
+        when(doctorRepository.findAll()).thenReturn(List.of(doctor));
+        doctorCache.run(null);
+
+        Doctor found = doctorCache.find(1L).orElseThrow();
+
+        assertNotSame(doctor, found);
+        assertEquals(1L, found.getId());
+        assertEquals("America/New_York", found.getTimezone());
+        verify(doctorRepository, never()).findById(any());
+    }
+
+    @Test
+    void find_Miss_ReadsThroughOnce() {
+        when(doctorRepository.findById(1L)).thenReturn(Optional.of(doctor));
+
+        assertTrue(doctorCache.find(1L).isPresent());
+        assertTrue(doctorCache.find(1L).isPresent());
+
+        verify(doctorRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void find_Miss_ReturnsDetachedCopyOfLoadedDoctor() {
+        when(doctorRepository.findById(1L)).thenReturn(Optional.of(doctor));
+
+        Doctor found = doctorCache.find(1L).orElseThrow();
+
+        assertNotSame(doctor, found);
+        assertEquals(1L, found.getId());
+        assertEquals("America/New_York", found.getTimezone());
+    }
+
+    @Test
+    void findAll_Miss_ReturnsDetachedCopiesOfLoadedDoctors() {
+        when(doctorRepository.findAllById(List.of(1L))).thenReturn(List.of(doctor));
+
+        Doctor found = doctorCache.findAll(List.of(1L)).get(1L);
+
+        assertNotSame(doctor, found);
+        assertEquals(1L, found.getId());
+        assertEquals("John", found.getFirstName());
+    }
+
+    @Test
+    void find_Unknown_IsNotCached() {
+        when(doctorRepository.findById(2L)).thenReturn(Optional.empty());
+
+        assertTrue(doctorCache.find(2L).isEmpty());
+        assertTrue(doctorCache.find(2L).isEmpty());
+
+        verify(doctorRepository, times(2)).findById(2L);
+        assertEquals(0, doctorCache.size());
+    }
+
+    @Test
+    void onEntityChanged_DoctorUpdatedInTransaction_EvictsAndRereadsAfterCompletion() {
+        when(doctorRepository.findById(1L)).thenReturn(Optional.of(doctor));
+        doctorCache.find(1L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        doctor.setTimezone("Europe/Kyiv");
+        doctorCache.onEntityChanged(new EntityChangedEvent(doctor, EntityChangeType.UPDATED));
+
+        // The writing transaction reads its own change but does not cache it
+        assertEquals("Europe/Kyiv", doctorCache.find(1L).orElseThrow().getTimezone());
+        assertEquals(0, doctorCache.size());
+
+        TransactionSynchronizationUtils.invokeAfterCompletion(
+                TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_COMMITTED);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertEquals("Europe/Kyiv", doctorCache.find(1L).orElseThrow().getTimezone());
+        assertEquals(1, doctorCache.size());
+        verify(doctorRepository, times(3)).findById(1L);
+    }
+}
@@ -0,0 +1,218 @@
+package com.healthcare.service;
+
+import com.healthcare.entity.Doctor;
+import com.healthcare.entity.Patient;
+import com.healthcare.entity.Visit;
+import com.healthcare.event.EntityChangeType;
+import com.healthcare.event.EntityChangedEvent;
+import com.healthcare.repository.VisitRepository;
+import com.healthcare.repository.projection.VisitInterval;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DoctorScheduleIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 15, 8, 0);
+
+    @Mock
+    private VisitRepository visitRepository;
+
+    private final List<Runnable> pendingLoads = new ArrayList<>();
+    private DoctorScheduleIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new DoctorScheduleIndex(visitRepository, true, Duration.ofDays(1), Duration.ofDays(30),
+                () -> NOW, pendingLoads::add, TransactionOperations.withoutTransaction());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void hasConflict_Cold_AsksDatabaseAndLoadsInBackground() {
+        when(visitRepository.findIntervalsByDoctorIdsBetween(anyCollection(), any(), any()))
+                .thenReturn(List.of(interval("10:00", "11:00")));
+
+        assertFalse(index.hasConflict(1L, at("12:00"), at("13:00")));
+        verify(visitRepository, times(1)).existsByDoctorIdAndDateTimeConflict(1L, at("12:00"), at("13:00"));
+        assertEquals(1, pendingLoads.size());
+
+        runLoads();
+        verify(visitRepository).findIntervalsByDoctorIdsBetween(List.of(1L), NOW.minusDays(1), NOW.plusDays(30));
+
+        assertTrue(index.hasConflict(1L, at("10:30"), at("11:30")));
+        assertFalse(index.hasConflict(1L, at("11:00"), at("12:00")));
+        verify(visitRepository, times(1)).existsByDoctorIdAndDateTimeConflict(any(), any(), any());
+        assertTrue(pendingLoads.isEmpty());
+        assertEquals(1, index.loadedDoctors());
+    }
+
+    @Test
+    void hasConflict_RangeOutsideWindow_AsksDatabase() {
+        load(1L);
+
+        index.hasConflict(1L, NOW.minusDays(2), NOW.minusDays(2).plusHours(1));
+        index.hasConflict(1L, NOW.plusDays(30), NOW.plusDays(30).plusHours(1));
+
+        verify(visitRepository, times(2)).existsByDoctorIdAndDateTimeConflict(eq(1L), any(), any());
+    }
+
+    @Test
+    void hasConflict_Loaded_MatchesRepositoryPredicate() {
+        // Non-overlapping visits with gaps, touching neighbours and zero-length ones
+        Random random = new Random(42);
+        List<VisitInterval> stored = new ArrayList<>();
+        LocalDateTime cursor = NOW;
+        for (int i = 0; i < 200; i++) {
+            cursor = cursor.plusMinutes(15L * random.nextInt(3));
+            LocalDateTime end = cursor.plusMinutes(15L * random.nextInt(5));
+            stored.add(new VisitInterval(1L, cursor, end));
+            cursor = end.equals(cursor) ? end.plusMinutes(15) : end;
+        }
+        when(visitRepository.findIntervalsByDoctorIdsBetween(anyCollection(), any(), any())).thenReturn(stored);
+        index.hasConflict(1L, NOW, NOW);
+        runLoads();
+        clearInvocations(visitRepository);
+
+        for (int i = 0; i < 2000; i++) {
+            LocalDateTime start = NOW.plusMinutes(15L * random.nextInt(400));
+            LocalDateTime end = start.plusMinutes(15L * random.nextInt(8));
+            boolean expected = stored.stream().anyMatch(visit -> VisitBatchService.conflicts(
+                    start, end, visit.getStartDateTime(), visit.getEndDateTime()));
+            assertEquals(expected, index.hasConflict(1L, start, end), () -> start + " - " + end);
+        }
+        verify(visitRepository, never()).existsByDoctorIdAndDateTimeConflict(any(), any(), any());
+    }
+
+    @Test
+    void hasConflict_OverlappingStoredVisits_AlwaysAsksDatabase() {
+        when(visitRepository.findIntervalsByDoctorIdsBetween(anyCollection(), any(), any()))
+                .thenReturn(List.of(interval("10:00", "11:00"), interval("10:30", "11:30")));
+        index.hasConflict(1L, at("12:00"), at("13:00"));
+        runLoads();
+
+        index.hasConflict(1L, at("12:00"), at("13:00"));
+
+        verify(visitRepository, times(2)).existsByDoctorIdAndDateTimeConflict(eq(1L), any(), any());
+        // Not reloaded on every check
+        assertTrue(pendingLoads.isEmpty());
+        assertEquals(0, index.loadedDoctors());
+    }
+
+    @Test
+    void onEntityChanged_CreatedVisit_AddedOnlyAfterCommit() {
+        load(1L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        index.onEntityChanged(new EntityChangedEvent(visit(1L, "10:00", "11:00"), EntityChangeType.CREATED));
+        assertFalse(index.hasConflict(1L, at("10:30"), at("11:30")));
+
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        assertTrue(index.hasConflict(1L, at("10:30"), at("11:30")));
+        verify(visitRepository, never()).existsByDoctorIdAndDateTimeConflict(any(), any(), any());
+    }
+
+    @Test
+    void onEntityChanged_UpdatedVisit_SendsDoctorBackToDatabaseUntilReloaded() {
+        load(1L);
+
+        index.onEntityChanged(new EntityChangedEvent(visit(1L, "10:00", "11:00"), EntityChangeType.UPDATED));
+        index.hasConflict(1L, at("10:30"), at("11:30"));
+
+        verify(visitRepository, times(1)).existsByDoctorIdAndDateTimeConflict(eq(1L), any(), any());
+        assertEquals(1, pendingLoads.size());
+    }
+
+    @Test
+    void install_VisitCommittedWhileLoading_DiscardsTheLoad() {
+        when(visitRepository.findIntervalsByDoctorIdsBetween(anyCollection(), any(), any())).thenReturn(List.of());
+        index.hasConflict(1L, at("12:00"), at("13:00"));
+
+        // Committed after the load read the table
+        index.onEntityChanged(new EntityChangedEvent(visit(1L, "10:00", "11:00"), EntityChangeType.CREATED));
+        runLoads();
+
+        assertEquals(0, index.loadedDoctors());
+        when(visitRepository.existsByDoctorIdAndDateTimeConflict(eq(1L), any(), any())).thenReturn(true);
+        assertTrue(index.hasConflict(1L, at("10:30"), at("11:30")));
+    }
+
+    @Test
+    void hasConflict_Disabled_AlwaysAsksDatabase() {
+        index = new DoctorScheduleIndex(visitRepository, false, Duration.ofDays(1), Duration.ofDays(30),
+                () -> NOW, pendingLoads::add, TransactionOperations.withoutTransaction());
+
+        index.hasConflict(1L, at("10:00"), at("11:00"));
+        index.hasConflict(1L, at("10:00"), at("11:00"));
+
+        verify(visitRepository, times(2)).existsByDoctorIdAndDateTimeConflict(eq(1L), any(), any());
+        assertTrue(pendingLoads.isEmpty());
+    }
+
+    @Test
+    void constructor_EnabledWithDatabaseLocks_RefusesToStart() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> new DoctorScheduleIndex(
+                visitRepository, true, Duration.ofDays(1), Duration.ofDays(30), "database", transactionManager));
+        assertTrue(exception.getMessage().contains("app.booking.lock.type=database"));
+
+        // Disabled, the index does not care which locks are used
+        assertFalse(new DoctorScheduleIndex(visitRepository, false, Duration.ofDays(1), Duration.ofDays(30),
+                "database", transactionManager).isEnabled());
+    }
+
+    private void load(Long doctorId) {
+        lenient().when(visitRepository.findIntervalsByDoctorIdsBetween(anyCollection(), any(), any()))
+                .thenReturn(List.of());
+        index.hasConflict(doctorId, NOW, NOW);
+        runLoads();
+        clearInvocations(visitRepository);
+    }
+
+    private void runLoads() {
+        List<Runnable> loads = new ArrayList<>(pendingLoads);
+        pendingLoads.clear();
+        loads.forEach(Runnable::run);
+    }
+
+    private static LocalDateTime at(String time) {
+        return LocalDateTime.parse("2024-01-15T" + time + ":00");
+    }
+
+    private static VisitInterval interval(String start, String end) {
+        return new VisitInterval(1L, at(start), at(end));
+    }
+
+    private static Visit visit(Long doctorId, String start, String end) {
+        Doctor doctor = new Doctor("John", "Smith", "UTC");
+        doctor.setId(doctorId);
+        return new Visit(at(start), at(end), new Patient("Jane", "Doe"), doctor);
+    }
+}
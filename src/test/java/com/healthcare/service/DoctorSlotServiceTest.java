@@ -0,0 +1,105 @@
+package com.healthcare.service;
+
+import com.healthcare.entity.Doctor;
+import com.healthcare.entity.Patient;
+import com.healthcare.entity.Visit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DoctorSlotServiceTest {
+
+    private static final LocalDateTime TEN = LocalDateTime.of(2024, 1, 15, 10, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private DoctorSlotService doctorSlotService;
+
+    @BeforeEach
+    void setUp() {
+        doctorSlotService = new DoctorSlotService(jdbcTemplate, ConflictEngine.SLOTS);
+    }
+
+    @Test
+    void validationError_RequiresGridAlignedPositiveLength() {
+        assertNull(doctorSlotService.validationError(TEN, TEN.plusMinutes(45)));
+        assertEquals("Visit times must be on 15-minute boundaries",
+                doctorSlotService.validationError(TEN.plusMinutes(5), TEN.plusMinutes(45)));
+        assertEquals("Visit times must be on 15-minute boundaries",
+                doctorSlotService.validationError(TEN, TEN.plusMinutes(45).plusSeconds(1)));
+        assertEquals("Visit must last at least one 15-minute slot", doctorSlotService.validationError(TEN, TEN));
+    }
+
+    @Test
+    void slotsCovering_ClaimsEverySlotTouched() {
+        assertEquals(List.of(TEN, TEN.plusMinutes(15)), DoctorSlotService.slotsCovering(TEN, TEN.plusMinutes(30)));
+        // Off-grid visits from before the engine was enabled
+        assertEquals(List.of(TEN, TEN.plusMinutes(15)),
+                DoctorSlotService.slotsCovering(TEN.plusMinutes(5), TEN.plusMinutes(20)));
+        assertEquals(List.of(TEN), DoctorSlotService.slotsCovering(TEN.plusMinutes(7), TEN.plusMinutes(7)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void claim_InsertsOneRowPerSlotInOneBatch() {
+        doctorSlotService.claim(List.of(visit(7L, TEN, TEN.plusHours(1)), visit(8L, TEN.plusHours(2), TEN.plusMinutes(135))));
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), rows.capture());
+        assertEquals(5, rows.getValue().size());
+        assertArrayEquals(new Object[]{1L, Timestamp.valueOf(TEN.plusMinutes(45)), 7L}, rows.getValue().get(3));
+        assertArrayEquals(new Object[]{1L, Timestamp.valueOf(TEN.plusHours(2)), 8L}, rows.getValue().get(4));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void claim_VisitsOutOfOrder_InsertsSlotsInKeyOrder() {
+        Visit later = visit(7L, TEN.plusHours(1), TEN.plusMinutes(75));
+        Visit earlier = visit(8L, TEN, TEN.plusMinutes(30));
+        Visit otherDoctor = visit(9L, TEN.minusHours(1), TEN.minusMinutes(45));
+        otherDoctor.getDoctor().setId(2L);
+
+        doctorSlotService.claim(List.of(otherDoctor, later, earlier));
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture());
+        assertArrayEquals(new Object[]{1L, Timestamp.valueOf(TEN), 8L}, rows.getValue().get(0));
+        assertArrayEquals(new Object[]{1L, Timestamp.valueOf(TEN.plusMinutes(15)), 8L}, rows.getValue().get(1));
+        assertArrayEquals(new Object[]{1L, Timestamp.valueOf(TEN.plusHours(1)), 7L}, rows.getValue().get(2));
+        assertArrayEquals(new Object[]{2L, Timestamp.valueOf(TEN.minusHours(1)), 9L}, rows.getValue().get(3));
+    }
+
+    @Test
+    void claim_SlotTaken_ThrowsConflict() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new DuplicateKeyException("doctor_slots"));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> doctorSlotService.claim(List.of(visit(7L, TEN, TEN.plusHours(1)))));
+
+        assertEquals("Doctor has conflicting visit at this time", exception.getMessage());
+    }
+
+    private static Visit visit(Long id, LocalDateTime start, LocalDateTime end) {
+        Doctor doctor = new Doctor("John", "Smith", "UTC");
+        doctor.setId(1L);
+        Visit visit = new Visit(start, end, new Patient("Jane", "Doe"), doctor);
+        visit.setId(id);
+        return visit;
+    }
+}
@@ -0,0 +1,111 @@
+package com.healthcare.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ParallelQueryExecutorTest {
+
+    private final ParallelQueryExecutor queryExecutor = new ParallelQueryExecutor(
+            true, 2, 4, Duration.ofSeconds(1), 10, mock(PlatformTransactionManager.class));
+
+    @AfterEach
+    void tearDown() {
+        queryExecutor.shutdown();
+    }
+
+    @Test
+    void submit_TwoBranches_RunConcurrently() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        ParallelQueryExecutor.Branch<Boolean> first = queryExecutor.submit("first", () -> awaitOther(bothStarted));
+        ParallelQueryExecutor.Branch<Boolean> second = queryExecutor.submit("second", () -> awaitOther(bothStarted));
+
+        // Each branch only finishes once the other one has started
+        assertTrue(first.join());
+        assertTrue(second.join());
+    }
+
+    @Test
+    void join_FailedBranch_RethrowsOriginalException() {
+        ParallelQueryExecutor.Branch<Long> branch = queryExecutor.submit("failing", () -> {
+            throw new IllegalArgumentException("Broken query");
+        });
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, branch::join);
+        assertEquals("Broken query", exception.getMessage());
+    }
+
+    @Test
+    void join_BranchExceedsTimeout_ThrowsAndInterruptsIt() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        ParallelQueryExecutor.Branch<Long> branch = queryExecutor.submit("slow", () -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return 0L;
+        });
+
+        assertThrows(QueryTimeoutException.class, branch::join);
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void submit_NoBranchSlotFree_DeclinesUntilRunningBranchFinishes() throws Exception {
+        // A pool of 3 connections leaves room for one caller waiting on one branch
+        ParallelQueryExecutor small = new ParallelQueryExecutor(
+                true, 4, 4, Duration.ofSeconds(1), 3, mock(PlatformTransactionManager.class));
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            ParallelQueryExecutor.Branch<Long> first = small.submit("first", () -> {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return 1L;
+            });
+
+            assertNull(small.submit("second", () -> 2L));
+            release.countDown();
+            assertEquals(1L, first.join());
+
+            ParallelQueryExecutor.Branch<Long> second = small.submit("second", () -> 2L);
+            assertNotNull(second);
+            assertEquals(2L, second.join());
+        } finally {
+            small.shutdown();
+        }
+    }
+
+    @Test
+    void isEnabled_ConnectionPoolTooSmallForBranches_IsFalse() {
+        ParallelQueryExecutor tiny = new ParallelQueryExecutor(
+                true, 4, 4, Duration.ofSeconds(1), 2, mock(PlatformTransactionManager.class));
+        try {
+            assertFalse(tiny.isEnabled());
+        } finally {
+            tiny.shutdown();
+        }
+    }
+
+    private static Boolean awaitOther(CountDownLatch bothStarted) {
+        bothStarted.countDown();
+        try {
+            return bothStarted.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -4,20 +4,27 @@ import com.healthcare.dto.*;
 import com.healthcare.entity.Doctor;
 import com.healthcare.entity.Patient;
 import com.healthcare.entity.Visit;
-import com.healthcare.repository.DoctorRepository;
+import com.healthcare.repository.PatientDoctorLastVisitRepository;
 import com.healthcare.repository.PatientRepository;
-import com.healthcare.repository.VisitRepository;
+import com.healthcare.repository.projection.LastVisitView;
+import com.healthcare.repository.projection.PatientSummary;
+import com.healthcare.search.PatientNameIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.ArgumentCaptor;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Arrays;
@@ -34,16 +41,33 @@ class PatientServiceTest {
     private PatientRepository patientRepository;
 
     @Mock
-    private VisitRepository visitRepository;
+    private PatientDoctorLastVisitRepository lastVisitRepository;
 
     @Mock
-    private DoctorRepository doctorRepository;
+    private PatientCountCache countCache;
+
+    @Mock
+    private PatientsListCache resultCache;
+
+    @Mock
+    private PatientNameIndex nameIndex;
+
+    @Mock
+    private ParallelQueryExecutor queryExecutor;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private TimeZoneConverter timeZoneConverter = new TimeZoneConverter();
 
     @InjectMocks
     private PatientService patientService;
 
     private Patient patient1;
     private Patient patient2;
+    private PatientSummary summary1;
+    private PatientSummary summary2;
     private Doctor doctor1;
     private Doctor doctor2;
     private Visit visit1;
@@ -57,6 +81,9 @@ class PatientServiceTest {
         patient2 = new Patient("Jane", "Smith");
         patient2.setId(2L);
 
+        summary1 = new PatientSummary(1L, "John", "Doe");
+        summary2 = new PatientSummary(2L, "Jane", "Smith");
+
         doctor1 = new Doctor("Dr. Alice", "Johnson", "America/New_York");
         doctor1.setId(1L);
 
@@ -83,19 +110,14 @@ class PatientServiceTest {
     @Test
     void getPatientsList_DefaultParameters_ReturnsPaginatedResults() {
         // Arrange
-        List<Patient> patients = Arrays.asList(patient1, patient2);
-        Page<Patient> patientPage = new PageImpl<>(patients, PageRequest.of(0, 20), 2);
-        List<Visit> visits = Arrays.asList(visit1, visit2);
-        Object[] countResult1 = {1L, 5L}; // doctorId, count
-        Object[] countResult2 = {2L, 3L}; // doctorId, count
+        List<PatientSummary> patients = Arrays.asList(summary1, summary2);
+        Page<PatientSummary> patientPage = new PageImpl<>(patients, PageRequest.of(0, 20), 2);
+        List<LastVisitView> visits = Arrays.asList(lastVisit(visit1, 5L), lastVisit(visit2, 3L));
 
         when(patientRepository.findBySearchCriteria(eq(null), any(Pageable.class)))
                 .thenReturn(patientPage);
-        when(visitRepository.findLastVisitsByPatients(Arrays.asList(1L, 2L)))
+        when(lastVisitRepository.findViewsByPatientIds(Arrays.asList(1L, 2L)))
                 .thenReturn(visits);
-        List<Object[]> countResults = Arrays.<Object[]>asList(countResult1, countResult2);
-        when(doctorRepository.countDistinctPatientsByDoctorIds(Arrays.asList(1L, 2L)))
-                .thenReturn(countResults);
 
         // Act
         PatientsListResponse result = patientService.getPatientsList(null, null, null, null);
@@ -112,25 +134,91 @@ class PatientServiceTest {
         assertNotNull(patientResponse.getLastVisits());
 
         verify(patientRepository, times(1)).findBySearchCriteria(eq(null), any(Pageable.class));
-        verify(visitRepository, times(1)).findLastVisitsByPatients(Arrays.asList(1L, 2L));
-        verify(doctorRepository, times(1)).countDistinctPatientsByDoctorIds(Arrays.asList(1L, 2L));
+        verify(lastVisitRepository, times(1)).findViewsByPatientIds(Arrays.asList(1L, 2L));
+    }
+
+    @Test
+    void getPatientsList_CachedResponse_SkipsQueries() {
+        PatientsListResponse cached = new PatientsListResponse(List.of(), 0L);
+        when(resultCache.get(any(PatientsListRequest.class))).thenReturn(cached);
+
+        PatientsListResponse result = patientService.getPatientsList(null, null, null, null);
+
+        assertSame(cached, result);
+        verifyNoInteractions(patientRepository, lastVisitRepository, transactionManager);
+    }
+
+    @Test
+    void getPatientsList_CacheMiss_StoresResponseWithShownPatientsAndDoctors() {
+        Page<PatientSummary> patientPage = new PageImpl<>(Arrays.asList(summary1, summary2), PageRequest.of(0, 20), 2);
+        when(resultCache.stamp()).thenReturn(42L);
+        when(patientRepository.findBySearchCriteria(eq(null), any(Pageable.class))).thenReturn(patientPage);
+        when(lastVisitRepository.findViewsByPatientIds(Arrays.asList(1L, 2L)))
+                .thenReturn(Arrays.asList(lastVisit(visit1, 5L), lastVisit(visit2, 3L)));
+
+        PatientsListResponse result = patientService.getPatientsList(null, null, null, null);
+
+        ArgumentCaptor<PatientsListCache.Dependencies> dependencies =
+                ArgumentCaptor.forClass(PatientsListCache.Dependencies.class);
+        verify(resultCache).put(any(PatientsListRequest.class), same(result), dependencies.capture(), eq(42L));
+
+        // Only entries showing patient 1 or 2, doctor 1 or 2, or filtering by those doctors match
+        PatientsListCache cache = new PatientsListCache(true, Duration.ofMinutes(1), 100,
+                System::nanoTime, Runnable::run);
+        PatientsListRequest request = new PatientsListRequest(null, null, null, null);
+        cache.put(request, result, dependencies.getValue(), cache.stamp());
+        cache.invalidateVisit(3L, 3L);
+        assertSame(result, cache.get(request));
+        cache.invalidateVisit(3L, 2L);
+        assertNull(cache.get(request));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getPatientsList_ParallelQueries_CountsOnExecutorInsteadOfPageQuery() {
+        ParallelQueryExecutor.Branch<Long> countBranch = mock(ParallelQueryExecutor.Branch.class);
+        when(countBranch.join()).thenReturn(2L);
+        when(queryExecutor.isEnabled()).thenReturn(true);
+        when(queryExecutor.submit(anyString(), any())).thenReturn((ParallelQueryExecutor.Branch) countBranch);
+        when(patientRepository.findSliceBySearchCriteria(eq(null), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Arrays.asList(summary1, summary2)));
+        when(lastVisitRepository.findViewsByPatientIds(Arrays.asList(1L, 2L))).thenReturn(List.of());
+
+        PatientsListResponse result = patientService.getPatientsList(null, null, null, null);
+
+        assertEquals(2, result.getData().size());
+        assertEquals(2L, result.getCount());
+        assertTrue(result.getCountExact());
+        verify(patientRepository, never()).findBySearchCriteria(any(), any(Pageable.class));
+        verify(countCache).put(SearchMode.CONTAINS, null, null, 2L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getPatientsList_ParallelQueries_PageFailureCancelsCount() {
+        ParallelQueryExecutor.Branch<Long> countBranch = mock(ParallelQueryExecutor.Branch.class);
+        when(queryExecutor.isEnabled()).thenReturn(true);
+        when(queryExecutor.submit(anyString(), any())).thenReturn((ParallelQueryExecutor.Branch) countBranch);
+        when(patientRepository.findSliceBySearchCriteria(eq(null), any(Pageable.class)))
+                .thenThrow(new IllegalStateException("Connection lost"));
+
+        assertThrows(IllegalStateException.class, () -> patientService.getPatientsList(null, null, null, null));
+
+        verify(countBranch).cancel();
+        verify(countBranch, never()).join();
     }
 
     @Test
     void getPatientsList_WithSearchCriteria_ReturnsFilteredResults() {
         // Arrange
-        List<Patient> patients = Arrays.asList(patient1);
-        Page<Patient> patientPage = new PageImpl<>(patients, PageRequest.of(0, 20), 1);
-        List<Visit> visits = Arrays.asList(visit1);
-        Object[] countResult = {1L, 5L};
+        List<PatientSummary> patients = Arrays.asList(summary1);
+        Page<PatientSummary> patientPage = new PageImpl<>(patients, PageRequest.of(0, 20), 1);
+        List<LastVisitView> visits = Arrays.asList(lastVisit(visit1, 5L));
 
         when(patientRepository.findBySearchCriteria(eq("John"), any(Pageable.class)))
                 .thenReturn(patientPage);
-        when(visitRepository.findLastVisitsByPatients(Arrays.asList(1L)))
+        when(lastVisitRepository.findViewsByPatientIds(Arrays.asList(1L)))
                 .thenReturn(visits);
-        List<Object[]> countResults = Arrays.<Object[]>asList(countResult);
-        when(doctorRepository.countDistinctPatientsByDoctorIds(Arrays.asList(1L)))
-                .thenReturn(countResults);
 
         // Act
         PatientsListResponse result = patientService.getPatientsList(null, null, "John", null);
@@ -146,18 +234,14 @@ class PatientServiceTest {
     @Test
     void getPatientsList_WithDoctorIdsFilter_ReturnsFilteredResults() {
         // Arrange
-        List<Patient> patients = Arrays.asList(patient1);
-        Page<Patient> patientPage = new PageImpl<>(patients, PageRequest.of(0, 20), 1);
-        List<Visit> visits = Arrays.asList(visit1);
-        Object[] countResult = {1L, 5L};
+        List<PatientSummary> patients = Arrays.asList(summary1);
+        Page<PatientSummary> patientPage = new PageImpl<>(patients, PageRequest.of(0, 20), 1);
+        List<LastVisitView> visits = Arrays.asList(lastVisit(visit1, 5L));
 
         when(patientRepository.findBySearchAndDoctorIds(eq(null), eq(Arrays.asList(1L)), any(Pageable.class)))
                 .thenReturn(patientPage);
-        when(visitRepository.findLastVisitsByPatients(Arrays.asList(1L)))
+        when(lastVisitRepository.findViewsByPatientIds(Arrays.asList(1L)))
                 .thenReturn(visits);
-        List<Object[]> countResults = Arrays.<Object[]>asList(countResult);
-        when(doctorRepository.countDistinctPatientsByDoctorIds(Arrays.asList(1L)))
-                .thenReturn(countResults);
 
         // Act
         PatientsListResponse result = patientService.getPatientsList(null, null, null, Arrays.asList(1L));
@@ -173,18 +257,14 @@ class PatientServiceTest {
     @Test
     void getPatientsList_WithPagination_ReturnsCorrectPage() {
         // Arrange
-        List<Patient> patients = Arrays.asList(patient1);
-        Page<Patient> patientPage = new PageImpl<>(patients, PageRequest.of(1, 10), 25);
-        List<Visit> visits = Arrays.asList(visit1);
-        Object[] countResult = {1L, 5L};
+        List<PatientSummary> patients = Arrays.asList(summary1);
+        Page<PatientSummary> patientPage = new PageImpl<>(patients, PageRequest.of(1, 10), 25);
+        List<LastVisitView> visits = Arrays.asList(lastVisit(visit1, 5L));
 
         when(patientRepository.findBySearchCriteria(eq(null), any(Pageable.class)))
                 .thenReturn(patientPage);
-        when(visitRepository.findLastVisitsByPatients(Arrays.asList(1L)))
+        when(lastVisitRepository.findViewsByPatientIds(Arrays.asList(1L)))
                 .thenReturn(visits);
-        List<Object[]> countResults = Arrays.<Object[]>asList(countResult);
-        when(doctorRepository.countDistinctPatientsByDoctorIds(Arrays.asList(1L)))
-                .thenReturn(countResults);
 
         // Act
         PatientsListResponse result = patientService.getPatientsList(2, 10, null, null);
@@ -200,18 +280,14 @@ class PatientServiceTest {
     @Test
     void getPatientsList_WithTimezoneConversion_ConvertsCorrectly() {
         // Arrange
-        List<Patient> patients = Arrays.asList(patient1);
-        Page<Patient> patientPage = new PageImpl<>(patients, PageRequest.of(0, 20), 1);
-        List<Visit> visits = Arrays.asList(visit2); // Visit with doctor in different timezone
-        Object[] countResult = {2L, 3L};
+        List<PatientSummary> patients = Arrays.asList(summary1);
+        Page<PatientSummary> patientPage = new PageImpl<>(patients, PageRequest.of(0, 20), 1);
+        List<LastVisitView> visits = Arrays.asList(lastVisit(visit2, 3L)); // Visit with doctor in different timezone
 
         when(patientRepository.findBySearchCriteria(eq(null), any(Pageable.class)))
                 .thenReturn(patientPage);
-        when(visitRepository.findLastVisitsByPatients(Arrays.asList(1L)))
+        when(lastVisitRepository.findViewsByPatientIds(Arrays.asList(1L)))
                 .thenReturn(visits);
-        List<Object[]> countResults = Arrays.<Object[]>asList(countResult);
-        when(doctorRepository.countDistinctPatientsByDoctorIds(Arrays.asList(2L)))
-                .thenReturn(countResults);
 
         // Act
         PatientsListResponse result = patientService.getPatientsList(null, null, null, null);
@@ -237,7 +313,7 @@ class PatientServiceTest {
     @Test
     void getPatientsList_EmptyResults_ReturnsEmptyResponse() {
         // Arrange
-        Page<Patient> emptyPage = new PageImpl<>(Arrays.asList(), PageRequest.of(0, 20), 0);
+        Page<PatientSummary> emptyPage = new PageImpl<>(Arrays.asList(), PageRequest.of(0, 20), 0);
 
         when(patientRepository.findBySearchCriteria(eq(null), any(Pageable.class)))
                 .thenReturn(emptyPage);
@@ -251,7 +327,145 @@ class PatientServiceTest {
         assertEquals(0L, result.getCount());
 
         verify(patientRepository, times(1)).findBySearchCriteria(eq(null), any(Pageable.class));
-        verify(visitRepository, never()).findLastVisitsByPatients(any());
-        verify(doctorRepository, never()).countDistinctPatientsByDoctorIds(any());
+        verify(lastVisitRepository, never()).findViewsByPatientIds(any());
+    }
+
+    @Test
+    void getPatientsList_CountNone_SkipsCountQuery() {
+        // Arrange
+        PatientsListRequest request = new PatientsListRequest(null, null, null, null);
+        request.setCountMode(CountMode.NONE);
+
+        when(patientRepository.findSliceBySearchCriteria(eq(null), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Arrays.asList(summary2), PageRequest.of(0, 20), false));
+
+        // Act
+        PatientsListResponse result = patientService.getPatientsList(request);
+
+        // Assert
+        assertEquals(1, result.getData().size());
+        assertNull(result.getCount());
+        assertNull(result.getCountExact());
+
+        verify(patientRepository, never()).findBySearchCriteria(any(), any(Pageable.class));
+        verify(patientRepository, never()).countBySearchCriteria(any());
+    }
+
+    @Test
+    void getPatientsList_CountEstimated_UsesCachedTotal() {
+        // Arrange
+        PatientsListRequest request = new PatientsListRequest(null, null, "Jane", null);
+        request.setCountMode(CountMode.ESTIMATED);
+
+        when(patientRepository.findSliceBySearchCriteria(eq("Jane"), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Arrays.asList(summary2), PageRequest.of(0, 20), false));
+        when(countCache.get(SearchMode.CONTAINS, "Jane", null)).thenReturn(42L);
+
+        // Act
+        PatientsListResponse result = patientService.getPatientsList(request);
+
+        // Assert
+        assertEquals(42L, result.getCount());
+        assertFalse(result.getCountExact());
+        verify(patientRepository, never()).countBySearchCriteria(any());
+    }
+
+    @Test
+    void getPatientsList_CountEstimatedCacheMiss_CountsAndCaches() {
+        // Arrange
+        PatientsListRequest request = new PatientsListRequest(null, null, "Jane", null);
+        request.setCountMode(CountMode.ESTIMATED);
+
+        when(patientRepository.findSliceBySearchCriteria(eq("Jane"), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Arrays.asList(summary2), PageRequest.of(0, 20), false));
+        when(countCache.get(SearchMode.CONTAINS, "Jane", null)).thenReturn(null);
+        when(patientRepository.countBySearchCriteria("Jane")).thenReturn(7L);
+
+        // Act
+        PatientsListResponse result = patientService.getPatientsList(request);
+
+        // Assert
+        assertEquals(7L, result.getCount());
+        assertTrue(result.getCountExact());
+        verify(countCache, times(1)).put(SearchMode.CONTAINS, "Jane", null, 7L);
+    }
+
+    @Test
+    void getPatientsList_IndexedSearch_PagesMatchingIds() {
+        // Arrange
+        PatientSummary patient3 = new PatientSummary(3L, "John", "Johnson");
+        PatientsListRequest request = new PatientsListRequest(2, 1, "john", null);
+
+        when(nameIndex.search("john")).thenReturn(new long[]{1L, 3L});
+        when(patientRepository.findSummariesByIds(Arrays.asList(3L))).thenReturn(Arrays.asList(patient3));
+
+        // Act
+        PatientsListResponse result = patientService.getPatientsList(request);
+
+        // Assert
+        assertEquals(1, result.getData().size());
+        assertEquals("Johnson", result.getData().get(0).getLastName());
+        assertEquals(2L, result.getCount());
+        assertTrue(result.getCountExact());
+        verify(patientRepository, never()).findBySearchCriteria(any(), any(Pageable.class));
+        verify(patientRepository, never()).countBySearchCriteria(any());
+    }
+
+    @Test
+    void getPatientsList_IndexedMatchNoLongerStored_UsesDatabase() {
+        // Arrange
+        PatientsListRequest request = new PatientsListRequest(null, null, "john", null);
+        Page<PatientSummary> patientPage = new PageImpl<>(Arrays.asList(summary1), PageRequest.of(0, 20), 1);
+
+        when(nameIndex.search("john")).thenReturn(new long[]{1L, 3L});
+        when(patientRepository.findSummariesByIds(Arrays.asList(1L, 3L))).thenReturn(Arrays.asList(summary1));
+        when(patientRepository.findBySearchCriteria(eq("john"), any(Pageable.class))).thenReturn(patientPage);
+
+        // Act
+        PatientsListResponse result = patientService.getPatientsList(request);
+
+        // Assert - count and page both come from the database
+        assertEquals(1, result.getData().size());
+        assertEquals(1L, result.getCount());
+    }
+
+    @Test
+    void getPatientsList_IndexedSearchWithDoctorFilter_UsesDatabase() {
+        // Arrange
+        Page<PatientSummary> patientPage = new PageImpl<>(Arrays.asList(summary1), PageRequest.of(0, 20), 1);
+        when(patientRepository.findBySearchAndDoctorIds(eq("john"), eq(Arrays.asList(1L)), any(Pageable.class)))
+                .thenReturn(patientPage);
+
+        // Act
+        PatientsListResponse result = patientService.getPatientsList(null, null, "john", Arrays.asList(1L));
+
+        // Assert
+        assertEquals(1L, result.getCount());
+        verify(nameIndex, never()).search(any());
+    }
+
+    @Test
+    void getPatientsList_PrefixSearch_UsesNameKeyQuery() {
+        // Arrange
+        PatientsListRequest request = new PatientsListRequest(null, null, "Jö_", null);
+        request.setSearchMode(SearchMode.PREFIX);
+        Page<PatientSummary> patientPage = new PageImpl<>(Arrays.asList(summary1), PageRequest.of(0, 20), 1);
+
+        when(patientRepository.findByNamePrefix(eq("jo!_%"), any(Pageable.class))).thenReturn(patientPage);
+
+        // Act
+        PatientsListResponse result = patientService.getPatientsList(request);
+
+        // Assert
+        assertEquals(1L, result.getCount());
+        verify(nameIndex, never()).search(any());
+        verify(patientRepository, never()).findBySearchCriteria(any(), any(Pageable.class));
+    }
+
+    private static LastVisitView lastVisit(Visit visit, Long doctorTotalPatients) {
+        Doctor doctor = visit.getDoctor();
+        return new LastVisitView(visit.getPatient().getId(), doctor.getId(),
+                visit.getStartDateTime(), visit.getEndDateTime(),
+                doctor.getFirstName(), doctor.getLastName(), doctor.getTimezone(), doctorTotalPatients);
     }
 }
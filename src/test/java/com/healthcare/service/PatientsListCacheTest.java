@@ -0,0 +1,137 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.PatientsListRequest;
+import com.healthcare.dto.PatientsListResponse;
+import com.healthcare.entity.Doctor;
+import com.healthcare.entity.Patient;
+import com.healthcare.entity.Visit;
+import com.healthcare.event.EntityChangeType;
+import com.healthcare.event.EntityChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatientsListCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private PatientsListCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new PatientsListCache(true, Duration.ofSeconds(30), 100, nanos::get, Runnable::run);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_AfterPut_ReturnsResponseAndRecordsHitAndMiss() {
+        PatientsListRequest request = new PatientsListRequest(1, 20, "john", List.of(2L, 1L));
+        assertNull(cache.get(request));
+
+        PatientsListResponse response = new PatientsListResponse(List.of(), 0L);
+        cache.put(request, response, dependencies(List.of(10L), List.of()), cache.stamp());
+
+        // Doctor order does not matter for the key
+        assertSame(response, cache.get(new PatientsListRequest(1, 20, "john", List.of(1L, 2L))));
+        assertNull(cache.get(new PatientsListRequest(2, 20, "john", List.of(1L, 2L))));
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(2, cache.stats().missCount());
+    }
+
+    @Test
+    void get_AfterTtl_ReturnsNull() {
+        PatientsListRequest request = new PatientsListRequest(1, 20, null, null);
+        cache.put(request, new PatientsListResponse(List.of(), 0L), dependencies(List.of(), List.of()), cache.stamp());
+
+        nanos.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        assertNull(cache.get(request));
+    }
+
+    @Test
+    void invalidateVisit_DropsOnlyEntriesShowingPatientOrDoctorOrFilteringByDoctor() {
+        PatientsListRequest showsPatient = new PatientsListRequest(1, 20, null, null);
+        PatientsListRequest showsDoctor = new PatientsListRequest(2, 20, null, null);
+        PatientsListRequest filtersDoctor = new PatientsListRequest(1, 20, null, List.of(5L));
+        PatientsListRequest unrelated = new PatientsListRequest(3, 20, null, null);
+        long stamp = cache.stamp();
+        cache.put(showsPatient, new PatientsListResponse(List.of(), 1L), dependencies(List.of(1L), List.of(7L)), stamp);
+        cache.put(showsDoctor, new PatientsListResponse(List.of(), 1L), dependencies(List.of(2L), List.of(5L)), stamp);
+        cache.put(filtersDoctor, new PatientsListResponse(List.of(), 0L), dependencies(List.of(), List.of()), stamp);
+        cache.put(unrelated, new PatientsListResponse(List.of(), 1L), dependencies(List.of(3L), List.of(7L)), stamp);
+
+        cache.invalidateVisit(1L, 5L);
+
+        assertNull(cache.get(showsPatient));
+        assertNull(cache.get(showsDoctor));
+        assertNull(cache.get(filtersDoctor));
+        assertNotNull(cache.get(unrelated));
+    }
+
+    @Test
+    void put_InvalidatedSinceStamp_IsNotStored() {
+        PatientsListRequest request = new PatientsListRequest(1, 20, null, null);
+        long stamp = cache.stamp();
+
+        cache.invalidateVisit(99L, 99L);
+        cache.put(request, new PatientsListResponse(List.of(), 0L), dependencies(List.of(1L), List.of()), stamp);
+
+        assertNull(cache.get(request));
+    }
+
+    @Test
+    void onEntityChanged_VisitInTransaction_InvalidatesAfterCommit() {
+        PatientsListRequest request = new PatientsListRequest(1, 20, null, null);
+        cache.put(request, new PatientsListResponse(List.of(), 1L), dependencies(List.of(1L), List.of()), cache.stamp());
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.onEntityChanged(new EntityChangedEvent(visit(1L, 5L), EntityChangeType.CREATED));
+        assertNotNull(cache.get(request));
+
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        assertNull(cache.get(request));
+    }
+
+    @Test
+    void put_OverMaximumWeight_EvictsAndCountsEviction() {
+        for (int page = 1; page <= 20; page++) {
+            List<Long> patientIds = List.of(page * 10L, page * 10L + 1, page * 10L + 2, page * 10L + 3);
+            cache.put(new PatientsListRequest(page, 4, null, null), new PatientsListResponse(List.of(), 80L),
+                    dependencies(patientIds, List.of(1L, 1L, 1L, 1L)), cache.stamp());
+        }
+        cache.cleanUp();
+
+        // Each entry weighs 1 + 4 patients + 4 visits against a maximum of 100
+        assertTrue(cache.stats().evictionCount() > 0);
+        assertTrue(cache.stats().evictionWeight() >= 20 * 9 - 100);
+    }
+
+    private static PatientsListCache.Dependencies dependencies(List<Long> patientIds, List<Long> visitDoctorIds) {
+        PatientsListCache.Dependencies dependencies = new PatientsListCache.Dependencies();
+        patientIds.forEach(dependencies::addPatient);
+        visitDoctorIds.forEach(dependencies::addVisit);
+        return dependencies;
+    }
+
+    private static Visit visit(Long patientId, Long doctorId) {
+        Patient patient = new Patient("Jane", "Doe");
+        patient.setId(patientId);
+        Doctor doctor = new Doctor("John", "Smith", "UTC");
+        doctor.setId(doctorId);
+        return new Visit(LocalDateTime.now(), LocalDateTime.now().plusHours(1), patient, doctor);
+    }
+}
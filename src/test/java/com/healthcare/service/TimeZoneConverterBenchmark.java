@@ -0,0 +1,66 @@
+package com.healthcare.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Allocation and time per visit for the former per-visit formatter/ZoneId/ZonedDateTime
+ * conversion versus {@link TimeZoneConverter}. Not picked up by the default test run,
+ * execute explicitly with {@code mvn test -Dtest=TimeZoneConverterBenchmark}.
+ */
+class TimeZoneConverterBenchmark {
+
+    private static final int VISITS = 1_000_000;
+    private static final String[] TIMEZONES = {"America/New_York", "America/Los_Angeles", "Europe/London"};
+
+    private static volatile Object sink;
+
+    @Test
+    void formatPerVisit() {
+        LocalDateTime[] visits = new LocalDateTime[1_024];
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 8, 0);
+        for (int i = 0; i < visits.length; i++) {
+            visits[i] = start.plusMinutes(37L * i);
+        }
+        TimeZoneConverter converter = new TimeZoneConverter();
+
+        Runnable previous = () -> {
+            for (int i = 0; i < VISITS; i++) {
+                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+                ZoneId doctorTimezone = ZoneId.of(TIMEZONES[i % TIMEZONES.length]);
+                sink = visits[i & 1_023]
+                        .atZone(ZoneId.systemDefault())
+                        .withZoneSameInstant(doctorTimezone)
+                        .format(formatter);
+            }
+        };
+        Runnable converted = () -> {
+            for (int i = 0; i < VISITS; i++) {
+                sink = converter.format(visits[i & 1_023], TIMEZONES[i % TIMEZONES.length]);
+            }
+        };
+
+        // Warm-up
+        previous.run();
+        converted.run();
+
+        System.out.printf("%-22s %-16s %-12s%n", "conversion", "bytes/visit", "ns/visit");
+        report("ZonedDateTime", previous);
+        report("TimeZoneConverter", converted);
+    }
+
+    private static void report(String name, Runnable task) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        task.run();
+        long nanos = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+        System.out.printf("%-22s %-16d %-12d%n", name, bytes / VISITS, nanos / VISITS);
+    }
+}
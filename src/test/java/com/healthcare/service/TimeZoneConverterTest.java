@@ -0,0 +1,109 @@
+package com.healthcare.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeZoneConverterTest {
+
+    private static final List<String> ZONES = List.of(
+            "UTC", "America/New_York", "America/Los_Angeles", "Europe/London",
+            "Asia/Kolkata", "Australia/Lord_Howe", "Pacific/Apia");
+
+    @Test
+    void format_MatchesZonedDateTimeConversion() {
+        Random random = new Random(42);
+        for (String storage : List.of("UTC", "Europe/Berlin")) {
+            TimeZoneConverter converter = new TimeZoneConverter(ZoneId.of(storage));
+            for (int i = 0; i < 20_000; i++) {
+                LocalDateTime stored = randomDateTime(random);
+                String zone = ZONES.get(random.nextInt(ZONES.size()));
+
+                String expected = stored.atZone(ZoneId.of(storage))
+                        .withZoneSameInstant(ZoneId.of(zone))
+                        .format(TimeZoneConverter.FORMATTER);
+                assertEquals(expected, converter.format(stored, zone), stored + " " + zone);
+            }
+        }
+    }
+
+    @Test
+    void parse_MatchesZonedDateTimeConversion() {
+        Random random = new Random(7);
+        for (String storage : List.of("UTC", "Europe/Berlin")) {
+            TimeZoneConverter converter = new TimeZoneConverter(ZoneId.of(storage));
+            for (int i = 0; i < 20_000; i++) {
+                String text = randomDateTime(random).format(TimeZoneConverter.FORMATTER);
+                String zone = ZONES.get(random.nextInt(ZONES.size()));
+
+                LocalDateTime expected = LocalDateTime.parse(text, TimeZoneConverter.FORMATTER)
+                        .atZone(ZoneId.of(zone))
+                        .withZoneSameInstant(ZoneId.of(storage))
+                        .toLocalDateTime();
+                assertEquals(expected, converter.parse(text, zone), text + " " + zone);
+            }
+        }
+    }
+
+    @Test
+    void parse_AroundDaylightSavingTransitions_MatchesZonedDateTime() {
+        TimeZoneConverter converter = new TimeZoneConverter(ZoneId.of("UTC"));
+        ZoneId newYork = ZoneId.of("America/New_York");
+
+        // Gap (02:30 does not exist) and overlap (01:30 happens twice)
+        for (String text : List.of("2024-03-10T02:30:00", "2024-11-03T01:30:00", "2024-11-03T00:59:59")) {
+            LocalDateTime expected = LocalDateTime.parse(text, TimeZoneConverter.FORMATTER)
+                    .atZone(newYork)
+                    .withZoneSameInstant(ZoneId.of("UTC"))
+                    .toLocalDateTime();
+            assertEquals(expected, converter.parse(text, "America/New_York"), text);
+        }
+    }
+
+    @Test
+    void convert_AlternatingWinterAndSummer_MatchesZonedDateTime() {
+        TimeZoneConverter converter = new TimeZoneConverter(ZoneId.of("Europe/Berlin"));
+        ZoneId newYork = ZoneId.of("America/New_York");
+
+        for (int i = 0; i < 1_000; i++) {
+            LocalDateTime stored = LocalDateTime.of(2024, i % 2 == 0 ? 1 : 7, 15, 10, 0).plusMinutes(i);
+            String expected = stored.atZone(ZoneId.of("Europe/Berlin")).withZoneSameInstant(newYork)
+                    .format(TimeZoneConverter.FORMATTER);
+
+            assertEquals(expected, converter.format(stored, "America/New_York"));
+            assertEquals(stored, converter.parse(expected, "America/New_York"));
+        }
+    }
+
+    @Test
+    void parse_OutOfRangeFields_ResolveLikeFormatter() {
+        TimeZoneConverter converter = new TimeZoneConverter(ZoneId.of("UTC"));
+
+        for (String text : List.of("2023-02-29T10:00:00", "2024-01-15T24:00:00")) {
+            assertEquals(LocalDateTime.parse(text, TimeZoneConverter.FORMATTER), converter.parse(text, "UTC"), text);
+        }
+    }
+
+    @Test
+    void parse_MalformedInput_ThrowsParseException() {
+        TimeZoneConverter converter = new TimeZoneConverter(ZoneId.of("UTC"));
+
+        assertThrows(DateTimeParseException.class, () -> converter.parse("2024-01-15 10:00:00", "UTC"));
+        assertThrows(DateTimeParseException.class, () -> converter.parse("2024-13-15T10:00:00", "UTC"));
+    }
+
+    private static LocalDateTime randomDateTime(Random random) {
+        // 1900-01-01 .. 2100-01-01, biased towards the present
+        long from = random.nextBoolean() ? -2_208_988_800L : 1_577_836_800L;
+        long to = 4_102_444_800L;
+        long epochSecond = from + (long) (random.nextDouble() * (to - from));
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+}
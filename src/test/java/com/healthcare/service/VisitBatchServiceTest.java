@@ -0,0 +1,203 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.BatchItemStatus;
+import com.healthcare.dto.CreateVisitRequest;
+import com.healthcare.dto.VisitBatchItemResult;
+import com.healthcare.entity.Doctor;
+import com.healthcare.entity.Patient;
+import com.healthcare.entity.Visit;
+import com.healthcare.lock.DoctorLockManager;
+import com.healthcare.repository.PatientRepository;
+import com.healthcare.repository.VisitRepository;
+import com.healthcare.repository.projection.VisitInterval;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VisitBatchServiceTest {
+
+    @Mock
+    private VisitRepository visitRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private DoctorCache doctorCache;
+
+    @Mock
+    private DoctorLockManager doctorLockManager;
+
+    @Mock
+    private DoctorSlotService doctorSlotService;
+
+    @Mock
+    private VisitProjectionService visitProjectionService;
+
+    @Spy
+    private TimeZoneConverter timeZoneConverter = new TimeZoneConverter(ZoneId.of("UTC"));
+
+    @InjectMocks
+    private VisitBatchService visitBatchService;
+
+    private final List<Visit> inserted = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // Shared by most tests; the ones rejecting everything never reach the later stubs
+        Doctor doctor = new Doctor("John", "Smith", "UTC");
+        doctor.setId(1L);
+
+        lenient().when(patientRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+        lenient().when(patientRepository.getReferenceById(any())).thenAnswer(invocation -> {
+            Patient patient = new Patient("Jane", "Doe");
+            patient.setId(invocation.getArgument(0));
+            return patient;
+        });
+        lenient().when(doctorCache.findAll(anyCollection())).thenReturn(Map.of(1L, doctor));
+        lenient().when(visitRepository.findIntervalsByDoctorIdsBetween(anyCollection(), any(), any())).thenReturn(List.of());
+
+        AtomicLong ids = new AtomicLong(100);
+        lenient().when(visitRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Visit> visits = invocation.getArgument(0);
+            visits.forEach(visit -> visit.setId(ids.incrementAndGet()));
+            inserted.addAll(visits);
+            return visits;
+        });
+    }
+
+    @Test
+    void createVisits_ValidItems_InsertsAllInOneBatch() {
+        // Act
+        List<VisitBatchItemResult> results = visitBatchService.createVisits(List.of(
+                request("2024-01-15T10:00:00", "2024-01-15T11:00:00", 1L, 1L),
+                request("2024-01-15T11:00:00", "2024-01-15T12:00:00", 1L, 1L)));
+
+        // Assert - Touching visits do not conflict
+        assertEquals(2, results.size());
+        assertEquals(BatchItemStatus.CREATED, results.get(0).getStatus());
+        assertEquals(101L, results.get(0).getVisitId());
+        assertEquals("2024-01-15T10:00:00", results.get(0).getStart());
+        assertEquals("2024-01-15T11:00:00", results.get(0).getEnd());
+        assertEquals("UTC", results.get(0).getTimezone());
+        assertEquals(BatchItemStatus.CREATED, results.get(1).getStatus());
+        assertEquals(102L, results.get(1).getVisitId());
+
+        verify(doctorLockManager, times(1)).lockForTransaction(Set.of(1L));
+        verify(patientRepository, times(1)).findExistingIds(anyCollection());
+        verify(doctorCache, times(1)).findAll(anyCollection());
+        verify(visitRepository, times(1)).findIntervalsByDoctorIdsBetween(anyCollection(), any(), any());
+        verify(visitRepository, times(1)).saveAll(anyList());
+        verify(visitRepository, never()).existsByDoctorIdAndDateTimeConflict(any(), any(), any());
+        verify(visitProjectionService, times(1)).recordVisits(inserted);
+    }
+
+    @Test
+    void createVisits_UnknownPatientOrDoctor_RejectsOnlyThoseItems() {
+        // Act
+        List<VisitBatchItemResult> results = visitBatchService.createVisits(List.of(
+                request("2024-01-15T10:00:00", "2024-01-15T11:00:00", 2L, 1L),
+                request("2024-01-15T10:00:00", "2024-01-15T11:00:00", 1L, 2L),
+                request("2024-01-15T10:00:00", "2024-01-15T11:00:00", 1L, 1L)));
+
+        // Assert
+        assertEquals(BatchItemStatus.REJECTED, results.get(0).getStatus());
+        assertEquals("Patient not found with ID: 2", results.get(0).getError());
+        assertEquals(BatchItemStatus.REJECTED, results.get(1).getStatus());
+        assertEquals("Doctor not found with ID: 2", results.get(1).getError());
+        assertEquals(BatchItemStatus.CREATED, results.get(2).getStatus());
+        assertEquals(1, inserted.size());
+    }
+
+    @Test
+    void createVisits_InvalidTimes_AreRejected() {
+        // Act
+        List<VisitBatchItemResult> results = visitBatchService.createVisits(List.of(
+                request("2024-01-15T11:00:00", "2024-01-15T10:00:00", 1L, 1L),
+                request("2024-01-15 10:00", "2024-01-15T11:00:00", 1L, 1L)));
+
+        // Assert
+        assertEquals("Start time cannot be after end time", results.get(0).getError());
+        assertEquals("Invalid date time, expected yyyy-MM-dd'T'HH:mm:ss", results.get(1).getError());
+        verify(visitRepository, never()).findIntervalsByDoctorIdsBetween(anyCollection(), any(), any());
+        verify(visitRepository, never()).saveAll(anyList());
+        verify(visitProjectionService, never()).recordVisits(anyList());
+    }
+
+    @Test
+    void createVisits_OverlapsStoredVisit_IsRejected() {
+        // Arrange - Stored 10:30-11:30, and a stored visit starting after the first item
+        when(visitRepository.findIntervalsByDoctorIdsBetween(anyCollection(), any(), any())).thenReturn(List.of(
+                interval("2024-01-15T10:30:00", "2024-01-15T11:30:00"),
+                interval("2024-01-15T13:00:00", "2024-01-15T14:00:00")));
+
+        // Act
+        List<VisitBatchItemResult> results = visitBatchService.createVisits(List.of(
+                request("2024-01-15T11:00:00", "2024-01-15T12:00:00", 1L, 1L),
+                request("2024-01-15T12:30:00", "2024-01-15T13:30:00", 1L, 1L),
+                request("2024-01-15T11:30:00", "2024-01-15T12:30:00", 1L, 1L)));
+
+        // Assert
+        assertEquals(VisitBatchService.CONFLICT_MESSAGE, results.get(0).getError());
+        assertEquals(VisitBatchService.CONFLICT_MESSAGE, results.get(1).getError());
+        assertEquals(BatchItemStatus.CREATED, results.get(2).getStatus());
+        assertEquals(1, inserted.size());
+    }
+
+    @Test
+    void createVisits_OverlappingItems_KeepsTheEarlierStart() {
+        // Act
+        List<VisitBatchItemResult> results = visitBatchService.createVisits(List.of(
+                request("2024-01-15T10:30:00", "2024-01-15T11:30:00", 1L, 1L),
+                request("2024-01-15T10:00:00", "2024-01-15T11:00:00", 1L, 1L),
+                request("2024-01-15T11:00:00", "2024-01-15T12:00:00", 1L, 1L)));
+
+        // Assert - Item 2 only overlaps the rejected item 0
+        assertEquals(BatchItemStatus.REJECTED, results.get(0).getStatus());
+        assertEquals(VisitBatchService.CONFLICT_MESSAGE + " (item 1 of this batch)", results.get(0).getError());
+        assertEquals(BatchItemStatus.CREATED, results.get(1).getStatus());
+        assertEquals(BatchItemStatus.CREATED, results.get(2).getStatus());
+        assertEquals(2, inserted.size());
+    }
+
+    @Test
+    void conflicts_MatchesRepositoryPredicate() {
+        LocalDateTime ten = LocalDateTime.of(2024, 1, 15, 10, 0);
+        LocalDateTime eleven = ten.plusHours(1);
+        LocalDateTime noon = ten.plusHours(2);
+
+        assertTrue(VisitBatchService.conflicts(ten, eleven, ten, eleven));
+        assertTrue(VisitBatchService.conflicts(ten, noon, ten.plusMinutes(15), ten.plusMinutes(30)));
+        assertFalse(VisitBatchService.conflicts(eleven, noon, ten, eleven));
+        assertFalse(VisitBatchService.conflicts(ten, eleven, eleven, noon));
+        // A zero-length visit at the start of a stored one conflicts with it
+        assertTrue(VisitBatchService.conflicts(ten, ten, ten, eleven));
+    }
+
+    private static CreateVisitRequest request(String start, String end, Long patientId, Long doctorId) {
+        return new CreateVisitRequest(start, end, patientId, doctorId);
+    }
+
+    private static VisitInterval interval(String start, String end) {
+        return new VisitInterval(1L, LocalDateTime.parse(start), LocalDateTime.parse(end));
+    }
+}
@@ -1,24 +1,34 @@
 package com.healthcare.service;
 
 import com.healthcare.dto.CreateVisitRequest;
+import com.healthcare.dto.VisitCreatedResponse;
 import com.healthcare.entity.Doctor;
 import com.healthcare.entity.Patient;
 import com.healthcare.entity.Visit;
+import com.healthcare.exception.VisitIntegrityViolationException;
+import com.healthcare.lock.DoctorLockManager;
 import com.healthcare.repository.DoctorRepository;
 import com.healthcare.repository.PatientRepository;
 import com.healthcare.repository.VisitRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -34,6 +44,24 @@ class VisitServiceTest {
     @Mock
     private DoctorRepository doctorRepository;
 
+    @Mock
+    private DoctorCache doctorCache;
+
+    @Mock
+    private DoctorLockManager doctorLockManager;
+
+    @Mock
+    private DoctorSlotService doctorSlotService;
+
+    @Mock
+    private DoctorScheduleIndex doctorScheduleIndex;
+
+    @Mock
+    private VisitProjectionService visitProjectionService;
+
+    @Spy
+    private TimeZoneConverter timeZoneConverter = new TimeZoneConverter();
+
     @InjectMocks
     private VisitService visitService;
 
@@ -59,79 +87,100 @@ class VisitServiceTest {
     @Test
     void createVisit_ValidRequest_ReturnsVisit() {
         // Arrange
-        when(patientRepository.findById(1L)).thenReturn(Optional.of(testPatient));
-        when(doctorRepository.findById(1L)).thenReturn(Optional.of(testDoctor));
-        when(visitRepository.existsByDoctorIdAndDateTimeConflict(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class)))
+        when(doctorCache.findTimezone(1L)).thenReturn(Optional.of("America/New_York"));
+        when(patientRepository.getReferenceById(1L)).thenReturn(testPatient);
+        when(doctorRepository.getReferenceById(1L)).thenReturn(testDoctor);
+        when(doctorScheduleIndex.hasConflict(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class)))
                 .thenReturn(false);
-        when(visitRepository.save(any(Visit.class))).thenAnswer(invocation -> {
+        when(visitRepository.saveAndFlush(any(Visit.class))).thenAnswer(invocation -> {
             Visit visit = invocation.getArgument(0);
             visit.setId(1L);
             return visit;
         });
 
         // Act
-        Visit result = visitService.createVisit(validRequest);
+        VisitCreatedResponse result = visitService.createVisit(validRequest);
 
         // Assert
         assertNotNull(result);
         assertEquals(1L, result.getId());
-        assertEquals(testPatient, result.getPatient());
-        assertEquals(testDoctor, result.getDoctor());
-
-        verify(patientRepository, times(1)).findById(1L);
-        verify(doctorRepository, times(1)).findById(1L);
-        verify(visitRepository, times(1)).existsByDoctorIdAndDateTimeConflict(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class));
-        verify(visitRepository, times(1)).save(any(Visit.class));
+        assertEquals(1L, result.getPatientId());
+        assertEquals(1L, result.getDoctorId());
+        assertEquals("2024-01-15T10:00:00", result.getStart());
+        assertEquals("2024-01-15T11:00:00", result.getEnd());
+        assertEquals("America/New_York", result.getTimezone());
+
+        // Neither the patient nor the doctor is read
+        verify(patientRepository, never()).findById(any());
+        verify(patientRepository, never()).existsById(any());
+        verify(doctorRepository, never()).findById(any());
+        verify(doctorCache, times(1)).findTimezone(1L);
+        verify(doctorScheduleIndex, times(1)).hasConflict(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(visitRepository, times(1)).saveAndFlush(any(Visit.class));
+        ArgumentCaptor<Visit> saved = ArgumentCaptor.forClass(Visit.class);
+        verify(visitProjectionService, times(1)).recordVisit(saved.capture());
+        assertSame(testPatient, saved.getValue().getPatient());
+        assertSame(testDoctor, saved.getValue().getDoctor());
+
+        // The doctor is locked before the first read
+        InOrder inOrder = inOrder(doctorLockManager, doctorCache);
+        inOrder.verify(doctorLockManager).lockForTransaction(List.of(1L));
+        inOrder.verify(doctorCache).findTimezone(1L);
     }
 
     @Test
-    void createVisit_PatientNotFound_ThrowsException() {
+    void createVisit_PatientNotFound_ThrowsWithReferencedIds() {
         // Arrange
-        when(patientRepository.findById(1L)).thenReturn(Optional.empty());
+        DataIntegrityViolationException violation = new DataIntegrityViolationException(
+                "could not execute statement", new SQLException("Referential integrity constraint violation"));
+        when(doctorCache.findTimezone(1L)).thenReturn(Optional.of("America/New_York"));
+        when(visitRepository.saveAndFlush(any(Visit.class))).thenThrow(violation);
 
         // Act & Assert
-        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+        VisitIntegrityViolationException exception = assertThrows(VisitIntegrityViolationException.class,
                 () -> visitService.createVisit(validRequest));
 
-        assertEquals("Patient not found with ID: 1", exception.getMessage());
-        verify(patientRepository, times(1)).findById(1L);
-        verify(doctorRepository, never()).findById(any());
-        verify(visitRepository, never()).save(any(Visit.class));
+        assertSame(violation, exception.getCause());
+        assertEquals(1L, exception.getPatientId());
+        assertEquals(1L, exception.getDoctorId());
+        verify(patientRepository, never()).findById(any());
+        verify(visitProjectionService, never()).recordVisit(any(Visit.class));
     }
 
     @Test
     void createVisit_DoctorNotFound_ThrowsException() {
         // Arrange
-        when(patientRepository.findById(1L)).thenReturn(Optional.of(testPatient));
-        when(doctorRepository.findById(1L)).thenReturn(Optional.empty());
+        when(doctorCache.findTimezone(1L)).thenReturn(Optional.empty());
+
+        when(patientRepository.existsById(1L)).thenReturn(true);
 
         // Act & Assert
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
                 () -> visitService.createVisit(validRequest));
 
         assertEquals("Doctor not found with ID: 1", exception.getMessage());
-        verify(patientRepository, times(1)).findById(1L);
-        verify(doctorRepository, times(1)).findById(1L);
-        verify(visitRepository, never()).save(any(Visit.class));
+        verify(doctorCache, times(1)).findTimezone(1L);
+        verify(visitRepository, never()).saveAndFlush(any(Visit.class));
     }
 
     @Test
     void createVisit_ConflictingVisit_ThrowsException() {
         // Arrange
-        when(patientRepository.findById(1L)).thenReturn(Optional.of(testPatient));
-        when(doctorRepository.findById(1L)).thenReturn(Optional.of(testDoctor));
-        when(visitRepository.existsByDoctorIdAndDateTimeConflict(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class)))
+        when(doctorCache.findTimezone(1L)).thenReturn(Optional.of("America/New_York"));
+        when(doctorScheduleIndex.hasConflict(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class)))
                 .thenReturn(true);
 
+        when(patientRepository.existsById(1L)).thenReturn(true);
+
         // Act & Assert
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
                 () -> visitService.createVisit(validRequest));
 
         assertEquals("Doctor has conflicting visit at this time", exception.getMessage());
-        verify(patientRepository, times(1)).findById(1L);
-        verify(doctorRepository, times(1)).findById(1L);
-        verify(visitRepository, times(1)).existsByDoctorIdAndDateTimeConflict(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class));
-        verify(visitRepository, never()).save(any(Visit.class));
+        verify(doctorCache, times(1)).findTimezone(1L);
+        verify(doctorScheduleIndex, times(1)).hasConflict(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(visitRepository, never()).saveAndFlush(any(Visit.class));
+        verify(visitProjectionService, never()).recordVisit(any(Visit.class));
     }
 
     @Test
@@ -143,44 +192,106 @@ class VisitServiceTest {
         invalidRequest.setPatientId(1L);
         invalidRequest.setDoctorId(1L);
 
-        when(patientRepository.findById(1L)).thenReturn(Optional.of(testPatient));
-        when(doctorRepository.findById(1L)).thenReturn(Optional.of(testDoctor));
+        when(doctorCache.findTimezone(1L)).thenReturn(Optional.of("America/New_York"));
+
+        when(patientRepository.existsById(1L)).thenReturn(true);
 
         // Act & Assert
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
                 () -> visitService.createVisit(invalidRequest));
 
         assertEquals("Start time cannot be after end time", exception.getMessage());
-        verify(visitRepository, never()).save(any(Visit.class));
+        verify(visitRepository, never()).saveAndFlush(any(Visit.class));
     }
 
     @Test
-    void createVisit_DifferentTimezone_ConvertsCorrectly() {
+    void createVisit_PatientNotFoundAndConflictingVisit_ReportsPatientFirst() {
         // Arrange
-        Doctor doctorInDifferentTimezone = new Doctor("Emily", "Johnson", "America/Los_Angeles");
-        doctorInDifferentTimezone.setId(2L);
+        when(doctorCache.findTimezone(1L)).thenReturn(Optional.of("America/New_York"));
+        when(doctorScheduleIndex.hasConflict(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(true);
+        when(patientRepository.existsById(1L)).thenReturn(false);
 
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> visitService.createVisit(validRequest));
+
+        assertEquals("Patient not found with ID: 1", exception.getMessage());
+        verify(visitRepository, never()).saveAndFlush(any(Visit.class));
+    }
+
+    @Test
+    void createVisit_PatientAndDoctorNotFound_ReportsPatientFirst() {
+        // Arrange
+        when(doctorCache.findTimezone(1L)).thenReturn(Optional.empty());
+        when(patientRepository.existsById(1L)).thenReturn(false);
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> visitService.createVisit(validRequest));
+
+        assertEquals("Patient not found with ID: 1", exception.getMessage());
+    }
+
+    @Test
+    void createVisit_DifferentTimezone_ConvertsCorrectly() {
+        // Arrange
         CreateVisitRequest requestInDifferentTimezone = new CreateVisitRequest();
         requestInDifferentTimezone.setStart("2024-01-15T10:00:00");
         requestInDifferentTimezone.setEnd("2024-01-15T11:00:00");
         requestInDifferentTimezone.setPatientId(1L);
         requestInDifferentTimezone.setDoctorId(2L);
 
-        when(patientRepository.findById(1L)).thenReturn(Optional.of(testPatient));
-        when(doctorRepository.findById(2L)).thenReturn(Optional.of(doctorInDifferentTimezone));
-        when(visitRepository.existsByDoctorIdAndDateTimeConflict(eq(2L), any(LocalDateTime.class), any(LocalDateTime.class)))
+        when(doctorCache.findTimezone(2L)).thenReturn(Optional.of("America/Los_Angeles"));
+        when(doctorScheduleIndex.hasConflict(eq(2L), any(LocalDateTime.class), any(LocalDateTime.class)))
                 .thenReturn(false);
-        when(visitRepository.save(any(Visit.class))).thenAnswer(invocation -> {
+        when(visitRepository.saveAndFlush(any(Visit.class))).thenAnswer(invocation -> {
             Visit visit = invocation.getArgument(0);
             visit.setId(1L);
             return visit;
         });
 
         // Act
-        Visit result = visitService.createVisit(requestInDifferentTimezone);
+        VisitCreatedResponse result = visitService.createVisit(requestInDifferentTimezone);
 
         // Assert
         assertNotNull(result);
-        verify(visitRepository, times(1)).save(any(Visit.class));
+        verify(timeZoneConverter, times(1)).parse("2024-01-15T10:00:00", "America/Los_Angeles");
+        verify(visitRepository, times(1)).saveAndFlush(any(Visit.class));
+    }
+
+    @Test
+    void createVisit_SlotsEngine_ClaimsSlotsWithoutLockOrConflictQuery() {
+        // Arrange
+        when(doctorSlotService.isEnabled()).thenReturn(true);
+        when(doctorCache.findTimezone(1L)).thenReturn(Optional.of("America/New_York"));
+        when(visitRepository.saveAndFlush(any(Visit.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        visitService.createVisit(validRequest);
+
+        // Assert
+        verify(doctorSlotService, times(1)).claim(anyList());
+        verify(doctorLockManager, never()).lockForTransaction(any());
+        verify(doctorScheduleIndex, never()).hasConflict(any(), any(), any());
+    }
+
+    @Test
+    void createVisit_SlotsEngineOffGrid_ThrowsException() {
+        // Arrange
+        when(doctorSlotService.isEnabled()).thenReturn(true);
+        when(doctorSlotService.validationError(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn("Visit times must be on 15-minute boundaries");
+        when(doctorCache.findTimezone(1L)).thenReturn(Optional.of("America/New_York"));
+
+        when(patientRepository.existsById(1L)).thenReturn(true);
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> visitService.createVisit(validRequest));
+
+        assertEquals("Visit times must be on 15-minute boundaries", exception.getMessage());
+        verify(visitRepository, never()).saveAndFlush(any(Visit.class));
+        verify(doctorSlotService, never()).claim(any());
     }
 }
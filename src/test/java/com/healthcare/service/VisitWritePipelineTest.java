@@ -0,0 +1,233 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.CreateVisitRequest;
+import com.healthcare.dto.VisitBatchItemResult;
+import com.healthcare.dto.VisitCreatedResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class VisitWritePipelineTest {
+
+    private final VisitBatchService visitBatchService = mock(VisitBatchService.class);
+    private VisitWritePipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    void submit_RequestsQueuedWhileWriting_AreCommittedAsOneBatch() throws Exception {
+        pipeline = pipeline(10, 4);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(visitBatchService.createVisits(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return created(invocation.getArgument(0));
+        });
+
+        CompletableFuture<VisitBatchItemResult> first = pipeline.submit(request(1L));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        List<CompletableFuture<VisitBatchItemResult>> queued = List.of(
+                pipeline.submit(request(2L)), pipeline.submit(request(3L)), pipeline.submit(request(4L)));
+        release.countDown();
+
+        assertEquals(0, first.get(5, TimeUnit.SECONDS).getIndex());
+        for (int i = 0; i < queued.size(); i++) {
+            assertEquals(i, queued.get(i).get(5, TimeUnit.SECONDS).getIndex());
+        }
+        verify(visitBatchService, times(2)).createVisits(anyList());
+    }
+
+    @Test
+    void submit_QueueFull_IsRejected() throws Exception {
+        pipeline = pipeline(1, 2);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(visitBatchService.createVisits(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return created(invocation.getArgument(0));
+        });
+
+        CompletableFuture<VisitBatchItemResult> writingNow = pipeline.submit(request(1L));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        pipeline.submit(request(2L));
+        pipeline.submit(request(3L));
+
+        assertThrows(RejectedExecutionException.class, () -> pipeline.submit(request(4L)));
+        release.countDown();
+        writingNow.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void submit_BatchFails_RetriesEachRequestAlone() throws Exception {
+        pipeline = pipeline(10, 4);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(visitBatchService.createVisits(anyList())).thenAnswer(invocation -> {
+            List<CreateVisitRequest> requests = invocation.getArgument(0);
+            if (requests.get(0).getPatientId() == 1L) {
+                writing.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return created(requests);
+            }
+            if (requests.size() > 1 || requests.get(0).getPatientId() == 3L) {
+                throw new CannotAcquireLockException("Doctor is busy");
+            }
+            return created(requests);
+        });
+
+        CompletableFuture<VisitBatchItemResult> first = pipeline.submit(request(1L));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<VisitBatchItemResult> succeeds = pipeline.submit(request(2L));
+        CompletableFuture<VisitBatchItemResult> fails = pipeline.submit(request(3L));
+        release.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        assertNotNull(succeeds.get(5, TimeUnit.SECONDS).getVisitId());
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> fails.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(CannotAcquireLockException.class, exception.getCause());
+    }
+
+    @Test
+    void createVisit_Accepted_ReturnsVisitInDoctorZone() {
+        pipeline = pipeline(10, 4);
+        when(visitBatchService.createVisits(anyList())).thenAnswer(invocation -> created(invocation.getArgument(0)));
+
+        VisitCreatedResponse response = pipeline.createVisit(request(5L));
+
+        assertEquals(105L, response.getId());
+        assertEquals(5L, response.getPatientId());
+        assertEquals(1L, response.getDoctorId());
+        assertEquals("2024-01-15T10:00:00", response.getStart());
+        assertEquals("2024-01-15T11:00:00", response.getEnd());
+        assertEquals("UTC", response.getTimezone());
+    }
+
+    @Test
+    void createVisit_ConflictWithinBatch_ThrowsPlainConflictMessage() {
+        pipeline = pipeline(10, 4);
+        when(visitBatchService.createVisits(anyList())).thenReturn(List.of(VisitBatchItemResult.rejected(0,
+                VisitBatchService.CONFLICT_MESSAGE + " (item 3 of this batch)")));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> pipeline.createVisit(request(1L)));
+
+        assertEquals("Doctor has conflicting visit at this time", exception.getMessage());
+    }
+
+    @Test
+    void createVisit_WriteFails_RethrowsOriginalException() {
+        pipeline = pipeline(10, 4);
+        when(visitBatchService.createVisits(anyList())).thenThrow(new CannotAcquireLockException("Doctor is busy"));
+
+        assertThrows(CannotAcquireLockException.class, () -> pipeline.createVisit(request(1L)));
+    }
+
+    @Test
+    void createVisit_BatchNotCommittedInTime_TimesOutAndIsSkipped() throws Exception {
+        pipeline = pipeline(10, 4, Duration.ofMillis(100));
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(visitBatchService.createVisits(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return created(invocation.getArgument(0));
+        });
+
+        CompletableFuture<VisitBatchItemResult> writingNow = pipeline.submit(request(1L));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        assertThrows(QueryTimeoutException.class, () -> pipeline.createVisit(request(2L)));
+        release.countDown();
+        writingNow.get(5, TimeUnit.SECONDS);
+
+        // The request given up on was still queued, so it is never written
+        assertNotNull(pipeline.submit(request(3L)).get(5, TimeUnit.SECONDS));
+        verify(visitBatchService, times(2)).createVisits(anyList());
+        verify(visitBatchService, never()).createVisits(argThat(requests -> requests.stream()
+                .anyMatch(r -> r.getPatientId() == 2L)));
+    }
+
+    @Test
+    void createVisit_TakenBatchCommitsAfterTimeout_WaitsForItsResult() throws Exception {
+        pipeline = pipeline(10, 4, Duration.ofMillis(100));
+        CountDownLatch writing = new CountDownLatch(1);
+        when(visitBatchService.createVisits(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            Thread.sleep(300);
+            return created(invocation.getArgument(0));
+        });
+
+        CompletableFuture<VisitCreatedResponse> response = CompletableFuture.supplyAsync(
+                () -> pipeline.createVisit(request(1L)));
+
+        // Written past the timeout, so answering 503 would hide a committed visit
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        assertEquals(101L, response.get(5, TimeUnit.SECONDS).getId());
+    }
+
+    @Test
+    void createVisit_WriteThrowsError_FailsCallerAndKeepsWriting() {
+        pipeline = pipeline(10, 4);
+        when(visitBatchService.createVisits(anyList()))
+                .thenThrow(new LinkageError("Broken class"))
+                .thenAnswer(invocation -> created(invocation.getArgument(0)));
+
+        assertThrows(LinkageError.class, () -> pipeline.createVisit(request(1L)));
+
+        assertEquals(102L, pipeline.createVisit(request(2L)).getId());
+    }
+
+    @Test
+    void submit_Disabled_IsRejected() {
+        pipeline = new VisitWritePipeline(visitBatchService, false, 10, Duration.ZERO, 4, Duration.ofSeconds(5));
+
+        assertThrows(RejectedExecutionException.class, () -> pipeline.submit(request(1L)));
+        verifyNoInteractions(visitBatchService);
+    }
+
+    private VisitWritePipeline pipeline(int maxBatchSize, int queueCapacity) {
+        return pipeline(maxBatchSize, queueCapacity, Duration.ofSeconds(5));
+    }
+
+    private VisitWritePipeline pipeline(int maxBatchSize, int queueCapacity, Duration timeout) {
+        return new VisitWritePipeline(visitBatchService, true, maxBatchSize, Duration.ofMillis(1), queueCapacity, timeout);
+    }
+
+    private static CreateVisitRequest request(Long patientId) {
+        return new CreateVisitRequest("2024-01-15T10:00:00", "2024-01-15T11:00:00", patientId, 1L);
+    }
+
+    /**
+     * Accepts every request, with the visit id derived from the patient id.
+     */
+    private static List<VisitBatchItemResult> created(List<CreateVisitRequest> requests) {
+        List<VisitBatchItemResult> results = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            CreateVisitRequest request = requests.get(i);
+            results.add(VisitBatchItemResult.created(i, 100 + request.getPatientId(),
+                    request.getStart(), request.getEnd(), "UTC"));
+        }
+        return results;
+    }
+}